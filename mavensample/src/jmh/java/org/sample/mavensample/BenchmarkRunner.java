@@ -0,0 +1,29 @@
+package org.sample.mavensample;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * Description: The BenchmarkRunner class is the entry point of target/benchmarks.jar. It accepts the usual JMH command line 
+ * (e.g. a benchmark name filter or -p size=1000) and always adds the GC profiler, so allocation rates and GC counts are reported alongside timings.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Description: Runs the selected benchmarks with the GC profiler enabled.
+     *
+     * @param args (String[]): Standard JMH command line options.
+     *
+     * @exception Throws Exception if the options cannot be parsed or a benchmark fails.
+     */
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,221 @@
+package org.sample.mavensample;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Description: The QuadTreeBenchmark class measures the QuadTree operations (insert, find, nearest, delete, update and dump),
+ * and the LinearQuadTree engine on find and range queries, over several sizes and point distributions, so that releases
+ * can be compared objectively. Run it through BenchmarkRunner, which enables the GC profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuadTreeBenchmark {
+
+    /*
+     * Description: The point distributions used to place rectangle anchors inside the default -50..50 world.
+     */
+    public enum Distribution {
+        UNIFORM,     // Anchors spread evenly over the whole world
+        CLUSTERED,   // Anchors gathered around a handful of hot spots
+        ADVERSARIAL  // Every anchor packed into one tiny corner of a single quadrant
+    }
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"UNIFORM", "CLUSTERED", "ADVERSARIAL"})
+    public Distribution distribution;
+
+    private float[] xs;
+    private float[] ys;
+    private QuadTree tree;
+    private LinearQuadTree linear;
+    private int cursor;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        xs = new float[size];
+        ys = new float[size];
+        fill(distribution, xs, ys, new Random(42));
+        tree = build();
+        Rectangle[] rectangles = new Rectangle[size];
+        for (int i = 0; i < size; i++) {
+            rectangles[i] = new Rectangle(xs[i], ys[i], 1, 1);
+        }
+        linear = new LinearQuadTree();
+        linear.bulkLoad(rectangles);
+
+        // dump() prints to System.out; discard it so the benchmark measures the tree walk, not the console
+        originalOut = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    /**
+     * Description: Fills the coordinate arrays with distinct anchors drawn from the given distribution. A repeated anchor
+     * is drawn again, since the tree keeps one rectangle per anchor and the mutating benchmarks would otherwise shrink it.
+     *
+     * @param distribution (Distribution): The distribution to draw from.
+     * @param xs (float[]): Receives the x-coordinates.
+     * @param ys (float[]): Receives the y-coordinates.
+     * @param random (Random): The source of randomness.
+     */
+    static void fill(Distribution distribution, float[] xs, float[] ys, Random random) {
+        float[][] centers = new float[8][2];
+        for (float[] c : centers) {
+            c[0] = -40 + random.nextFloat() * 80;
+            c[1] = -40 + random.nextFloat() * 80;
+        }
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < xs.length; i++) {
+            switch (distribution) {
+                case UNIFORM:
+                    xs[i] = -50 + random.nextFloat() * 100;
+                    ys[i] = -50 + random.nextFloat() * 100;
+                    break;
+                case CLUSTERED:
+                    float[] c = centers[random.nextInt(centers.length)];
+                    xs[i] = clamp(c[0] + (float) random.nextGaussian());
+                    ys[i] = clamp(c[1] + (float) random.nextGaussian());
+                    break;
+                default:
+                    xs[i] = -50 + random.nextFloat() * 0.01f;
+                    ys[i] = -50 + random.nextFloat() * 0.01f;
+                    break;
+            }
+            if (!seen.add((long) Float.floatToIntBits(xs[i]) << 32 | Float.floatToIntBits(ys[i]) & 0xffffffffL)) {
+                i--;
+            }
+        }
+    }
+
+    private static float clamp(float v) {
+        return Math.max(-50, Math.min(50, v));
+    }
+
+    private QuadTree build() {
+        QuadTree t = new QuadTree();
+        for (int i = 0; i < size; i++) {
+            t.tryInsert(new Rectangle(xs[i], ys[i], 1, 1));
+        }
+        return t;
+    }
+
+    private int next() {
+        int i = cursor;
+        cursor = i + 1 == size ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public QuadTree insert() {
+        return build();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public QuadTree bulkLoad() {
+        Rectangle[] rectangles = new Rectangle[size];
+        for (int i = 0; i < size; i++) {
+            rectangles[i] = new Rectangle(xs[i], ys[i], 1, 1);
+        }
+        QuadTree t = new QuadTree();
+        t.bulkLoad(rectangles);
+        return t;
+    }
+
+    @Benchmark
+    public Rectangle find() {
+        int i = next();
+        return tree.tryFind(xs[i], ys[i]);
+    }
+
+    @Benchmark
+    public Rectangle linearFind() {
+        int i = next();
+        return linear.tryFind(xs[i], ys[i]);
+    }
+
+    @Benchmark
+    public int queryRange() {
+        int i = next();
+        return tree.queryRange(new Rectangle(xs[i], ys[i], 2, 2)).size();
+    }
+
+    @Benchmark
+    public int linearQueryRange() {
+        int i = next();
+        return linear.queryRange(new Rectangle(xs[i], ys[i], 2, 2)).size();
+    }
+
+    @Benchmark
+    public Rectangle findMiss() {
+        int i = next();
+        return tree.tryFind(xs[i], Math.nextUp(ys[i]));
+    }
+
+    @Benchmark
+    public List<Rectangle> nearest() {
+        int i = next();
+        return tree.nearest(xs[i], ys[i], 10);
+    }
+
+    @Benchmark
+    public boolean deleteAndReinsert() {
+        // Anchors are distinct, so re-inserting keeps the tree the same size across iterations
+        int i = next();
+        boolean removed = tree.tryDelete(xs[i], ys[i]);
+        tree.tryInsert(new Rectangle(xs[i], ys[i], 1, 1));
+        return removed;
+    }
+
+    @Benchmark
+    public boolean update() {
+        int i = next();
+        return tree.tryUpdate(xs[i], ys[i], 1, 1);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void dump() {
+        tree.dump();
+    }
+}
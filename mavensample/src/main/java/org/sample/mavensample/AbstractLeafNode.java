@@ -0,0 +1,424 @@
+package org.sample.mavensample;
+
+import java.util.function.Consumer;
+
+/*
+ * Description: The AbstractLeafNode class holds the logic shared by every kind of leaf in the quadtree: inserting, deleting, finding, 
+ * querying and printing rectangles, plus the optional anchor index. Subclasses only decide how the rectangles are stored, 
+ * exposing them through positional accessors (entry 0 to size() - 1). A leaf does not know its own area; the methods taking 
+ * an area (from Node) use it to reject anchors outside the leaf and to print it, while the shorter overloads trust the caller, 
+ * usually the parent InternalNode, to have routed the rectangle here.
+ */
+abstract class AbstractLeafNode extends Node {
+    private final PointIndex index;   // Optional anchor -> entry position map, null when disabled
+    private PointIndex duplicates;    // Anchor -> number of further entries sharing it, which miss the index; null until the first one
+
+    /**
+     * Description: Initializes a new, empty leaf. 
+     * 
+     * @param indexed (boolean): Whether to keep a hash index from each anchor point to its entry, so that find and delete do not scan the leaf.
+     */
+    AbstractLeafNode(boolean indexed) {
+        this.index = indexed ? new PointIndex() : null;
+    }
+
+    /** Returns the number of stored entries. */
+    abstract int size();
+
+    /** Returns the x-coordinate of the bottom-left corner of entry i. */
+    abstract float x(int i);
+
+    /** Returns the y-coordinate of the bottom-left corner of entry i. */
+    abstract float y(int i);
+
+    /** Returns the length of entry i. */
+    abstract float length(int i);
+
+    /** Returns the width of entry i. */
+    abstract float width(int i);
+
+    /** Returns entry i as a Rectangle; storage that does not keep Rectangle objects returns a new copy. */
+    abstract Rectangle get(int i);
+
+    /** Adds the rectangle as the last entry. */
+    abstract void append(Rectangle r);
+
+    /** Adds a rectangle with the given fields as the last entry; storage that keeps Rectangle objects creates one. */
+    abstract void append(float x, float y, float length, float width);
+
+    /** Sets the length and width of entry i. */
+    abstract void resize(int i, float length, float width);
+
+    /** Overwrites entry to with the contents of entry from. */
+    abstract void move(int from, int to);
+
+    /** Drops every entry from position newSize onwards. */
+    abstract void truncate(int newSize);
+
+    /**
+     * Description: Inserts a rectangle into the leaf node if its bottom-left corner is contained within the node's area. 
+     * 
+     * @param r (Rectangle): The rectangle to be inserted into the leaf node.
+     * @param left (double): The x-coordinate of the left edge of the leaf's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the leaf's area.
+     * @param width (double): The width of the leaf's area.
+     * @param height (double): The height of the leaf's area.
+     */
+    @Override
+    public void insert(Rectangle r, double left, double bottom, double width, double height) {
+        add(r, left, bottom, width, height);
+    }
+
+    /**
+     * Description: Inserts a rectangle into the leaf node, which the caller has already chosen as the rectangle's leaf. 
+     * 
+     * @param r (Rectangle): The rectangle to be inserted into the leaf node.
+     */
+    public void insert(Rectangle r) {
+        add(r);
+    }
+
+    /**
+     * Description: Inserts a rectangle into the leaf node if its bottom-left corner is contained within the node's area. 
+     * 
+     * @param r (Rectangle): The rectangle to be inserted into the leaf node.
+     * @param left (double): The x-coordinate of the left edge of the leaf's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the leaf's area.
+     * @param width (double): The width of the leaf's area.
+     * @param height (double): The height of the leaf's area.
+     * 
+     * @return Returns true if the rectangle was stored; false if it lies outside the node's area.
+     */
+    @Override
+    boolean add(Rectangle r, double left, double bottom, double width, double height) {
+        if (!contains(r.point.x, r.point.y, left, bottom, width, height)) return false;
+        add(r);
+        return true;
+    }
+
+    /**
+     * Description: Inserts a rectangle into the leaf node, which the caller has already chosen as the rectangle's leaf. 
+     * 
+     * @param r (Rectangle): The rectangle to be inserted into the leaf node.
+     */
+    void add(Rectangle r) {
+        append(r);
+        indexLast(r.point.x, r.point.y);
+        growExtent(r.length, r.width);
+    }
+
+    /**
+     * Description: Inserts a rectangle given by its fields, like add(Rectangle), without requiring a Rectangle object 
+     * when the storage does not keep one.
+     * 
+     * @param x (float): The x-coordinate of the rectangle's bottom-left corner.
+     * @param y (float): The y-coordinate of the rectangle's bottom-left corner.
+     * @param length (float): The length of the rectangle.
+     * @param width (float): The width of the rectangle.
+     */
+    void add(float x, float y, float length, float width) {
+        append(x, y, length, width);
+        indexLast(x, y);
+        growExtent(length, width);
+    }
+
+    private void growExtent(float length, float width) {
+        if (length > maxLength) maxLength = length;
+        if (width > maxWidth) maxWidth = width;
+    }
+
+    /**
+     * Description: Recomputes maxLength and maxWidth from the remaining entries, after some were removed or resized.
+     */
+    void recomputeExtent() {
+        float maxL = 0, maxW = 0;
+        for (int i = 0, n = size(); i < n; i++) {
+            if (length(i) > maxL) maxL = length(i);
+            if (width(i) > maxW) maxW = width(i);
+        }
+        maxLength = maxL;
+        maxWidth = maxW;
+    }
+
+    private void indexLast(float x, float y) {
+        if (index != null) {
+            long key = PointIndex.key(x, y);
+            if (index.get(key) < 0) {
+                index.put(key, size() - 1);
+            } else {
+                if (duplicates == null) duplicates = new PointIndex();
+                duplicates.put(key, Math.max(duplicates.get(key), 0) + 1);
+            }
+        }
+    }
+
+    /**
+     * Description: Deletes every rectangle from the leaf node whose bottom-left corner is at the given coordinates.
+     * 
+     * @param x (float): The x-coordinate of the rectangle's bottom-left corner to be deleted.
+     * @param y (float): The y-coordinate of the rectangle's bottom-left corner to be deleted.
+     */
+    public void delete(float x, float y) {
+        remove(x, y);
+    }
+
+    /** Same as delete(x, y); a leaf does not need its area for this. */
+    @Override
+    public void delete(float x, float y, double left, double bottom, double width, double height) {
+        remove(x, y);
+    }
+
+    /**
+     * Description: Deletes every rectangle from the leaf node whose bottom-left corner is at the given coordinates.
+     * 
+     * @param x (float): The x-coordinate of the rectangle's bottom-left corner to be deleted.
+     * @param y (float): The y-coordinate of the rectangle's bottom-left corner to be deleted.
+     * 
+     * @return Returns true if a rectangle was removed; otherwise, returns false.
+     */
+    boolean remove(float x, float y) {
+        if (index == null) {
+            // Compact in place, keeping the remaining entries in insertion order
+            int n = size(), kept = 0;
+            for (int i = 0; i < n; i++) {
+                if (x(i) == x && y(i) == y) continue;
+                if (kept != i) move(i, kept);
+                kept++;
+            }
+            truncate(kept);
+            if (kept == n) return false;
+            recomputeExtent();
+            return true;
+        }
+        long key = PointIndex.key(x, y);
+        int i = index.remove(key);
+        if (i < 0) return false;
+        removeAt(i);
+        // Rectangles inserted twice at the same anchor are not in the index; remove them too, as the unindexed path does.
+        // Only an anchor that has such entries is scanned for, and the scan stops once they are all gone.
+        for (int j = size() - 1, extra = takeDuplicates(key); extra > 0 && j >= 0; j--) {
+            if (x(j) == x && y(j) == y) {
+                removeAt(j);
+                extra--;
+            }
+        }
+        recomputeExtent();
+        return true;
+    }
+
+    /** Same as remove(x, y); a leaf does not need its area for this. */
+    @Override
+    boolean remove(float x, float y, double left, double bottom, double width, double height) {
+        return remove(x, y);
+    }
+
+    /**
+     * Description: Changes the length and width of the rectangle anchored at the given coordinates in place. Any further rectangles 
+     * inserted at the same anchor are dropped, leaving a single rectangle there as deleting and re-inserting would.
+     * 
+     * @param x (float): The x-coordinate of the rectangle's bottom-left corner.
+     * @param y (float): The y-coordinate of the rectangle's bottom-left corner.
+     * @param newLength (float): The new length for the rectangle.
+     * @param newWidth (float): The new width for the rectangle.
+     * 
+     * @return Returns true if a rectangle was resized; false if there is none at the coordinates.
+     */
+    boolean resize(float x, float y, float newLength, float newWidth) {
+        int i = indexOf(x, y);
+        if (i < 0) return false;
+        resize(i, newLength, newWidth);
+        removeDuplicatesOf(i);
+        if (newLength >= maxLength && newWidth >= maxWidth) {
+            maxLength = newLength;
+            maxWidth = newWidth;
+        } else {
+            recomputeExtent();  // The resized rectangle may have been the largest
+        }
+        return true;
+    }
+
+    /** Same as resize(x, y, newLength, newWidth); a leaf does not need its area for this. */
+    @Override
+    boolean resize(float x, float y, float newLength, float newWidth, double left, double bottom, double width, double height) {
+        return resize(x, y, newLength, newWidth);
+    }
+
+    /**
+     * Description: Removes every other entry that shares entry i's anchor, keeping the index in step.
+     * 
+     * @param i (integer): The position of the entry to keep.
+     */
+    private void removeDuplicatesOf(int i) {
+        float x = x(i), y = y(i);
+        if (index == null) {
+            int n = size(), kept = i + 1;
+            for (int j = i + 1; j < n; j++) {
+                if (x(j) == x && y(j) == y) continue;
+                if (kept != j) move(j, kept);
+                kept++;
+            }
+            truncate(kept);
+            return;
+        }
+        // The indexed entry is the one to keep; removeAt() may move it, so look it up each time
+        long key = PointIndex.key(x, y);
+        for (int j = size() - 1, extra = takeDuplicates(key); extra > 0 && j >= 0; j--) {
+            if (x(j) == x && y(j) == y && index.get(key) != j) {
+                removeAt(j);
+                extra--;
+            }
+        }
+    }
+
+    /**
+     * Description: Forgets the entries counted as duplicates of an anchor, which the caller is about to remove.
+     * 
+     * @param key (long): The anchor's key.
+     * 
+     * @return The number of entries sharing the anchor besides the indexed one.
+     */
+    private int takeDuplicates(long key) {
+        return duplicates == null ? 0 : Math.max(duplicates.remove(key), 0);
+    }
+
+    /**
+     * Description: Removes entry i by moving the last entry into its place, keeping the index in step.
+     * 
+     * @param i (integer): The entry position to remove.
+     */
+    private void removeAt(int i) {
+        int last = size() - 1;
+        if (i != last) {
+            move(last, i);
+            long key = PointIndex.key(x(i), y(i));
+            if (index.get(key) == last) index.put(key, i);
+        }
+        truncate(last);
+    }
+
+    /**
+     * Description: Returns the position of the first entry whose bottom-left corner matches the specified coordinates.
+     * 
+     * @param x (float): The x-coordinate of the rectangle's bottom-left corner to find.
+     * @param y (float): The y-coordinate of the rectangle's bottom-left corner to find.
+     * 
+     * @return The entry position, or -1 if there is no such entry.
+     */
+    int indexOf(float x, float y) {
+        if (index != null) {
+            return index.get(PointIndex.key(x, y));
+        }
+        for (int i = 0, n = size(); i < n; i++) {
+            if (x(i) == x && y(i) == y) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Description: Finds and returns the rectangle that matches the specified coordinates of its bottom-left corner.
+     * 
+     * @param x (float): The x-coordinate of the rectangle's bottom-left corner to find.
+     * @param y (float): The y-coordinate of the rectangle's bottom-left corner to find.
+     * 
+     * @return Returns the Rectangle object if found; otherwise, returns null.
+     */
+    public Rectangle find(float x, float y) {
+        return lookup(x, y);
+    }
+
+    /** Same as find(x, y); a leaf does not need its area for this. */
+    @Override
+    public Rectangle find(float x, float y, double left, double bottom, double width, double height) {
+        return lookup(x, y);
+    }
+
+    /**
+     * Description: Finds and returns the rectangle that matches the specified coordinates of its bottom-left corner.
+     * 
+     * @param x (float): The x-coordinate of the rectangle's bottom-left corner to find.
+     * @param y (float): The y-coordinate of the rectangle's bottom-left corner to find.
+     * 
+     * @return Returns the Rectangle object if found; otherwise, returns null.
+     */
+    Rectangle lookup(float x, float y) {
+        int i = indexOf(x, y);
+        return i < 0 ? null : get(i);
+    }
+
+    /** Same as lookup(x, y); a leaf does not need its area for this. */
+    @Override
+    Rectangle lookup(float x, float y, double left, double bottom, double width, double height) {
+        return lookup(x, y);
+    }
+
+    /**
+     * Description: Passes every rectangle whose bottom-left corner lies inside the window to the visitor.
+     * 
+     * @param window (Rectangle): The area being queried.
+     * @param visitor (Consumer<Rectangle>): Receives each matching rectangle.
+     */
+    void queryRange(Rectangle window, Consumer<Rectangle> visitor) {
+        for (int i = 0, n = size(); i < n; i++) {
+            if (window.contains(x(i), y(i))) {
+                visitor.accept(get(i));
+            }
+        }
+    }
+
+    /** Same as queryRange(window, visitor); a leaf does not need its area for this. */
+    @Override
+    void queryRange(Rectangle window, Consumer<Rectangle> visitor, double left, double bottom, double width, double height) {
+        queryRange(window, visitor);
+    }
+
+    /**
+     * Description: Passes every rectangle that overlaps the window to the visitor, taking each rectangle's full extent into account.
+     * 
+     * @param window (Rectangle): The area being queried.
+     * @param visitor (Consumer<Rectangle>): Receives each overlapping rectangle.
+     */
+    void queryIntersecting(Rectangle window, Consumer<Rectangle> visitor) {
+        float left = window.point.x, right = left + window.length, bottom = window.point.y, top = bottom + window.width;
+        for (int i = 0, n = size(); i < n; i++) {
+            float x = x(i), y = y(i);
+            // Same test as Rectangle.intersects(), without creating the Rectangle first
+            if (x <= right && x + length(i) >= left && y <= top && y + width(i) >= bottom) {
+                visitor.accept(get(i));
+            }
+        }
+    }
+
+    /** Same as queryIntersecting(window, visitor); a leaf does not need its area for this. */
+    @Override
+    void queryIntersecting(Rectangle window, Consumer<Rectangle> visitor, double left, double bottom, double width, double height) {
+        queryIntersecting(window, visitor);
+    }
+
+    /**
+     * Description: Prints the details of the leaf node and its stored rectangles, formatted by the depth in the quadtree.
+     * 
+     * @param depth (integer): The depth level of the node in the quadtree, used for indentation in the output.
+     * @param out (OutputBuffer): The buffer receiving the output.
+     * @param left (double): The x-coordinate of the left edge of the leaf's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the leaf's area.
+     * @param width (double): The width of the leaf's area.
+     * @param height (double): The height of the leaf's area.
+     */
+    @Override
+    public void print(int depth, OutputBuffer out, double left, double bottom, double width, double height) {
+        out.indent(depth).append("Leaf Node - ").appendRectangle((float) left, (float) bottom, (float) width, (float) height).newline();
+        for (int i = 0, n = size(); i < n; i++) {
+            out.indent(depth + 1).appendRectangle(x(i), y(i), length(i), width(i)).newline();
+        }
+    }
+
+    /**
+     * Description: Returns the total number of rectangles currently stored in the leaf node.
+     * 
+     * @return Returns an integer representing the total count of rectangles.
+     */
+    @Override
+    public int getTotalRectangles() {
+        return size();
+    }
+}
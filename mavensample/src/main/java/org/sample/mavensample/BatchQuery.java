@@ -0,0 +1,189 @@
+package org.sample.mavensample;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Description: The BatchQuery class answers a whole batch of find or range queries in parallel on a ForkJoinPool.
+ * The queries are first grouped by the root quadrant they fall in, so each group starts its descent at that quadrant and
+ * threads working on different groups touch different parts of the tree. Each group is split into fork/join tasks of at most
+ * TASK_SIZE queries. Every answer is written to the query's own slot, so the results come back in input order.
+ * The tree is only read; it must not be modified while a batch runs.
+ */
+class BatchQuery {
+    static final int TASK_SIZE = 512;   // Queries answered by one task without forking further
+    private static final int ROOT = 4;  // Group for queries that must start at the root (a leaf root, or a window spanning quadrants)
+    private static final int NONE = 5;  // Group for queries outside the tree, answered without visiting it
+
+    private BatchQuery() {
+    }
+
+    /**
+     * Description: Looks up the rectangle anchored at each point (xs[i], ys[i]), like QuadTree.tryFind().
+     *
+     * @param root (Node): The root of the tree.
+     * @param left (double): The x-coordinate of the left edge of the root's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the root's area.
+     * @param width (double): The width of the root's area.
+     * @param height (double): The height of the root's area.
+     * @param xs (float[]): The x-coordinates of the points.
+     * @param ys (float[]): The y-coordinates of the points.
+     * @param pool (ForkJoinPool): The pool running the tasks.
+     *
+     * @exception Throws IllegalArgumentException if xs and ys differ in length.
+     *
+     * @return The rectangle found for each point, or null, in input order.
+     */
+    static Rectangle[] findAll(Node root, double left, double bottom, double width, double height, float[] xs, float[] ys, ForkJoinPool pool) {
+        if (xs.length != ys.length) throw new IllegalArgumentException("Coordinate arrays differ in length: " + xs.length + " and " + ys.length);
+        int n = xs.length;
+        Start[] starts = starts(root, left, bottom, width, height);
+        byte[] groups = new byte[n];
+        for (int i = 0; i < n; i++) {
+            groups[i] = (byte) findGroup(root, left, bottom, width, height, xs[i], ys[i]);
+        }
+        Rectangle[] results = new Rectangle[n];
+        run(pool, starts, groups, (start, i) -> results[i] = start == null ? null
+                : start.node.lookup(xs[i], ys[i], start.left, start.bottom, start.width, start.height));
+        return results;
+    }
+
+    /**
+     * Description: Collects the rectangles anchored inside each window, like QuadTree.queryRange().
+     *
+     * @param root (Node): The root of the tree.
+     * @param left (double): The x-coordinate of the left edge of the root's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the root's area.
+     * @param width (double): The width of the root's area.
+     * @param height (double): The height of the root's area.
+     * @param windows (List<Rectangle>): The windows to query.
+     * @param pool (ForkJoinPool): The pool running the tasks.
+     *
+     * @return One list of matching rectangles per window, in input order.
+     */
+    static List<List<Rectangle>> queryRangeAll(Node root, double left, double bottom, double width, double height, List<Rectangle> windows, ForkJoinPool pool) {
+        int n = windows.size();
+        Rectangle[] w = windows.toArray(new Rectangle[n]);
+        Start[] starts = starts(root, left, bottom, width, height);
+        byte[] groups = new byte[n];
+        for (int i = 0; i < n; i++) {
+            groups[i] = (byte) rangeGroup(root, left, bottom, width, height, w[i]);
+        }
+        @SuppressWarnings("unchecked")
+        List<Rectangle>[] results = new List[n];
+        run(pool, starts, groups, (start, i) -> {
+            List<Rectangle> result = new ArrayList<>();
+            if (start != null) start.node.queryRange(w[i], result::add, start.left, start.bottom, start.width, start.height);
+            results[i] = result;
+        });
+        return Arrays.asList(results);
+    }
+
+    // Where each group starts: the four root quadrants, then the root itself
+    private static Start[] starts(Node root, double left, double bottom, double width, double height) {
+        Start[] starts = new Start[NONE + 1];
+        starts[ROOT] = new Start(root, left, bottom, width, height);
+        if (root instanceof InternalNode) {
+            InternalNode r = (InternalNode) root;
+            for (int q = InternalNode.TOP_LEFT; q <= InternalNode.BOTTOM_RIGHT; q++) {
+                starts[q] = new Start(r.child(q), InternalNode.quadrantLeft(q, left, width), InternalNode.quadrantBottom(q, bottom, height),
+                        width / 2, height / 2);
+            }
+        }
+        return starts;
+    }
+
+    // Follows InternalNode.quadrantOf(), so starting at the quadrant finds exactly what starting at the root would
+    private static int findGroup(Node root, double left, double bottom, double width, double height, float x, float y) {
+        if (!(root instanceof InternalNode)) return ROOT;
+        int q = InternalNode.quadrantOf(x, y, left, bottom, width, height);
+        return q < 0 ? NONE : q;
+    }
+
+    // A window meeting a single quadrant only needs that quadrant, as InternalNode.queryRange() would skip the others
+    private static int rangeGroup(Node root, double left, double bottom, double width, double height, Rectangle window) {
+        if (!Node.intersects(window, left, bottom, width, height)) return NONE;
+        if (!(root instanceof InternalNode)) return ROOT;
+        double w = width / 2, h = height / 2, midX = left + w, midY = bottom + h;
+        boolean tl = Node.intersects(window, left, midY, w, h), tr = Node.intersects(window, midX, midY, w, h);
+        boolean bl = Node.intersects(window, left, bottom, w, h), br = Node.intersects(window, midX, bottom, w, h);
+        int count = (tl ? 1 : 0) + (tr ? 1 : 0) + (bl ? 1 : 0) + (br ? 1 : 0);
+        if (count != 1) return count == 0 ? NONE : ROOT;
+        return tl ? 0 : tr ? 1 : bl ? 2 : 3;
+    }
+
+    private static void run(ForkJoinPool pool, Start[] starts, byte[] groups, Answer answer) {
+        // Counting sort of the query positions by group, keeping input order within a group
+        int[] offsets = new int[starts.length + 1];
+        for (byte g : groups) offsets[g + 1]++;
+        for (int g = 0; g < starts.length; g++) offsets[g + 1] += offsets[g];
+        int[] order = new int[groups.length];
+        int[] next = Arrays.copyOf(offsets, starts.length);
+        for (int i = 0; i < groups.length; i++) order[next[groups[i]]++] = i;
+
+        List<Task> tasks = new ArrayList<>();
+        for (int g = 0; g < starts.length; g++) {
+            if (offsets[g] < offsets[g + 1]) tasks.add(new Task(starts[g], order, offsets[g], offsets[g + 1], answer));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    /*
+     * Description: Answers query i starting the descent at the given start (null for a query outside the tree).
+     */
+    private interface Answer {
+        void answer(Start start, int i);
+    }
+
+    /*
+     * Description: A node a group of queries starts at, with the area it covers.
+     */
+    private static final class Start {
+        final Node node;
+        final double left, bottom, width, height;
+
+        Start(Node node, double left, double bottom, double width, double height) {
+            this.node = node;
+            this.left = left;
+            this.bottom = bottom;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /*
+     * Description: Answers the queries order[from, to), all starting at the same node, halving the range until it is small enough.
+     */
+    private static final class Task extends RecursiveAction {
+        private final Start start;
+        private final int[] order;
+        private final int from, to;
+        private final Answer answer;
+
+        Task(Start start, int[] order, int from, int to, Answer answer) {
+            this.start = start;
+            this.order = order;
+            this.from = from;
+            this.to = to;
+            this.answer = answer;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TASK_SIZE) {
+                for (int k = from; k < to; k++) answer.answer(start, order[k]);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Task(start, order, from, middle, answer), new Task(start, order, middle, to, answer));
+        }
+    }
+}
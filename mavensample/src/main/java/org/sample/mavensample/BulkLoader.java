@@ -0,0 +1,169 @@
+package org.sample.mavensample;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Description: The BulkLoader class builds a whole quadtree (sub)tree from an array of rectangles in one pass. 
+ * It sorts the rectangles spatially by repeatedly partitioning them into the four quadrants of each node (a most-significant-first 
+ * radix sort on quadrant order) and creates every node directly with its final contents, instead of inserting rectangles one 
+ * at a time from the root. The result has exactly the shape and contents that inserting the same rectangles one by one would produce.
+ * Once partitioned, the four subtrees of a node are independent (each only touches its own range of the arrays), so a loader
+ * created with a cutoff builds them as fork/join tasks while a range holds more rectangles than the cutoff.
+ */
+class BulkLoader {
+    static final int PARALLEL_CUTOFF = 8192;  // Default range size below which a parallel loader stops forking
+    private static final int TOP_LEFT = InternalNode.TOP_LEFT, TOP_RIGHT = InternalNode.TOP_RIGHT,
+            BOTTOM_LEFT = InternalNode.BOTTOM_LEFT, BOTTOM_RIGHT = InternalNode.BOTTOM_RIGHT, OUTSIDE = 4;
+
+    private final QuadTreeConfig config;
+    private final int parallelCutoff;  // Ranges larger than this build their subtrees as parallel tasks
+
+    /**
+     * Description: Initializes a new BulkLoader that builds nodes according to the given configuration, on the calling thread.
+     * 
+     * @param config (QuadTreeConfig): The tuning parameters shared by every node of the tree being built.
+     */
+    BulkLoader(QuadTreeConfig config) {
+        this(config, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Description: Initializes a new BulkLoader that builds the four subtrees of a node as fork/join tasks whenever the node 
+     * covers more than parallelCutoff rectangles. build() must then be called from within a ForkJoinPool, e.g. through buildIn().
+     * 
+     * @param config (QuadTreeConfig): The tuning parameters shared by every node of the tree being built.
+     * @param parallelCutoff (integer): The largest range built sequentially.
+     */
+    BulkLoader(QuadTreeConfig config, int parallelCutoff) {
+        this.config = config;
+        this.parallelCutoff = parallelCutoff;
+    }
+
+    /**
+     * Description: Builds the node covering the given area from rectangles[0, n) like build(), running on the given pool.
+     * 
+     * @param pool (ForkJoinPool): The pool running the build.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
+     * @param rectangles (Rectangle[]): The rectangles, all anchored inside the area.
+     * @param n (integer): The number of rectangles to use.
+     * 
+     * @return The root of the built subtree.
+     */
+    Node buildIn(ForkJoinPool pool, double left, double bottom, double width, double height, Rectangle[] rectangles, int n) {
+        return pool.invoke(new BuildTask(left, bottom, width, height, 0, rectangles, new Rectangle[n], 0, n));
+    }
+
+    /**
+     * Description: Builds the node covering the given area from rectangles[from, to). The range is reordered in place; 
+     * scratch must be at least as long as rectangles. Rectangles that fall outside the area are left out, as insert() would reject them.
+     * 
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
+     * @param depth (integer): The depth of that node in the quadtree (the root is at depth 0).
+     * @param rectangles (Rectangle[]): The rectangles, all anchored inside the area.
+     * @param scratch (Rectangle[]): Working space for the partitioning.
+     * @param from (integer): The first position of the range (inclusive).
+     * @param to (integer): The last position of the range (exclusive).
+     * 
+     * @return The root of the built subtree.
+     */
+    Node build(double left, double bottom, double width, double height, int depth, Rectangle[] rectangles, Rectangle[] scratch, int from, int to) {
+        if (!config.shouldSplit(to - from, depth)) {
+            AbstractLeafNode leaf = config.newLeaf();
+            for (int i = from; i < to; i++) {
+                leaf.add(rectangles[i]);
+            }
+            return leaf;
+        }
+
+        int[] ends = partition(left, bottom, width, height, rectangles, scratch, from, to);
+        double w = width / 2, h = height / 2, midX = left + w, midY = bottom + h;
+        if (to - from > parallelCutoff) {
+            BuildTask[] tasks = {
+                    new BuildTask(left, midY, w, h, depth + 1, rectangles, scratch, from, ends[TOP_LEFT]),
+                    new BuildTask(midX, midY, w, h, depth + 1, rectangles, scratch, ends[TOP_LEFT], ends[TOP_RIGHT]),
+                    new BuildTask(left, bottom, w, h, depth + 1, rectangles, scratch, ends[TOP_RIGHT], ends[BOTTOM_LEFT]),
+                    new BuildTask(midX, bottom, w, h, depth + 1, rectangles, scratch, ends[BOTTOM_LEFT], ends[BOTTOM_RIGHT])
+            };
+            ForkJoinTask.invokeAll(tasks);
+            return new InternalNode(config, tasks[0].join(), tasks[1].join(), tasks[2].join(), tasks[3].join());
+        }
+        return new InternalNode(config,
+                build(left, midY, w, h, depth + 1, rectangles, scratch, from, ends[TOP_LEFT]),
+                build(midX, midY, w, h, depth + 1, rectangles, scratch, ends[TOP_LEFT], ends[TOP_RIGHT]),
+                build(left, bottom, w, h, depth + 1, rectangles, scratch, ends[TOP_RIGHT], ends[BOTTOM_LEFT]),
+                build(midX, bottom, w, h, depth + 1, rectangles, scratch, ends[BOTTOM_LEFT], ends[BOTTOM_RIGHT]));
+    }
+
+    /**
+     * Description: Stably reorders rectangles[from, to) into top-left, top-right, bottom-left and bottom-right groups, 
+     * assigning each rectangle to the quadrant InternalNode.quadrantOf() picks for its anchor, like InternalNode.add() does.
+     * 
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
+     * @param rectangles (Rectangle[]): The rectangles to reorder.
+     * @param scratch (Rectangle[]): Working space, at least as long as rectangles.
+     * @param from (integer): The first position of the range (inclusive).
+     * @param to (integer): The last position of the range (exclusive).
+     * 
+     * @return The exclusive end position of each of the four groups; rectangles outside the area follow the last group.
+     */
+    static int[] partition(double left, double bottom, double width, double height, Rectangle[] rectangles, Rectangle[] scratch, int from, int to) {
+        int[] counts = new int[OUTSIDE + 1];
+        for (int i = from; i < to; i++) {
+            counts[quadrantOf(rectangles[i], left, bottom, width, height)]++;
+        }
+        int[] next = new int[OUTSIDE + 1];
+        next[0] = from;
+        for (int q = 1; q <= OUTSIDE; q++) {
+            next[q] = next[q - 1] + counts[q - 1];
+        }
+        int[] ends = {next[1], next[2], next[3], next[4]};
+        for (int i = from; i < to; i++) {
+            scratch[next[quadrantOf(rectangles[i], left, bottom, width, height)]++] = rectangles[i];
+        }
+        System.arraycopy(scratch, from, rectangles, from, to - from);
+        return ends;
+    }
+
+    private static int quadrantOf(Rectangle r, double left, double bottom, double width, double height) {
+        int q = InternalNode.quadrantOf(r.point.x, r.point.y, left, bottom, width, height);
+        return q < 0 ? OUTSIDE : q;
+    }
+
+    /*
+     * Description: Builds one subtree as a fork/join task; see build().
+     */
+    private final class BuildTask extends RecursiveTask<Node> {
+        private final double left, bottom, width, height;
+        private final int depth;
+        private final Rectangle[] rectangles, scratch;
+        private final int from, to;
+
+        BuildTask(double left, double bottom, double width, double height, int depth, Rectangle[] rectangles, Rectangle[] scratch, int from, int to) {
+            this.left = left;
+            this.bottom = bottom;
+            this.width = width;
+            this.height = height;
+            this.depth = depth;
+            this.rectangles = rectangles;
+            this.scratch = scratch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Node compute() {
+            return build(left, bottom, width, height, depth, rectangles, scratch, from, to);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.sample.mavensample;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Description: The CommandParser class parses one command line straight out of a byte buffer in a single pass.
+ * It recognises the verb, splits the arguments on whitespace and reads the numbers directly from the bytes, so a well-formed
+ * command is parsed without creating any objects. Malformed commands produce the same error messages as Main.parseCommand()
+ * and Float.parseFloat(); only then is the text copied into a String.
+ */
+class CommandParser {
+    static final int INSERT = 1, FIND = 2, DELETE = 3, UPDATE = 4, DUMP = 5;
+
+    private static final byte[][] VERBS = {
+            null,
+            "insert".getBytes(StandardCharsets.US_ASCII),
+            "find".getBytes(StandardCharsets.US_ASCII),
+            "delete".getBytes(StandardCharsets.US_ASCII),
+            "update".getBytes(StandardCharsets.US_ASCII),
+            "dump".getBytes(StandardCharsets.US_ASCII)
+    };
+    private static final float[] POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+    private static final long MAX_EXACT_MANTISSA = 1L << 24;  // Every integer up to 2^24 is exact as a float
+    private static final long MAX_MANTISSA_DIGITS = 100_000_000_000_000_000L;
+
+    int verb;                         // One of INSERT, FIND, DELETE, UPDATE or DUMP
+    final float[] args = new float[4]; // The numeric arguments, in command order
+    private final int[] starts = new int[4];
+    private final int[] ends = new int[4];
+
+    /**
+     * Description: Parses the command stored in in[from, to), which may still carry surrounding whitespace but no line terminator.
+     * On success the verb and args fields describe the command.
+     *
+     * @param in (ByteBuffer): The buffer holding the command text; its position and limit are not used or changed.
+     * @param from (integer): The first position of the line (inclusive).
+     * @param to (integer): The last position of the line (exclusive).
+     *
+     * @exception Throws Exception with "Invalid command: ..." for an unknown verb, "Cannot parse command: ..." for a wrong number of arguments,
+     * and NumberFormatException for an argument that is not a number.
+     */
+    void parse(ByteBuffer in, int from, int to) throws Exception {
+        // Trim like String.trim()
+        while (from < to && (in.get(from) & 0xFF) <= ' ') from++;
+        while (to > from && (in.get(to - 1) & 0xFF) <= ' ') to--;
+
+        verb = verbOf(in, from, to);
+        if (verb == 0) throw new Exception("Invalid command: " + text(in, from, to));
+        if (verb == DUMP) return;
+
+        int expectedArgs = verb == INSERT || verb == UPDATE ? 4 : 2;
+        int end = to > from && in.get(to - 1) == ';' ? to - 1 : to;  // One trailing semicolon is optional
+
+        // Skip the verb token, then record where each argument starts and ends; tokens are separated by whitespace
+        int i = skipToken(in, from, end);
+        int count = 0;
+        while (true) {
+            i = skipWhitespace(in, i, end);
+            if (i == end) break;
+            if (count == expectedArgs) throw new Exception("Cannot parse command: " + text(in, from, to));
+            starts[count] = i;
+            i = skipToken(in, i, end);
+            ends[count++] = i;
+        }
+        if (count != expectedArgs) throw new Exception("Cannot parse command: " + text(in, from, to));
+
+        // The argument count is checked before any number, so the error reported is the same as before
+        for (int k = 0; k < count; k++) {
+            args[k] = parseFloat(in, starts[k], ends[k]);
+        }
+    }
+
+    /**
+     * Description: Parses a decimal number such as "-12.5" or "3e2" directly from the bytes. Numbers whose digits fit exactly in a float and
+     * whose decimal exponent is small are converted with a single correctly rounded float operation; anything else (long mantissas,
+     * large exponents, hexadecimal, "NaN", a trailing "f", ...) is handed to Float.parseFloat(), so the result is always identical to it.
+     *
+     * @param in (ByteBuffer): The buffer holding the number.
+     * @param from (integer): The first position of the number (inclusive).
+     * @param to (integer): The last position of the number (exclusive).
+     *
+     * @exception Throws NumberFormatException if the text is not a valid number.
+     *
+     * @return The parsed value.
+     */
+    static float parseFloat(ByteBuffer in, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (in.get(i) == '-' || in.get(i) == '+')) negative = in.get(i++) == '-';
+
+        long mantissa = 0;
+        int exponent = 0;
+        boolean digits = false, exact = true;
+        for (; i < to && isDigit(in.get(i)); i++, digits = true) {
+            if (mantissa < MAX_MANTISSA_DIGITS) mantissa = mantissa * 10 + (in.get(i) - '0');
+            else exact = false;
+        }
+        if (i < to && in.get(i) == '.') {
+            for (i++; i < to && isDigit(in.get(i)); i++, digits = true) {
+                if (mantissa < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + (in.get(i) - '0');
+                    exponent--;
+                } else {
+                    exact = false;
+                }
+            }
+        }
+        if (digits && i < to && (in.get(i) == 'e' || in.get(i) == 'E')) {
+            int j = i + 1;
+            boolean negativeExponent = false;
+            if (j < to && (in.get(j) == '-' || in.get(j) == '+')) negativeExponent = in.get(j++) == '-';
+            int e = 0;
+            boolean exponentDigits = false;
+            for (; j < to && isDigit(in.get(j)); j++, exponentDigits = true) {
+                if (e < 1000) e = e * 10 + (in.get(j) - '0');
+            }
+            if (exponentDigits) {
+                exponent += negativeExponent ? -e : e;
+                i = j;
+            }
+        }
+
+        if (digits && exact && i == to) {
+            while (mantissa > MAX_EXACT_MANTISSA && mantissa % 10 == 0) {
+                mantissa /= 10;
+                exponent++;
+            }
+            if (mantissa <= MAX_EXACT_MANTISSA && exponent >= -10 && exponent <= 10) {
+                float value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+                return negative ? -value : value;
+            }
+        }
+        return Float.parseFloat(text(in, from, to));
+    }
+
+    private static int verbOf(ByteBuffer in, int from, int to) {
+        for (int v = INSERT; v <= DUMP; v++) {
+            byte[] word = VERBS[v];
+            if (to - from < word.length) continue;
+            int k = 0;
+            // Case-insensitive prefix match, like cmd.toLowerCase().startsWith(verb)
+            while (k < word.length && (in.get(from + k) | 0x20) == word[k]) k++;
+            if (k == word.length) return v;
+        }
+        return 0;
+    }
+
+    private static int skipToken(ByteBuffer in, int i, int to) {
+        while (i < to && !isWhitespace(in.get(i))) i++;
+        return i;
+    }
+
+    private static int skipWhitespace(ByteBuffer in, int i, int to) {
+        while (i < to && isWhitespace(in.get(i))) i++;
+        return i;
+    }
+
+    // The characters matched by the regular expression \s
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    /**
+     * Description: Copies in[from, to) into a String, for error messages and the rare numbers the fast path does not handle.
+     *
+     * @param in (ByteBuffer): The buffer holding the text.
+     * @param from (integer): The first position of the text (inclusive).
+     * @param to (integer): The last position of the text (exclusive).
+     *
+     * @return The text, decoded as UTF-8.
+     */
+    static String text(ByteBuffer in, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = in.get(from + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,182 @@
+package org.sample.mavensample;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/*
+ * Description: The CommandRunner class executes quadtree commands as they are read. Input is read in fixed-size chunks of bytes;
+ * every complete line in a chunk is parsed in place by a CommandParser and executed immediately, so memory use is bounded by the
+ * longest line rather than the length of the input. Regular files can instead be memory-mapped and parsed straight out of the
+ * mapped pages, without copying or decoding them first. Results are collected in an OutputBuffer that is flushed once per chunk
+ * of input rather than once per line.
+ */
+class CommandRunner {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    static final int MAP_CHUNK_SIZE = 1 << 30;  // A single mapping is limited to 2 GB, so larger files are mapped a window at a time
+
+    private final QuadTree quadtree;
+    private final OutputBuffer out;
+    private final CommandParser parser = new CommandParser();
+
+    /**
+     * Description: Initializes a new CommandRunner that operates on the given quadtree and prints to the console.
+     *
+     * @param quadtree (QuadTree): The quadtree the commands operate on.
+     */
+    CommandRunner(QuadTree quadtree) {
+        this(quadtree, new OutputBuffer(System.out));
+    }
+
+    /**
+     * Description: Initializes a new CommandRunner that operates on the given quadtree and prints into the given buffer.
+     *
+     * @param quadtree (QuadTree): The quadtree the commands operate on.
+     * @param out (OutputBuffer): The buffer receiving results and error messages.
+     */
+    CommandRunner(QuadTree quadtree, OutputBuffer out) {
+        this.quadtree = quadtree;
+        this.out = out;
+    }
+
+    /**
+     * Description: Reads the stream to its end, executing each line as soon as it is complete. Output is flushed after each read,
+     * so a slow interactive stream sees its results right away while a fast one is written in large batches.
+     *
+     * @param in (InputStream): The source of the commands, one per line.
+     *
+     * @exception Throws IOException if reading from the stream fails.
+     */
+    void run(InputStream in) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        ByteBuffer view = ByteBuffer.wrap(buffer);
+        int length = 0;
+        int n;
+        while (true) {
+            if (length == buffer.length) { // A single line is longer than the buffer
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                view = ByteBuffer.wrap(buffer);
+            }
+            if ((n = in.read(buffer, length, buffer.length - length)) < 0) break;
+            length += n;
+            int consumed = runLines(view, 0, length, false);
+            System.arraycopy(buffer, consumed, buffer, 0, length - consumed); // Keep the unfinished line
+            length -= consumed;
+            out.flush();
+        }
+        runLines(view, 0, length, true);
+        out.flush();
+    }
+
+    /**
+     * Description: Memory-maps the file behind the channel and executes its lines directly from the mapped bytes. 
+     * Files larger than one mapping are processed in windows of MAP_CHUNK_SIZE bytes; each window starts at the first line 
+     * the previous one could not finish.
+     *
+     * @param channel (FileChannel): An open channel on a regular file.
+     *
+     * @exception Throws IOException if mapping the file fails or a single line is longer than a whole window.
+     */
+    void run(FileChannel channel) throws IOException {
+        run(channel, MAP_CHUNK_SIZE);
+    }
+
+    /**
+     * Description: Memory-maps the file as run(FileChannel) does, using windows of the given size.
+     *
+     * @param channel (FileChannel): An open channel on a regular file.
+     * @param chunkSize (integer): The largest number of bytes mapped at once.
+     *
+     * @exception Throws IOException if mapping the file fails or a single line is longer than a whole window.
+     */
+    void run(FileChannel channel, int chunkSize) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        while (position < size) {
+            int length = (int) Math.min(chunkSize, size - position);
+            boolean atEnd = position + length == size;
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int consumed = runLines(window, 0, length, atEnd);
+            if (consumed == 0 && !atEnd) {
+                throw new IOException("Command at byte " + position + " is longer than " + chunkSize + " bytes");
+            }
+            position += consumed;
+            out.flush();
+        }
+    }
+
+    /**
+     * Description: Executes every complete line in in[from, to). Lines end with "\n", "\r" or "\r\n", as with BufferedReader.readLine().
+     *
+     * @param in (ByteBuffer): The buffer holding the commands.
+     * @param from (integer): The first position to read (inclusive).
+     * @param to (integer): The last position to read (exclusive).
+     * @param atEnd (boolean): Whether no more input follows, so that a final line without a terminator is executed too.
+     *
+     * @return The position just after the last line executed; the bytes from there on belong to a line that is not yet complete.
+     */
+    int runLines(ByteBuffer in, int from, int to, boolean atEnd) {
+        int start = from;
+        for (int i = from; i < to; i++) {
+            byte b = in.get(i);
+            if (b != '\n' && b != '\r') continue;
+            if (b == '\r' && i + 1 == to && !atEnd) break; // A "\n" may follow in the next chunk
+            execute(in, start, i);
+            if (b == '\r' && i + 1 < to && in.get(i + 1) == '\n') i++;
+            start = i + 1;
+        }
+        if (atEnd && start < to) {
+            execute(in, start, to);
+            start = to;
+        }
+        return start;
+    }
+
+    /**
+     * Description: Parses and executes a single command line, appending its result or error message to the output buffer.
+     * Misses are reported the same way whether the root is still a leaf or has been split: an insert outside the tree prints
+     * "Rectangle is out of the quadtree's boundary.", a find prints "Nothing is at x, y" outside the tree and "Rectangle not found"
+     * inside it, a delete prints "Nothing to delete at x, y" outside the tree and nothing inside it, and an update prints
+     * "No rectangle found at x, y".
+     *
+     * @param in (ByteBuffer): The buffer holding the command.
+     * @param from (integer): The first position of the line (inclusive).
+     * @param to (integer): The last position of the line (exclusive), excluding the line terminator.
+     */
+    void execute(ByteBuffer in, int from, int to) {
+        try {
+            parser.parse(in, from, to);
+            float[] args = parser.args;
+            switch (parser.verb) {
+                case CommandParser.INSERT:
+                    if (!quadtree.tryInsert(new Rectangle(args[0], args[1], args[2], args[3]))) {
+                        out.append("Rectangle is out of the quadtree's boundary.").newline();
+                    }
+                    break;
+                case CommandParser.FIND:
+                    Rectangle result = quadtree.tryFind(args[0], args[1]);
+                    if (result != null) out.append(result).newline();
+                    else if (quadtree.inBounds(args[0], args[1])) out.append("Rectangle not found").newline();
+                    else out.append("Nothing is at ").append(args[0]).append(", ").append(args[1]).newline();
+                    break;
+                case CommandParser.DELETE:
+                    if (!quadtree.tryDelete(args[0], args[1]) && !quadtree.inBounds(args[0], args[1])) {
+                        out.append("Nothing to delete at ").append(args[0]).append(", ").append(args[1]).newline();
+                    }
+                    break;
+                case CommandParser.UPDATE:
+                    if (!quadtree.tryUpdate(args[0], args[1], args[2], args[3])) {
+                        out.append("No rectangle found at ").append(args[0]).append(", ").append(args[1]).newline();
+                    }
+                    break;
+                default:
+                    quadtree.dump(out);
+            }
+        } catch (Exception e) {
+            out.append(String.valueOf(e.getMessage())).newline();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package org.sample.mavensample;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/*
+ * Description: The ConcurrentQuadTree class is a thread-safe quadtree over a fixed boundary. The boundary is cut into a grid of 
+ * stripes, each backed by its own QuadTree and StampedLock. Readers take a stripe's read lock, so any number of finds and range 
+ * queries run in parallel; a writer takes the write lock of the one stripe it touches, so writers in different stripes never wait 
+ * for each other. A range query spanning several stripes locks them one at a time and is therefore not an atomic snapshot.
+ * A tree whose stripes keep their leaves off the heap must be closed once it is no longer needed.
+ */
+public class ConcurrentQuadTree implements Closeable {
+    private final int stripesPerSide;
+    private final double left, bottom, width, height;  // The whole boundary, held as a QuadTree over it would hold it
+    private final double[] columnLeft, columnWidth, rowBottom, rowHeight;  // Each stripe's area, readable without taking its lock
+    private final QuadTree[] stripes;
+    private final StampedLock[] locks;
+
+    /**
+     * Description: Initializes a new ConcurrentQuadTree covering the given boundary with stripesPerSide x stripesPerSide independently locked stripes.
+     * 
+     * @param x (float): The x-coordinate of the bottom-left corner of the boundary.
+     * @param y (float): The y-coordinate of the bottom-left corner of the boundary.
+     * @param width (float): The width of the boundary.
+     * @param height (float): The height of the boundary.
+     * @param stripesPerSide (integer): The number of stripes along each axis; more stripes means less writer contention.
+     */
+    public ConcurrentQuadTree(float x, float y, float width, float height, int stripesPerSide) {
+        this(x, y, width, height, stripesPerSide, QuadTreeConfig.DEFAULT);
+    }
+
+    /**
+     * Description: Initializes a new ConcurrentQuadTree like the constructor above, with the given configuration for every stripe.
+     * 
+     * @param x (float): The x-coordinate of the bottom-left corner of the boundary.
+     * @param y (float): The y-coordinate of the bottom-left corner of the boundary.
+     * @param width (float): The width of the boundary.
+     * @param height (float): The height of the boundary.
+     * @param stripesPerSide (integer): The number of stripes along each axis.
+     * @param config (QuadTreeConfig): The tuning parameters shared by the nodes of every stripe.
+     */
+    ConcurrentQuadTree(float x, float y, float width, float height, int stripesPerSide, QuadTreeConfig config) {
+        if (stripesPerSide < 1) throw new IllegalArgumentException("Stripes per side must be at least 1: " + stripesPerSide);
+        if (!(width > 0 && height > 0 && Float.isFinite(width) && Float.isFinite(height))) {
+            throw new IllegalArgumentException("Boundary must have a finite, positive size: " + width + "x" + height);
+        }
+        this.stripesPerSide = stripesPerSide;
+        this.left = x;
+        this.bottom = y;
+        this.width = width;
+        this.height = height;
+        this.columnLeft = new double[stripesPerSide];
+        this.columnWidth = new double[stripesPerSide];
+        this.rowBottom = new double[stripesPerSide];
+        this.rowHeight = new double[stripesPerSide];
+        divide(x, width, columnLeft, columnWidth);
+        divide(y, height, rowBottom, rowHeight);
+        this.stripes = new QuadTree[stripesPerSide * stripesPerSide];
+        this.locks = new StampedLock[stripes.length];
+        for (int row = 0; row < stripesPerSide; row++) {
+            for (int col = 0; col < stripesPerSide; col++) {
+                int i = row * stripesPerSide + col;
+                stripes[i] = new QuadTree(config.newLeaf(), columnLeft[col], rowBottom[row], columnWidth[col], rowHeight[row], config, false);
+                locks[i] = new StampedLock();
+            }
+        }
+    }
+
+    /**
+     * Description: Cuts a span into stripesPerSide pieces that meet exactly: the inner cuts are rounded to floats and the last piece ends 
+     * at the span's own end. Every edge is then a float or a sum of two floats, which the stripes' double arithmetic, down to their deepest 
+     * quadrants, holds without rounding, so no point falls between two stripes or between a stripe's quadrants.
+     * 
+     * @param start (float): The start of the span.
+     * @param size (float): The length of the span.
+     * @param starts (double[]): Receives the start of each piece.
+     * @param sizes (double[]): Receives the length of each piece.
+     */
+    private void divide(float start, float size, double[] starts, double[] sizes) {
+        double end = (double) start + size;
+        for (int i = 0; i < stripesPerSide; i++) {
+            starts[i] = i == 0 ? start : (float) (start + (double) size * i / stripesPerSide);
+        }
+        for (int i = 0; i < stripesPerSide; i++) {
+            sizes[i] = (i == stripesPerSide - 1 ? end : starts[i + 1]) - starts[i];
+        }
+    }
+
+    /**
+     * Description: Returns the stripe that takes the point. The whole boundary is checked as a QuadTree over it would check it; the grid 
+     * arithmetic then gives the candidate stripe, and the stripes' own boundary checks settle points that rounding puts right on a stripe edge.
+     * 
+     * @param px (float): The x-coordinate of the point.
+     * @param py (float): The y-coordinate of the point.
+     * 
+     * @return The stripe position, or -1 if the point is outside the whole tree.
+     */
+    private int stripeAt(float px, float py) {
+        if (!Node.contains(px, py, left, bottom, width, height)) return -1;
+        int col = clamp((int) Math.floor((px - left) / width * stripesPerSide));
+        int row = clamp((int) Math.floor((py - bottom) / height * stripesPerSide));
+        if (stripes[row * stripesPerSide + col].accepts(px, py)) return row * stripesPerSide + col;
+        for (int r = Math.max(0, row - 1); r <= Math.min(stripesPerSide - 1, row + 1); r++) {
+            for (int c = Math.max(0, col - 1); c <= Math.min(stripesPerSide - 1, col + 1); c++) {
+                if (stripes[r * stripesPerSide + c].accepts(px, py)) return r * stripesPerSide + c;
+            }
+        }
+        return -1;
+    }
+
+    private int clamp(int cell) {
+        return Math.max(0, Math.min(stripesPerSide - 1, cell));
+    }
+
+    /**
+     * Description: Inserts a rectangle, locking only the stripe that contains its bottom-left corner.
+     * 
+     * @param r (Rectangle): The rectangle to be inserted.
+     * 
+     * @return Returns true if the rectangle was stored; false if it lies outside the tree's boundary.
+     */
+    public boolean tryInsert(Rectangle r) {
+        int i = stripeAt(r.point.x, r.point.y);
+        if (i < 0) return false;
+        long stamp = locks[i].writeLock();
+        try {
+            return stripes[i].tryInsert(r);
+        } finally {
+            locks[i].unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Description: Finds the rectangle at the specified coordinates under the stripe's read lock, in parallel with other readers.
+     * 
+     * @param px (float): The x-coordinate of the rectangle's bottom-left corner.
+     * @param py (float): The y-coordinate of the rectangle's bottom-left corner.
+     * 
+     * @return Returns the rectangle if found; otherwise, returns null.
+     */
+    public Rectangle tryFind(float px, float py) {
+        int i = stripeAt(px, py);
+        if (i < 0) return null;
+        long stamp = locks[i].readLock();
+        try {
+            return stripes[i].tryFind(px, py);
+        } finally {
+            locks[i].unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Description: Deletes the rectangles at the specified coordinates, locking only their stripe.
+     * 
+     * @param px (float): The x-coordinate of the rectangle's bottom-left corner.
+     * @param py (float): The y-coordinate of the rectangle's bottom-left corner.
+     * 
+     * @return Returns true if a rectangle was removed; otherwise, returns false.
+     */
+    public boolean tryDelete(float px, float py) {
+        int i = stripeAt(px, py);
+        if (i < 0) return false;
+        long stamp = locks[i].writeLock();
+        try {
+            return stripes[i].tryDelete(px, py);
+        } finally {
+            locks[i].unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Description: Changes the length and width of the rectangle at the specified coordinates, locking only its stripe.
+     * 
+     * @param px (float): The x-coordinate of the rectangle's bottom-left corner.
+     * @param py (float): The y-coordinate of the rectangle's bottom-left corner.
+     * @param newLength (float): The new length for the rectangle.
+     * @param newWidth (float): The new width for the rectangle.
+     * 
+     * @return Returns true if a rectangle was updated; otherwise, returns false.
+     */
+    public boolean tryUpdate(float px, float py, float newLength, float newWidth) {
+        int i = stripeAt(px, py);
+        if (i < 0) return false;
+        long stamp = locks[i].writeLock();
+        try {
+            return stripes[i].tryUpdate(px, py, newLength, newWidth);
+        } finally {
+            locks[i].unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Description: Collects every rectangle whose bottom-left corner lies inside the window.
+     * 
+     * @param window (Rectangle): The area being queried.
+     * 
+     * @return (List<Rectangle>): The matching rectangles, in no particular order.
+     */
+    public List<Rectangle> queryRange(Rectangle window) {
+        List<Rectangle> result = new ArrayList<>();
+        queryRange(window, result::add);
+        return result;
+    }
+
+    /**
+     * Description: Passes every rectangle whose bottom-left corner lies inside the window to the visitor. Each intersecting stripe is read 
+     * under its own read lock, so the visitor must not call back into this tree's write methods.
+     * 
+     * @param window (Rectangle): The area being queried.
+     * @param visitor (Consumer<Rectangle>): Receives each matching rectangle.
+     */
+    public void queryRange(Rectangle window, Consumer<Rectangle> visitor) {
+        for (int i = 0; i < stripes.length; i++) {
+            int row = i / stripesPerSide, col = i % stripesPerSide;
+            if (!Node.intersects(window, columnLeft[col], rowBottom[row], columnWidth[col], rowHeight[row])) continue;
+            long stamp = locks[i].readLock();
+            try {
+                stripes[i].queryRange(window, visitor);
+            } finally {
+                locks[i].unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Description: Returns the number of rectangles stored. Stripes are counted one after another, so concurrent writes may or may not be included.
+     * 
+     * @return The total number of rectangles.
+     */
+    public int size() {
+        int total = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            long stamp = locks[i].readLock();
+            try {
+                total += stripes[i].getRoot().getTotalRectangles();
+            } finally {
+                locks[i].unlockRead(stamp);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Description: Frees the native memory of stripes with OFF_HEAP leaf storage. Every stripe's write lock is held while they are closed, 
+     * so no reader is still inside a stripe when its memory goes. The tree must not be used afterwards; closing twice does nothing.
+     */
+    @Override
+    public void close() {
+        long[] stamps = new long[locks.length];
+        for (int i = 0; i < locks.length; i++) stamps[i] = locks[i].writeLock();
+        try {
+            for (QuadTree stripe : stripes) stripe.close();  // The stripes share one store; closing it again does nothing
+        } finally {
+            for (int i = 0; i < locks.length; i++) locks[i].unlockWrite(stamps[i]);
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package org.sample.mavensample;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Description: The DurableQuadTree class is a thread-safe QuadTree whose mutations survive a crash. Every successful insert, delete
+ * and update is recorded in a write-ahead MutationLog before it is applied to the tree, and is durable when the call returns; 
+ * concurrent writers share fsyncs through group commit. Once the log has failed, every further mutation is refused and the tree 
+ * stays as it was. Once the log grows past a threshold, a checkpoint saves the whole tree as a snapshot and starts a new, empty log.
+ * Opening a directory recovers the tree from the latest checkpoint plus the log written after it.
+ *
+ * A directory holds at most one generation: checkpoint-N.snapshot (absent for generation 0) and log-N.wal.
+ */
+public class DurableQuadTree implements Closeable {
+    static final long DEFAULT_CHECKPOINT_BYTES = 64L * 1024 * 1024;
+    private static final Pattern CHECKPOINT_NAME = Pattern.compile("checkpoint-(\\d+)\\.snapshot");
+    private static final Pattern GENERATION_NAME = Pattern.compile("(?:checkpoint|log)-(\\d+)\\.(?:snapshot|wal)(?:\\.tmp)?");
+
+    private final Path directory;
+    private final long checkpointBytes;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private QuadTree tree;
+    private MutationLog log;
+    private long generation;
+
+    private DurableQuadTree(Path directory, long checkpointBytes) {
+        this.directory = directory;
+        this.checkpointBytes = checkpointBytes;
+    }
+
+    /**
+     * Description: Opens (or creates) a durable quadtree stored in the directory, using the default boundary and configuration for a new tree.
+     *
+     * @param directory (Path): The directory holding the checkpoint and the log.
+     *
+     * @exception Throws IOException if the directory cannot be read or recovery fails.
+     *
+     * @return (DurableQuadTree): The recovered tree.
+     */
+    public static DurableQuadTree open(Path directory) throws IOException {
+        return open(directory, new QuadTree());
+    }
+
+    /**
+     * Description: Opens (or creates) a durable quadtree stored in the directory. The given empty tree defines the boundary and configuration
+     * until the first checkpoint and must be the same every time the directory is opened; after that they are read from the checkpoint.
+     * The durable tree takes over the empty tree and closes it, which matters for one with off-heap leaves.
+     *
+     * @param directory (Path): The directory holding the checkpoint and the log.
+     * @param empty (QuadTree): An empty tree to replay the log into when there is no checkpoint yet.
+     *
+     * @exception Throws IOException if the directory cannot be read or recovery fails.
+     *
+     * @return (DurableQuadTree): The recovered tree.
+     */
+    public static DurableQuadTree open(Path directory, QuadTree empty) throws IOException {
+        return open(directory, empty, DEFAULT_CHECKPOINT_BYTES);
+    }
+
+    /**
+     * Description: Opens a durable quadtree like open(Path, QuadTree), taking a checkpoint whenever the log grows past the given size.
+     *
+     * @param directory (Path): The directory holding the checkpoint and the log.
+     * @param empty (QuadTree): An empty tree to replay the log into when there is no checkpoint yet.
+     * @param checkpointBytes (long): The log size that triggers a checkpoint.
+     *
+     * @exception Throws IOException if the directory cannot be read or recovery fails.
+     *
+     * @return (DurableQuadTree): The recovered tree.
+     */
+    static DurableQuadTree open(Path directory, QuadTree empty, long checkpointBytes) throws IOException {
+        Files.createDirectories(directory);
+        DurableQuadTree durable = new DurableQuadTree(directory, checkpointBytes);
+        durable.recover(empty);
+        return durable;
+    }
+
+    private void recover(QuadTree empty) throws IOException {
+        // The newest complete checkpoint wins; a checkpoint is only ever moved into place once fully written
+        generation = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher m = CHECKPOINT_NAME.matcher(file.getFileName().toString());
+                if (m.matches()) generation = Math.max(generation, Long.parseLong(m.group(1)));
+            }
+        }
+        if (generation > 0) {
+            tree = QuadTree.load(checkpointPath(generation));
+            empty.close();
+        } else {
+            tree = empty;
+        }
+
+        Path logPath = logPath(generation);
+        if (Files.exists(logPath)) {
+            MutationLog.replay(logPath, new MutationLog.Visitor() {
+                @Override
+                public void insert(float x, float y, float length, float width) {
+                    tree.tryInsert(new Rectangle(x, y, length, width));
+                }
+
+                @Override
+                public void delete(float x, float y) {
+                    tree.tryDelete(x, y);
+                }
+
+                @Override
+                public void update(float x, float y, float length, float width) {
+                    tree.tryUpdate(x, y, length, width);
+                }
+            });
+        }
+        log = new MutationLog(logPath);
+        removeOtherGenerations();
+    }
+
+    /**
+     * Description: Inserts a rectangle and returns once the insert is durable.
+     * @param r (Rectangle): The rectangle to be inserted.
+     *
+     * @exception Throws IOException if the log cannot be written, or has failed or been closed before (the tree is left unchanged then).
+     *
+     * @return (boolean): Returns true if the rectangle was stored; false if it lies outside the tree's boundary (nothing is logged then).
+     */
+    public boolean tryInsert(Rectangle r) throws IOException {
+        MutationLog current;
+        long sequence;
+        lock.writeLock().lock();
+        try {
+            if (!tree.accepts(r.point.x, r.point.y)) return false;
+            current = log;
+            sequence = log.append(MutationLog.INSERT, r.point.x, r.point.y, r.length, r.width);
+            tree.tryInsert(r);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        commit(current, sequence);
+        return true;
+    }
+
+    /**
+     * Description: Deletes every rectangle anchored at (x, y) and returns once the delete is durable.
+     * @param x (float): The x-coordinate of the rectangles' bottom-left corner.
+     * @param y (float): The y-coordinate of the rectangles' bottom-left corner.
+     *
+     * @exception Throws IOException if the log cannot be written, or has failed or been closed before (the tree is left unchanged then).
+     *
+     * @return (boolean): Returns true if anything was deleted; false otherwise (nothing is logged then).
+     */
+    public boolean tryDelete(float x, float y) throws IOException {
+        MutationLog current;
+        long sequence;
+        lock.writeLock().lock();
+        try {
+            if (tree.tryFind(x, y) == null) return false;
+            current = log;
+            sequence = log.append(MutationLog.DELETE, x, y, 0, 0);
+            tree.tryDelete(x, y);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        commit(current, sequence);
+        return true;
+    }
+
+    /**
+     * Description: Updates the dimensions of the rectangle anchored at (x, y) and returns once the update is durable.
+     * @param x (float): The x-coordinate of the rectangle's bottom-left corner.
+     * @param y (float): The y-coordinate of the rectangle's bottom-left corner.
+     * @param newLength (float): The new length for the rectangle.
+     * @param newWidth (float): The new width for the rectangle.
+     *
+     * @exception Throws IOException if the log cannot be written, or has failed or been closed before (the tree is left unchanged then).
+     *
+     * @return (boolean): Returns true if a rectangle was updated; false if there is none at (x, y) (nothing is logged then).
+     */
+    public boolean tryUpdate(float x, float y, float newLength, float newWidth) throws IOException {
+        MutationLog current;
+        long sequence;
+        lock.writeLock().lock();
+        try {
+            if (tree.tryFind(x, y) == null) return false;
+            current = log;
+            sequence = log.append(MutationLog.UPDATE, x, y, newLength, newWidth);
+            tree.tryUpdate(x, y, newLength, newWidth);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        commit(current, sequence);
+        return true;
+    }
+
+    // Waits for the record outside the tree lock, so other writers can join the same fsync
+    private void commit(MutationLog current, long sequence) throws IOException {
+        current.sync(sequence);
+        if (current.size() >= checkpointBytes) {
+            lock.writeLock().lock();
+            try {
+                if (log == current) checkpointLocked(); // Otherwise another writer already did it
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Description: Searches for a rectangle at the specified coordinates (x, y). Mutations made by other threads are visible as soon as
+     * they are applied, possibly a moment before they are durable.
+     * @param x (float): The x-coordinate of the point to search for.
+     * @param y (float): The y-coordinate of the point to search for.
+     *
+     * @return (Rectangle): Returns the rectangle found at the specified coordinates, or null if there is none.
+     */
+    public Rectangle tryFind(float x, float y) {
+        lock.readLock().lock();
+        try {
+            return tree.tryFind(x, y);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Description: Returns every rectangle whose bottom-left corner lies within the given window.
+     * @param window (Rectangle): The area to search.
+     *
+     * @return (List<Rectangle>): The rectangles anchored inside the window.
+     */
+    public List<Rectangle> queryRange(Rectangle window) {
+        lock.readLock().lock();
+        try {
+            return tree.queryRange(window);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Description: Returns the number of rectangles stored in the tree.
+     *
+     * @return (integer): The number of rectangles.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tree.getRoot().getTotalRectangles();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Description: Saves the whole tree as a new checkpoint and starts an empty log, then removes the previous checkpoint and log.
+     * Writers wait while the checkpoint is written. This also happens automatically whenever the log grows past its size threshold.
+     *
+     * @exception Throws IOException if the checkpoint cannot be written.
+     */
+    public void checkpoint() throws IOException {
+        lock.writeLock().lock();
+        try {
+            checkpointLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void checkpointLocked() throws IOException {
+        log.syncAll();
+        long next = generation + 1;
+        tree.save(checkpointPath(next));   // Written under a temporary name and moved into place
+        Files.deleteIfExists(logPath(next));
+        MutationLog nextLog = new MutationLog(logPath(next));
+        syncDirectory();
+
+        // From here on recovery uses the new checkpoint; the old generation is no longer needed
+        MutationLog previous = log;
+        log = nextLog;
+        generation = next;
+        previous.close();
+        removeOtherGenerations();
+    }
+
+    /**
+     * Description: Makes every logged mutation durable, closes the log and closes the tree, freeing any off-heap memory it holds.
+     * The directory can be opened again afterwards.
+     *
+     * @exception Throws IOException if the log cannot be written or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            log.close();
+        } finally {
+            tree.close();
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Path checkpointPath(long n) {
+        return directory.resolve("checkpoint-" + n + ".snapshot");
+    }
+
+    private Path logPath(long n) {
+        return directory.resolve("log-" + n + ".wal");
+    }
+
+    private void removeOtherGenerations() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Matcher m = GENERATION_NAME.matcher(name);
+                if (m.matches() && (Long.parseLong(m.group(1)) != generation || name.endsWith(".tmp"))) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        syncDirectory();
+    }
+
+    // Makes file creations, renames and deletions in the directory durable; not every platform supports this
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Best effort only
+        }
+    }
+}
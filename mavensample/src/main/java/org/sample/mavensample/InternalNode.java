@@ -1,27 +1,149 @@
 package org.sample.mavensample;
 
+import java.util.function.Consumer;
+
 /**
  * The InternalNode class represents a node in a quadtree that can contain child nodes.
  * It extends the Node class and provides methods for inserting, deleting, finding, 
  * and printing rectangles, as well as updating rectangle dimensions and managing 
- * child node relationships.
+ * child node relationships. The node does not store its area; each method receives it and hands every child 
+ * its quadrant, computed in double precision so that quadrant edges do not drift however deep the tree grows.
  */
 class InternalNode extends Node {
+    static final int TOP_LEFT = 0, TOP_RIGHT = 1, BOTTOM_LEFT = 2, BOTTOM_RIGHT = 3;
+
     Node topLeft, topRight, bottomLeft, bottomRight;
+    final QuadTreeConfig config;
 
     /**
-     * Description:  Initializes a new InternalNode with a specified boundary defined by its position (x, y) and its dimensions 
-     * (width, height). This constructor also calls the subdivide() method to create the four child nodes.
+     * Description:  Initializes a new InternalNode with four empty leaf children, using the default configuration. 
+     * This constructor also calls the subdivide() method to create the four child nodes.
+     */
+    public InternalNode() {
+        this(QuadTreeConfig.DEFAULT);
+    }
+
+    /**
+     * Description: Initializes a new InternalNode like the constructor above, but with the leaf capacity and maximum depth 
+     * taken from the given configuration so that its children split recursively as they fill up.
      * 
-     * @param x (double): The x-coordinate of the bottom-left corner of the node's boundary.
-     * @param y (double): The y-coordinate of the bottom-left corner of the node's boundary.
-     * @param width (double): The width of the node's boundary.
-     * @param height (double): The height of the node's boundary.
+     * @param config (QuadTreeConfig): The tuning parameters shared by the whole quadtree.
      */
-    public InternalNode(double x, double y, double width, double height) {
-        super(new Rectangle((float) x, (float) y, (float) width, (float) height));
+    InternalNode(QuadTreeConfig config) {
+        this.config = config;
         subdivide();
     }
+
+    /**
+     * Description: Initializes a new InternalNode from four ready-made children, without calling subdivide(). 
+     * Used when a whole subtree is built at once.
+     * 
+     * @param config (QuadTreeConfig): The tuning parameters shared by the whole quadtree.
+     * @param topLeft (Node): The top-left child.
+     * @param topRight (Node): The top-right child.
+     * @param bottomLeft (Node): The bottom-left child.
+     * @param bottomRight (Node): The bottom-right child.
+     */
+    InternalNode(QuadTreeConfig config, Node topLeft, Node topRight, Node bottomLeft, Node bottomRight) {
+        this.config = config;
+        this.topLeft = topLeft;
+        this.topRight = topRight;
+        this.bottomLeft = bottomLeft;
+        this.bottomRight = bottomRight;
+        recomputeExtent();
+    }
+
+    /**
+     * Description: Replaces a full leaf with an InternalNode covering the same area and re-inserts the leaf's rectangles into it. 
+     * Children of the new node are split again as needed, up to the configured maximum depth.
+     * 
+     * @param leaf (AbstractLeafNode): The leaf to be split.
+     * @param depth (integer): The depth of the leaf in the quadtree.
+     * @param config (QuadTreeConfig): The tuning parameters shared by the whole quadtree.
+     * @param left (double): The x-coordinate of the left edge of the leaf's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the leaf's area.
+     * @param width (double): The width of the leaf's area.
+     * @param height (double): The height of the leaf's area.
+     * 
+     * @return The InternalNode that takes the leaf's place.
+     */
+    static InternalNode split(AbstractLeafNode leaf, int depth, QuadTreeConfig config, double left, double bottom, double width, double height) {
+        InternalNode node = new InternalNode(config);
+        for (int i = 0, n = leaf.size(); i < n; i++) {
+            node.add(leaf.get(i), depth, left, bottom, width, height);
+        }
+        leaf.release();
+        return node;
+    }
+
+    /**
+     * Description: Returns the quadrant of an area that holds the point. A point on an edge shared by several quadrants goes to the 
+     * first of them in the order top-left, top-right, bottom-left, bottom-right.
+     * 
+     * @param x (float): The x-coordinate of the point.
+     * @param y (float): The y-coordinate of the point.
+     * @param left (double): The x-coordinate of the left edge of the area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the area.
+     * @param width (double): The width of the area.
+     * @param height (double): The height of the area.
+     * 
+     * @return TOP_LEFT, TOP_RIGHT, BOTTOM_LEFT or BOTTOM_RIGHT, or -1 if the point lies outside the area.
+     */
+    static int quadrantOf(float x, float y, double left, double bottom, double width, double height) {
+        if (!contains(x, y, left, bottom, width, height)) return -1;
+        return (y >= bottom + height / 2 ? TOP_LEFT : BOTTOM_LEFT) + (x > left + width / 2 ? 1 : 0);
+    }
+
+    /**
+     * Description: Returns the left edge of a quadrant of an area. Its width is half the area's width.
+     * 
+     * @param quadrant (integer): The quadrant, TOP_LEFT to BOTTOM_RIGHT.
+     * @param left (double): The x-coordinate of the left edge of the area.
+     * @param width (double): The width of the area.
+     * 
+     * @return The x-coordinate of the quadrant's left edge.
+     */
+    static double quadrantLeft(int quadrant, double left, double width) {
+        return (quadrant & 1) == 0 ? left : left + width / 2;
+    }
+
+    /**
+     * Description: Returns the bottom edge of a quadrant of an area. Its height is half the area's height.
+     * 
+     * @param quadrant (integer): The quadrant, TOP_LEFT to BOTTOM_RIGHT.
+     * @param bottom (double): The y-coordinate of the bottom edge of the area.
+     * @param height (double): The height of the area.
+     * 
+     * @return The y-coordinate of the quadrant's bottom edge.
+     */
+    static double quadrantBottom(int quadrant, double bottom, double height) {
+        return quadrant < BOTTOM_LEFT ? bottom + height / 2 : bottom;
+    }
+
+    /**
+     * Description: Returns the child in the given quadrant.
+     * 
+     * @param quadrant (integer): The quadrant, TOP_LEFT to BOTTOM_RIGHT.
+     * 
+     * @return The child node.
+     */
+    Node child(int quadrant) {
+        switch (quadrant) {
+            case TOP_LEFT: return topLeft;
+            case TOP_RIGHT: return topRight;
+            case BOTTOM_LEFT: return bottomLeft;
+            default: return bottomRight;
+        }
+    }
+
+    private void setChild(int quadrant, Node node) {
+        switch (quadrant) {
+            case TOP_LEFT: topLeft = node; break;
+            case TOP_RIGHT: topRight = node; break;
+            case BOTTOM_LEFT: bottomLeft = node; break;
+            default: bottomRight = node;
+        }
+    }
     
     /**
      * Description: Updates the dimensions of a rectangle located at the specified coordinates within the node. 
@@ -31,29 +153,51 @@ class InternalNode extends Node {
      * @param y (float): The y-coordinate of the rectangle's bottom-left corner to be updated.
      * @param newLength (float): The new length for the rectangle.
      * @param newWidth (float): The new width for the rectangle.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
      */
-    public void update(float x, float y, float newLength, float newWidth) throws Exception {
-        // Find the rectangle in the appropriate child node
-        Rectangle rectangleToUpdate = find(x, y); // Assuming `find` method locates the rectangle
-
-        // Update the rectangle's dimensions
-        if (rectangleToUpdate != null) {
-            rectangleToUpdate.length = newLength;
-            rectangleToUpdate.width = newWidth;
-        } else {
+    public void update(float x, float y, float newLength, float newWidth, double left, double bottom, double width, double height) throws Exception {
+        if (!resize(x, y, newLength, newWidth, left, bottom, width, height)) {
             throw new Exception("Rectangle not found at specified location");
         }
     }
 
     /**
-     * Description: Divides the current internal node's boundary into four smaller leaf nodes (topLeft, topRight, bottomLeft, bottomRight) by calculating the midpoints of the boundary.
+     * Description: Changes the length and width of the rectangle anchored at the specified coordinates in the one child that can hold it, 
+     * then refreshes this node's extent on the way back up.
+     * 
+     * @param x (float): The x-coordinate of the rectangle's bottom-left corner.
+     * @param y (float): The y-coordinate of the rectangle's bottom-left corner.
+     * @param newLength (float): The new length for the rectangle.
+     * @param newWidth (float): The new width for the rectangle.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
+     * 
+     * @return Returns true if a rectangle was resized; false if there is none at the coordinates.
+     */
+    @Override
+    boolean resize(float x, float y, float newLength, float newWidth, double left, double bottom, double width, double height) {
+        int q = quadrantOf(x, y, left, bottom, width, height);
+        if (q < 0 || !child(q).resize(x, y, newLength, newWidth,
+                quadrantLeft(q, left, width), quadrantBottom(q, bottom, height), width / 2, height / 2)) {
+            return false;
+        }
+        recomputeExtent();
+        return true;
+    }
+
+    /**
+     * Description: Creates the four empty leaf children (topLeft, topRight, bottomLeft, bottomRight).
      */
     private void subdivide() {
-        float x = boundary.point.x, y = boundary.point.y, w = boundary.length / 2, h = boundary.width / 2;
-        topLeft = new LeafNode(x, y + h, w, h);
-        topRight = new LeafNode(x + w, y + h, w, h);
-        bottomLeft = new LeafNode(x, y, w, h);
-        bottomRight = new LeafNode(x + w, y, w, h);
+        topLeft = config.newLeaf();
+        topRight = config.newLeaf();
+        bottomLeft = config.newLeaf();
+        bottomRight = config.newLeaf();
     }
 
     /**
@@ -63,10 +207,10 @@ class InternalNode extends Node {
      */
     public int getTotalRectangles() {
         int total = 0;
-        total += ((LeafNode) topLeft).getTotalRectangles();
-        total += ((LeafNode) topRight).getTotalRectangles();
-        total += ((LeafNode) bottomLeft).getTotalRectangles();
-        total += ((LeafNode) bottomRight).getTotalRectangles();
+        total += topLeft.getTotalRectangles();
+        total += topRight.getTotalRectangles();
+        total += bottomLeft.getTotalRectangles();
+        total += bottomRight.getTotalRectangles();
         return total;
     }
 
@@ -81,80 +225,297 @@ class InternalNode extends Node {
     }
 
     /**
-     * Description: Inserts a rectangle into one of the child nodes if it lies within the internal node's boundary. 
-     * If the rectangle's position is outside the boundary, it throws an exception.
+     * Description: Inserts a rectangle into one of the child nodes if it lies within the internal node's area. 
+     * If the rectangle's position is outside the area, it throws an exception.
      * 
      * @param r (Rectangle): The rectangle to be inserted.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
      * 
      * @exception Throws an Exception if the rectangle is outside the internal node's boundary or if it cannot be inserted into any of the child nodes.
      */
     @Override
-    public void insert(Rectangle r) throws Exception {
+    public void insert(Rectangle r, double left, double bottom, double width, double height) throws Exception {
         // Check if the rectangle is within the boundary of this internal node
-        if (!boundary.contains(r.point.x, r.point.y)) {
+        if (!contains(r.point.x, r.point.y, left, bottom, width, height)) {
             throw new Exception("Rectangle is out of the internal node's boundary.");
         }
-
-        // Attempt to insert the rectangle into one of the child nodes
-        if (topLeft.boundary.contains(r.point.x, r.point.y)) {
-            topLeft.insert(r);
-        } else if (topRight.boundary.contains(r.point.x, r.point.y)) {
-            topRight.insert(r);
-        } else if (bottomLeft.boundary.contains(r.point.x, r.point.y)) {
-            bottomLeft.insert(r);
-        } else if (bottomRight.boundary.contains(r.point.x, r.point.y)) {
-            bottomRight.insert(r);
-        } else {
+        if (!add(r, 0, left, bottom, width, height)) {
             throw new Exception("You can not double insert at this position.");
         }
     }
 
+    /**
+     * Description: Inserts a rectangle like insert(), but reports failure through the return value instead of an exception.
+     * 
+     * @param r (Rectangle): The rectangle to be inserted.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
+     * 
+     * @return Returns true if the rectangle was stored; false if it lies outside the node's area.
+     */
+    @Override
+    boolean add(Rectangle r, double left, double bottom, double width, double height) {
+        return add(r, 0, left, bottom, width, height);
+    }
+
+    /**
+     * Description: Inserts a rectangle into one of the child nodes, knowing that this node sits at the given depth, without throwing. 
+     * A leaf child that grows past the configured capacity is split into a new InternalNode.
+     * 
+     * @param r (Rectangle): The rectangle to be inserted.
+     * @param depth (integer): The depth of this node in the quadtree (the root is at depth 0).
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
+     * 
+     * @return Returns true if the rectangle was stored; false if it lies outside the node's area.
+     */
+    boolean add(Rectangle r, int depth, double left, double bottom, double width, double height) {
+        int q = quadrantOf(r.point.x, r.point.y, left, bottom, width, height);
+        if (q < 0) return false;
+        setChild(q, addTo(child(q), r, depth + 1, quadrantLeft(q, left, width), quadrantBottom(q, bottom, height), width / 2, height / 2));
+        if (r.length > maxLength) maxLength = r.length;
+        if (r.width > maxWidth) maxWidth = r.width;
+        return true;
+    }
+
+    /**
+     * Description: Inserts a rectangle into the given child and returns the node that should take the child's place, 
+     * which is a freshly split InternalNode when a leaf child has grown past its capacity.
+     * 
+     * @param child (Node): The child node receiving the rectangle.
+     * @param r (Rectangle): The rectangle to be inserted.
+     * @param childDepth (integer): The depth of the child in the quadtree.
+     * @param left (double): The x-coordinate of the left edge of the child's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the child's area.
+     * @param width (double): The width of the child's area.
+     * @param height (double): The height of the child's area.
+     * 
+     * @return The child itself, or the InternalNode replacing it.
+     */
+    private Node addTo(Node child, Rectangle r, int childDepth, double left, double bottom, double width, double height) {
+        if (child instanceof InternalNode) {
+            ((InternalNode) child).add(r, childDepth, left, bottom, width, height);
+            return child;
+        }
+        AbstractLeafNode leaf = (AbstractLeafNode) child;
+        leaf.add(r);
+        if (config.shouldSplit(leaf.size(), childDepth)) {
+            return split(leaf, childDepth, config, left, bottom, width, height);
+        }
+        return child;
+    }
+
     /**
      * Description: Deletes a rectangle located at the specified coordinates from the appropriate child node.
      * 
      * @param x (float): The x-coordinate of the rectangle's bottom-left corner to be deleted.
      * @param y (float): The y-coordinate of the rectangle's bottom-left corner to be deleted.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
      * 
      * @exception Throws an Exception if no rectangle exists at the specified coordinates.
      */
     @Override
-    public void delete(float x, float y) throws Exception {
-        if (topLeft.boundary.contains(x, y)) topLeft.delete(x, y);
-        else if (topRight.boundary.contains(x, y)) topRight.delete(x, y);
-        else if (bottomLeft.boundary.contains(x, y)) bottomLeft.delete(x, y);
-        else if (bottomRight.boundary.contains(x, y)) bottomRight.delete(x, y);
-        else throw new Exception("Nothing to delete at " + x + ", " + y);
+    public void delete(float x, float y, double left, double bottom, double width, double height) throws Exception {
+        if (!contains(x, y, left, bottom, width, height)) throw new Exception("Nothing to delete at " + x + ", " + y);
+        remove(x, y, left, bottom, width, height);
     }
 
     /**
-     * Description: Deletes a rectangle located at the specified coordinates from the appropriate child node.
+     * Description: Deletes every rectangle located at the specified coordinates, reporting a miss through the return value instead of an exception.
+     * 
+     * @param x (float): The x-coordinate of the rectangle's bottom-left corner to be deleted.
+     * @param y (float): The y-coordinate of the rectangle's bottom-left corner to be deleted.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
+     * 
+     * @return Returns true if a rectangle was removed; otherwise, returns false.
+     */
+    @Override
+    boolean remove(float x, float y, double left, double bottom, double width, double height) {
+        int q = quadrantOf(x, y, left, bottom, width, height);
+        if (q < 0) return false;
+        Node child = child(q);
+        if (!child.remove(x, y, quadrantLeft(q, left, width), quadrantBottom(q, bottom, height), width / 2, height / 2)) return false;
+        if (child instanceof InternalNode) setChild(q, ((InternalNode) child).collapse());
+        recomputeExtent();
+        return true;
+    }
+
+    /**
+     * Description: Returns a single leaf holding every rectangle of this subtree if the subtree has shrunk to the merge threshold, 
+     * or this node otherwise. Children collapse before their parents as a delete unwinds, so underfull levels fold up one at a time.
+     * 
+     * @return The leaf that should take this node's place, or this node.
+     */
+    Node collapse() {
+        int threshold = config.mergeThreshold();
+        if (countUpTo(this, threshold) > threshold) return this;
+        AbstractLeafNode leaf = config.newLeaf();
+        moveInto(leaf, this);
+        release();
+        return leaf;
+    }
+
+    /**
+     * Description: Counts the rectangles under a node, but stops as soon as the count passes the limit, so that checking 
+     * a large subtree costs no more than checking a small one.
+     * 
+     * @param node (Node): The root of the subtree.
+     * @param limit (integer): The count beyond which the exact number does not matter.
+     * 
+     * @return The number of rectangles, or some number above the limit.
+     */
+    private static int countUpTo(Node node, int limit) {
+        if (!(node instanceof InternalNode)) return node.getTotalRectangles();
+        InternalNode parent = (InternalNode) node;
+        int total = countUpTo(parent.topLeft, limit);
+        if (total <= limit) total += countUpTo(parent.topRight, limit - total);
+        if (total <= limit) total += countUpTo(parent.bottomLeft, limit - total);
+        if (total <= limit) total += countUpTo(parent.bottomRight, limit - total);
+        return total;
+    }
+
+    // Adds every rectangle under the node to the leaf, in the order a traversal visits them
+    private static void moveInto(AbstractLeafNode leaf, Node node) {
+        if (node instanceof InternalNode) {
+            InternalNode parent = (InternalNode) node;
+            moveInto(leaf, parent.topLeft);
+            moveInto(leaf, parent.topRight);
+            moveInto(leaf, parent.bottomLeft);
+            moveInto(leaf, parent.bottomRight);
+        } else {
+            AbstractLeafNode from = (AbstractLeafNode) node;
+            for (int i = 0, n = from.size(); i < n; i++) {
+                leaf.add(from.get(i));
+            }
+        }
+    }
+
+    /**
+     * Description: Releases the storage of every leaf under this node.
+     */
+    @Override
+    void release() {
+        topLeft.release();
+        topRight.release();
+        bottomLeft.release();
+        bottomRight.release();
+    }
+
+    /**
+     * Description: Recomputes maxLength and maxWidth from the four children, after a child changed or was replaced.
+     */
+    void recomputeExtent() {
+        maxLength = Math.max(Math.max(topLeft.maxLength, topRight.maxLength), Math.max(bottomLeft.maxLength, bottomRight.maxLength));
+        maxWidth = Math.max(Math.max(topLeft.maxWidth, topRight.maxWidth), Math.max(bottomLeft.maxWidth, bottomRight.maxWidth));
+    }
+
+    /**
+     * Description: Finds the rectangle located at the specified coordinates in the appropriate child node.
      * 
      * @param x (float): The x-coordinate of the rectangle's bottom-left corner to find.
      * @param y (float): The y-coordinate of the rectangle's bottom-left corner to find.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
      * 
-     * @exception Throws an Exception if no rectangle exists at the specified coordinates.
+     * @exception Throws an Exception if the coordinates lie outside the node's area.
+     */
+    @Override
+    public Rectangle find(float x, float y, double left, double bottom, double width, double height) throws Exception {
+        if (!contains(x, y, left, bottom, width, height)) throw new Exception("Nothing is at " + x + ", " + y);
+        return lookup(x, y, left, bottom, width, height);
+    }
+
+    /**
+     * Description: Finds the rectangle located at the specified coordinates, returning null on a miss instead of throwing.
+     * 
+     * @param x (float): The x-coordinate of the rectangle's bottom-left corner to find.
+     * @param y (float): The y-coordinate of the rectangle's bottom-left corner to find.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
+     * 
+     * @return Returns the Rectangle if found; otherwise, returns null.
+     */
+    @Override
+    Rectangle lookup(float x, float y, double left, double bottom, double width, double height) {
+        int q = quadrantOf(x, y, left, bottom, width, height);
+        if (q < 0) return null;
+        return child(q).lookup(x, y, quadrantLeft(q, left, width), quadrantBottom(q, bottom, height), width / 2, height / 2);
+    }
+
+    /**
+     * Description: Passes every rectangle whose bottom-left corner lies inside the window to the visitor, 
+     * descending only into the children whose quadrant intersects the window.
+     * 
+     * @param window (Rectangle): The area being queried.
+     * @param visitor (Consumer<Rectangle>): Receives each matching rectangle.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
+     */
+    @Override
+    void queryRange(Rectangle window, Consumer<Rectangle> visitor, double left, double bottom, double width, double height) {
+        double w = width / 2, h = height / 2, midX = left + w, midY = bottom + h;
+        if (intersects(window, left, midY, w, h)) topLeft.queryRange(window, visitor, left, midY, w, h);
+        if (intersects(window, midX, midY, w, h)) topRight.queryRange(window, visitor, midX, midY, w, h);
+        if (intersects(window, left, bottom, w, h)) bottomLeft.queryRange(window, visitor, left, bottom, w, h);
+        if (intersects(window, midX, bottom, w, h)) bottomRight.queryRange(window, visitor, midX, bottom, w, h);
+    }
+
+    /**
+     * Description: Passes every rectangle that overlaps the window to the visitor, descending only into the children 
+     * that could hold one: those whose quadrant, widened by the child's maxLength and maxWidth, intersects the window.
+     * 
+     * @param window (Rectangle): The area being queried.
+     * @param visitor (Consumer<Rectangle>): Receives each overlapping rectangle.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
      */
     @Override
-    public Rectangle find(float x, float y) throws Exception {
-        if (topLeft.boundary.contains(x, y)) return topLeft.find(x, y);
-        else if (topRight.boundary.contains(x, y)) return topRight.find(x, y);
-        else if (bottomLeft.boundary.contains(x, y)) return bottomLeft.find(x, y);
-        else if (bottomRight.boundary.contains(x, y)) return bottomRight.find(x, y);
-        else throw new Exception("Nothing is at " + x + ", " + y);
+    void queryIntersecting(Rectangle window, Consumer<Rectangle> visitor, double left, double bottom, double width, double height) {
+        double w = width / 2, h = height / 2, midX = left + w, midY = bottom + h;
+        if (topLeft.mayIntersect(window, left, midY, w, h)) topLeft.queryIntersecting(window, visitor, left, midY, w, h);
+        if (topRight.mayIntersect(window, midX, midY, w, h)) topRight.queryIntersecting(window, visitor, midX, midY, w, h);
+        if (bottomLeft.mayIntersect(window, left, bottom, w, h)) bottomLeft.queryIntersecting(window, visitor, left, bottom, w, h);
+        if (bottomRight.mayIntersect(window, midX, bottom, w, h)) bottomRight.queryIntersecting(window, visitor, midX, bottom, w, h);
     }
 
     /**
      * Description: Prints the details of the internal node and its child nodes, formatted by the depth in the quadtree.
      * 
      * @param depth (integer): The depth level of the node in the quadtree, used for indentation in the output.
+     * @param out (OutputBuffer): The buffer receiving the output.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
      */
     @Override
-    public void print(int depth) {
-        String indent = "    ".repeat(depth);
-        System.out.println(indent + "Internal Node - " + boundary);
-        topLeft.print(depth + 1);
-        topRight.print(depth + 1);
-        bottomLeft.print(depth + 1);
-        bottomRight.print(depth + 1);
+    public void print(int depth, OutputBuffer out, double left, double bottom, double width, double height) {
+        out.indent(depth).append("Internal Node - ").appendRectangle((float) left, (float) bottom, (float) width, (float) height).newline();
+        double w = width / 2, h = height / 2, midX = left + w, midY = bottom + h;
+        topLeft.print(depth + 1, out, left, midY, w, h);
+        topRight.print(depth + 1, out, midX, midY, w, h);
+        bottomLeft.print(depth + 1, out, left, bottom, w, h);
+        bottomRight.print(depth + 1, out, midX, bottom, w, h);
     }
 }
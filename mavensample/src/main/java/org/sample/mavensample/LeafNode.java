@@ -5,82 +5,84 @@ import java.util.ArrayList;
 /*
  * Description: The LeafNode class extends the abstract Node class and represents a leaf node in a quadtree structure. 
  * It is responsible for storing rectangles and managing operations such as inserting, deleting, finding, and printing these rectangles. 
- * This class maintains a list of rectangles that fall within the node's defined boundary.
+ * This class maintains a list of the rectangles its parent routes to it.
  */
-class LeafNode extends Node {
+class LeafNode extends AbstractLeafNode {
     ArrayList<Rectangle> rectangles = new ArrayList<>();
 
     /**
-     * Description: Initializes a new LeafNode with a specified boundary defined by its position (x, y) and its dimensions (width, height). 
-     * 
-     * @param x (double): The x-coordinate of the bottom-left corner of the node's boundary.
-     * @param y (double): The y-coordinate of the bottom-left corner of the node's boundary.
-     * @param width (double): The width of the node's boundary.
-     * @param height (double): The height of the node's boundary.
+     * Description: Initializes a new, empty LeafNode. 
      */
-    public LeafNode(double x, double y, double width, double height) {
-        super(new Rectangle((float) x, (float) y, (float) width, (float) height));
+    public LeafNode() {
+        this(false);
     }
 
     /**
-     * Description: Inserts a rectangle into the leaf node if its bottom-left corner is contained within the node's boundary. 
+     * Description: Initializes a new LeafNode like the constructor above and, when requested, keeps a hash index from each anchor point 
+     * to its position in the list so that find and delete no longer scan the whole leaf.
      * 
-     * @param r (Rectangle): The rectangle to be inserted into the leaf node.
+     * @param indexed (boolean): Whether to maintain the anchor index.
      */
+    LeafNode(boolean indexed) {
+        super(indexed);
+    }
+
     @Override
-    public void insert(Rectangle r) {
-        if (boundary.contains(r.point.x, r.point.y)) {
-            rectangles.add(r);
-        }
+    int size() {
+        return rectangles.size();
     }
 
-    /**
-     * Description: Deletes a rectangle from the leaf node based on the coordinates of its bottom-left corner.
-     * 
-     * @param x (float): The x-coordinate of the rectangle's bottom-left corner to be deleted.
-     * @param y (float): The y-coordinate of the rectangle's bottom-left corner to be deleted.
-     */
     @Override
-    public void delete(float x, float y) {
-        rectangles.removeIf(r -> r.point.x == x && r.point.y == y);
+    float x(int i) {
+        return rectangles.get(i).point.x;
     }
 
-    /**
-     * Description: Finds and returns the rectangle that matches the specified coordinates of its bottom-left corner.
-     * 
-     * @param x (float): The x-coordinate of the rectangle's bottom-left corner to find.
-     * @param y (float): The y-coordinate of the rectangle's bottom-left corner to find.
-     * 
-     * @return Returns the Rectangle object if found; otherwise, returns null.
-     */
     @Override
-    public Rectangle find(float x, float y) {
-        return rectangles.stream()
-                .filter(r -> r.point.x == x && r.point.y == y)
-                .findFirst()
-                .orElse(null);
+    float y(int i) {
+        return rectangles.get(i).point.y;
     }
 
-    /**
-     * Description: Prints the details of the leaf node and its stored rectangles, formatted by the depth in the quadtree.
-     * 
-     * @param depth (integer): The depth level of the node in the quadtree, used for indentation in the output.
-     */
     @Override
-    public void print(int depth) {
-        String indent = "    ".repeat(depth);
-        System.out.println(indent + "Leaf Node - " + boundary);
-        for (Rectangle r : rectangles) {
-            System.out.println(indent + "    " + r);
-        }
+    float length(int i) {
+        return rectangles.get(i).length;
     }
 
-    /**
-     * Description: Returns the total number of rectangles currently stored in the leaf node.
-     * 
-     * @return Returns an integer representing the total count of rectangles.
-     */
-    public int getTotalRectangles() {
-        return rectangles.size();
+    @Override
+    float width(int i) {
+        return rectangles.get(i).width;
+    }
+
+    @Override
+    Rectangle get(int i) {
+        return rectangles.get(i);
+    }
+
+    @Override
+    void append(Rectangle r) {
+        rectangles.add(r);
+    }
+
+    @Override
+    void append(float x, float y, float length, float width) {
+        rectangles.add(new Rectangle(x, y, length, width));
+    }
+
+    @Override
+    void resize(int i, float length, float width) {
+        Rectangle r = rectangles.get(i);
+        r.length = length;
+        r.width = width;
+    }
+
+    @Override
+    void move(int from, int to) {
+        rectangles.set(to, rectangles.get(from));
+    }
+
+    @Override
+    void truncate(int newSize) {
+        for (int i = rectangles.size() - 1; i >= newSize; i--) {
+            rectangles.remove(i);
+        }
     }
 }
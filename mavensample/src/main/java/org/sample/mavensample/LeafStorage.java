@@ -0,0 +1,12 @@
+package org.sample.mavensample;
+
+/*
+ * Description: The LeafStorage enum lists the ways a leaf can hold its rectangles.
+ * LIST keeps the Rectangle objects in an ArrayList (LeafNode); PACKED keeps their coordinates and sizes in parallel float arrays (PackedLeafNode);
+ * OFF_HEAP keeps them in native memory from an OffHeapStore owned by the tree's configuration (OffHeapLeafNode), which must be closed when the tree is done with.
+ */
+enum LeafStorage {
+    LIST,
+    PACKED,
+    OFF_HEAP
+}
@@ -0,0 +1,359 @@
+package org.sample.mavensample;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/*
+ * Description: The LinearQuadTree class is a pointerless quadtree for read-mostly data. The boundary is divided into a
+ * 2^31 x 2^31 grid and each rectangle's anchor is turned into the Morton (Z-order) code of its grid cell, which interleaves the
+ * bits of the cell's column and row. Sorting by that code lays the rectangles out in quadtree order: every quadrant, at every
+ * level, is one contiguous run of the array. The rectangles live in parallel primitive arrays sorted by code, so there are no node
+ * objects at all; find and delete binary-search the anchor's code, and a range query walks the implicit quadrants, narrowing
+ * the run with binary searches and skipping the quadrants that miss the window.
+ * Inserting and deleting shift the arrays, which suits data that is loaded once (see bulkLoad()) and then mostly read.
+ * Rectangles handed out are copies; use tryUpdate() to change one.
+ */
+public class LinearQuadTree implements SpatialIndex {
+    static final int BITS = 31;                       // Grid resolution per axis
+    private static final long CELLS = 1L << BITS;
+    private static final int SCAN_SIZE = 32;          // A run this short is scanned instead of split further
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Rectangle boundary;
+    private final double scaleX, scaleY;              // Grid cells per unit of length
+    private long[] codes = new long[INITIAL_CAPACITY];
+    private float[] xs = new float[INITIAL_CAPACITY];
+    private float[] ys = new float[INITIAL_CAPACITY];
+    private float[] lengths = new float[INITIAL_CAPACITY];
+    private float[] widths = new float[INITIAL_CAPACITY];
+    private int count;
+
+    /**
+     * Description: Initializes an empty LinearQuadTree covering the same default boundary as QuadTree().
+     */
+    public LinearQuadTree() {
+        this(-50, -50, 100, 100);
+    }
+
+    /**
+     * Description: Initializes an empty LinearQuadTree covering the given boundary.
+     * @param x (float): The x-coordinate of the bottom-left corner of the boundary.
+     * @param y (float): The y-coordinate of the bottom-left corner of the boundary.
+     * @param width (float): The width of the boundary.
+     * @param height (float): The height of the boundary.
+     *
+     * @exception Throws IllegalArgumentException if the boundary is not finite or not positive in size.
+     */
+    public LinearQuadTree(float x, float y, float width, float height) {
+        if (!(width > 0 && height > 0) || !Float.isFinite(x) || !Float.isFinite(y) || !Float.isFinite(width) || !Float.isFinite(height)) {
+            throw new IllegalArgumentException("Invalid boundary: " + x + ", " + y + ", " + width + ", " + height);
+        }
+        this.boundary = new Rectangle(x, y, width, height);
+        this.scaleX = CELLS / (double) width;
+        this.scaleY = CELLS / (double) height;
+    }
+
+    /**
+     * Description: Returns the Morton code of the grid cell holding the point; points on or past the far edges fall in the last cell.
+     *
+     * @param x (float): The x-coordinate of the point.
+     * @param y (float): The y-coordinate of the point.
+     *
+     * @return The code, with the column in the even bits and the row in the odd bits.
+     */
+    long code(float x, float y) {
+        return spread(column(x)) | spread(row(y)) << 1;
+    }
+
+    private long column(float x) {
+        return clamp((long) Math.floor((x - (double) boundary.point.x) * scaleX));
+    }
+
+    private long row(float y) {
+        return clamp((long) Math.floor((y - (double) boundary.point.y) * scaleY));
+    }
+
+    private static long clamp(long cell) {
+        return Math.max(0, Math.min(CELLS - 1, cell));
+    }
+
+    // Moves bit i of the low 32 bits to bit 2i
+    private static long spread(long v) {
+        v &= 0xFFFFFFFFL;
+        v = (v | v << 16) & 0x0000FFFF0000FFFFL;
+        v = (v | v << 8) & 0x00FF00FF00FF00FFL;
+        v = (v | v << 4) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | v << 2) & 0x3333333333333333L;
+        v = (v | v << 1) & 0x5555555555555555L;
+        return v;
+    }
+
+    /**
+     * Description: Inserts a rectangle after any others with the same code, so rectangles at one anchor keep their insertion order.
+     * @param r (Rectangle): The rectangle to be inserted.
+     *
+     * @return (boolean): Returns true if the rectangle was stored; false if it lies outside the boundary.
+     */
+    @Override
+    public boolean tryInsert(Rectangle r) {
+        float x = r.point.x, y = r.point.y;
+        if (!boundary.contains(x, y)) return false;
+        long code = code(x, y);
+        int at = upperBound(code, 0, count);
+        ensureCapacity(count + 1);
+        int tail = count - at;
+        System.arraycopy(codes, at, codes, at + 1, tail);
+        System.arraycopy(xs, at, xs, at + 1, tail);
+        System.arraycopy(ys, at, ys, at + 1, tail);
+        System.arraycopy(lengths, at, lengths, at + 1, tail);
+        System.arraycopy(widths, at, widths, at + 1, tail);
+        set(at, code, x, y, r.length, r.width);
+        count++;
+        return true;
+    }
+
+    /**
+     * Description: Loads many rectangles at once: they are appended and the whole array is sorted by code in one pass, instead of
+     * shifting the arrays for each insert. The result is the same as inserting the rectangles one by one.
+     * @param rectangles (Rectangle[]): The rectangles to load.
+     *
+     * @return (integer): The number of rectangles that were loaded; those outside the boundary are skipped.
+     */
+    public int bulkLoad(Rectangle[] rectangles) {
+        int before = count;
+        ensureCapacity(count + rectangles.length);
+        for (Rectangle r : rectangles) {
+            if (boundary.contains(r.point.x, r.point.y)) {
+                set(count++, code(r.point.x, r.point.y), r.point.x, r.point.y, r.length, r.width);
+            }
+        }
+        sortByCode();
+        return count - before;
+    }
+
+    /**
+     * Description: Searches for a rectangle anchored at the specified coordinates (x, y) by binary search on its code.
+     * @param x (float): The x-coordinate of the point to search for.
+     * @param y (float): The y-coordinate of the point to search for.
+     *
+     * @return (Rectangle): A copy of the first rectangle inserted at the anchor, or null if there is none.
+     */
+    @Override
+    public Rectangle tryFind(float x, float y) {
+        int i = indexOf(x, y);
+        return i < 0 ? null : get(i);
+    }
+
+    /**
+     * Description: Deletes every rectangle anchored at the specified coordinates (x, y).
+     * @param x (float): The x-coordinate of the rectangles to be deleted.
+     * @param y (float): The y-coordinate of the rectangles to be deleted.
+     *
+     * @return (boolean): Returns true if anything was deleted; otherwise, returns false.
+     */
+    @Override
+    public boolean tryDelete(float x, float y) {
+        int i = indexOf(x, y);
+        if (i < 0) return false;
+        removeMatches(x, y, i, i);
+        return true;
+    }
+
+    /**
+     * Description: Updates the dimensions of the rectangle anchored at (x, y) in place; its code does not change. Later rectangles
+     * at the same anchor are dropped, leaving a single one.
+     * @param x (float): The x-coordinate of the rectangle to be updated.
+     * @param y (float): The y-coordinate of the rectangle to be updated.
+     * @param newLength (float): The new length for the rectangle.
+     * @param newWidth (float): The new width for the rectangle.
+     *
+     * @return (boolean): Returns true if a rectangle was updated; false if there is none at (x, y).
+     */
+    @Override
+    public boolean tryUpdate(float x, float y, float newLength, float newWidth) {
+        int i = indexOf(x, y);
+        if (i < 0) return false;
+        lengths[i] = newLength;
+        widths[i] = newWidth;
+        removeMatches(x, y, i + 1, i + 1);
+        return true;
+    }
+
+    /**
+     * Description: Collects every rectangle whose bottom-left corner lies inside the window.
+     * @param window (Rectangle): The area being queried.
+     *
+     * @return (List<Rectangle>): The matching rectangles, in code order.
+     */
+    @Override
+    public List<Rectangle> queryRange(Rectangle window) {
+        List<Rectangle> result = new ArrayList<>();
+        queryRange(window, result::add);
+        return result;
+    }
+
+    /**
+     * Description: Passes every rectangle whose bottom-left corner lies inside the window to the visitor, in code order.
+     * The implicit quadrants are visited from the whole grid down; a quadrant that misses the window's cells is skipped,
+     * and one lying inside them or holding only a few rectangles is scanned.
+     * @param window (Rectangle): The area being queried.
+     * @param visitor (Consumer<Rectangle>): Receives each matching rectangle.
+     */
+    @Override
+    public void queryRange(Rectangle window, Consumer<Rectangle> visitor) {
+        if (count == 0 || !boundary.intersects(window)) return;
+        long minColumn = column(window.point.x), maxColumn = column(window.point.x + window.length);
+        long minRow = row(window.point.y), maxRow = row(window.point.y + window.width);
+        queryCell(window, visitor, 0, 0, CELLS, 0, 0, count, minColumn, maxColumn, minRow, maxRow);
+    }
+
+    /**
+     * Description: Reports the matches among entries[from, to), which are exactly the entries of the square cell at (column, row).
+     */
+    private void queryCell(Rectangle window, Consumer<Rectangle> visitor, long column, long row, long side, long firstCode,
+                           int from, int to, long minColumn, long maxColumn, long minRow, long maxRow) {
+        if (from == to) return;
+        long lastColumn = column + side - 1, lastRow = row + side - 1;
+        if (lastColumn < minColumn || column > maxColumn || lastRow < minRow || row > maxRow) return;
+
+        boolean inside = column >= minColumn && lastColumn <= maxColumn && row >= minRow && lastRow <= maxRow;
+        if (inside || to - from <= SCAN_SIZE || side == 1) {
+            // Cells on the window's edge hold points on both sides of it, so every candidate is still checked exactly
+            for (int i = from; i < to; i++) {
+                if (window.contains(xs[i], ys[i])) visitor.accept(get(i));
+            }
+            return;
+        }
+
+        // The four children are consecutive quarters of this cell's code range: bottom-left, bottom-right, top-left, top-right
+        long half = side / 2, quarter = half * half;
+        int start = from;
+        for (int q = 0; q < 4; q++) {
+            long childCode = firstCode + q * quarter;
+            int end = q == 3 ? to : lowerBound(childCode + quarter, start, to);
+            queryCell(window, visitor, column + (q & 1) * half, row + (q >> 1) * half, half, childCode, start, end,
+                    minColumn, maxColumn, minRow, maxRow);
+            start = end;
+        }
+    }
+
+    /**
+     * Description: Returns the number of rectangles stored.
+     *
+     * @return (integer): The number of rectangles.
+     */
+    @Override
+    public int size() {
+        return count;
+    }
+
+    private int indexOf(float x, float y) {
+        if (!boundary.contains(x, y)) return -1;
+        long code = code(x, y);
+        for (int i = lowerBound(code, 0, count); i < count && codes[i] == code; i++) {
+            if (xs[i] == x && ys[i] == y) return i;
+        }
+        return -1;
+    }
+
+    // Removes the entries anchored at (x, y) from position from on, among those sharing its code; kept entries stay in order
+    private void removeMatches(float x, float y, int from, int kept) {
+        long code = code(x, y);
+        int i = from;
+        for (; i < count && codes[i] == code; i++) {
+            if (xs[i] == x && ys[i] == y) continue;
+            if (kept != i) set(kept, codes[i], xs[i], ys[i], lengths[i], widths[i]);
+            kept++;
+        }
+        if (kept == i) return;
+        int tail = count - i;
+        System.arraycopy(codes, i, codes, kept, tail);
+        System.arraycopy(xs, i, xs, kept, tail);
+        System.arraycopy(ys, i, ys, kept, tail);
+        System.arraycopy(lengths, i, lengths, kept, tail);
+        System.arraycopy(widths, i, widths, kept, tail);
+        count = kept + tail;
+    }
+
+    // First position in [from, to) whose code is at least the given one
+    private int lowerBound(long code, int from, int to) {
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (codes[middle] < code) from = middle + 1;
+            else to = middle;
+        }
+        return from;
+    }
+
+    // First position in [from, to) whose code is greater than the given one
+    private int upperBound(long code, int from, int to) {
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (codes[middle] <= code) from = middle + 1;
+            else to = middle;
+        }
+        return from;
+    }
+
+    private Rectangle get(int i) {
+        return new Rectangle(xs[i], ys[i], lengths[i], widths[i]);
+    }
+
+    private void set(int i, long code, float x, float y, float length, float width) {
+        codes[i] = code;
+        xs[i] = x;
+        ys[i] = y;
+        lengths[i] = length;
+        widths[i] = width;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= codes.length) return;
+        int newCapacity = Math.max(capacity, codes.length + (codes.length >> 1));
+        codes = Arrays.copyOf(codes, newCapacity);
+        xs = Arrays.copyOf(xs, newCapacity);
+        ys = Arrays.copyOf(ys, newCapacity);
+        lengths = Arrays.copyOf(lengths, newCapacity);
+        widths = Arrays.copyOf(widths, newCapacity);
+    }
+
+    /**
+     * Description: Sorts the entries by code with a stable merge sort on their positions, so entries with equal codes keep their
+     * order, then rearranges the columns once.
+     */
+    private void sortByCode() {
+        int[] order = new int[count], scratch = new int[count];
+        for (int i = 0; i < count; i++) order[i] = i;
+        for (int width = 1; width < count; width *= 2) {
+            for (int from = 0; from < count; from += 2 * width) {
+                int middle = Math.min(from + width, count), to = Math.min(from + 2 * width, count);
+                int a = from, b = middle, k = from;
+                while (a < middle && b < to) scratch[k++] = codes[order[b]] < codes[order[a]] ? order[b++] : order[a++];
+                while (a < middle) scratch[k++] = order[a++];
+                while (b < to) scratch[k++] = order[b++];
+            }
+            int[] swap = order;
+            order = scratch;
+            scratch = swap;
+        }
+
+        long[] sortedCodes = new long[codes.length];
+        float[] sortedXs = new float[codes.length], sortedYs = new float[codes.length];
+        float[] sortedLengths = new float[codes.length], sortedWidths = new float[codes.length];
+        for (int i = 0; i < count; i++) {
+            int j = order[i];
+            sortedCodes[i] = codes[j];
+            sortedXs[i] = xs[j];
+            sortedYs[i] = ys[j];
+            sortedLengths[i] = lengths[j];
+            sortedWidths[i] = widths[j];
+        }
+        codes = sortedCodes;
+        xs = sortedXs;
+        ys = sortedYs;
+        lengths = sortedLengths;
+        widths = sortedWidths;
+    }
+}
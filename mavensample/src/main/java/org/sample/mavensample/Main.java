@@ -1,13 +1,13 @@
 package org.sample.mavensample;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 /*
  * The Main class serves as the entry point for the application, responsible for managing input processing and command handling 
- * for a quadtree data structure. It reads commands from specified input files, processes these commands to manipulate the quadtree, 
+ * for a quadtree data structure. It reads commands from specified input files (or standard input), processes these commands to manipulate the quadtree, 
  * and outputs results based on user requests. The commands include operations for inserting, finding, deleting, updating, and dumping rectangles in the quadtree.
  */
 public class Main {
@@ -15,64 +15,36 @@ public class Main {
 	/**
      * Description: The main method executes the application, handling command line arguments, 
      * reading commands from specified files, and processing each command to perform operations on the quadtree.
+     * Commands are executed one line at a time as they are read (see CommandRunner), so memory use does not grow with the length of the input. 
+     * Regular files are memory-mapped rather than read through a stream.
      * 
-     * @param args (String[]): An array of command-line arguments, typically representing file names containing quadtree command
+     * @param args (String[]): An array of command-line arguments, typically representing file names containing quadtree command.
+     * A single "-" reads commands from standard input instead of a file.
      * 
      * @exception Catches IOException when reading files, printing an error message if an issue occurs.
      * @exception Catches Exception for invalid commands or errors during quadtree operations, printing the error message to the console.
      */
 	public static void main(String[] args) {
-     ArrayList<String> commands = new ArrayList<>();
      QuadTree quadtree = new QuadTree();
+     OutputBuffer out = new OutputBuffer(System.out);
+     CommandRunner runner = new CommandRunner(quadtree, out);
 
      try {
          for (String arg : args) {
-             BufferedReader br = new BufferedReader(new FileReader(arg));
-             String line;
-             while ((line = br.readLine()) != null) {
-                 commands.add(line.trim());
-             }
-             br.close();
-         }
-     } catch (IOException e) {
-         System.out.println("Error reading the file: " + e.getMessage());
-     }
-
-     for (String cmd : commands) {
-         try {
-             if (cmd.toLowerCase().startsWith("insert")) {
-                 String[] insertInput = parse_InsertInput(cmd);
-                 float x = Float.parseFloat(insertInput[1]);
-                 float y = Float.parseFloat(insertInput[2]);
-                 float length = Float.parseFloat(insertInput[3]);
-                 float width = Float.parseFloat(insertInput[4]);
-                 quadtree.insert(new Rectangle(x, y, length, width));
-             } else if (cmd.toLowerCase().startsWith("find")) {
-                 String[] findInput = parse_FindInput(cmd);
-                 float x = Float.parseFloat(findInput[1]);
-                 float y = Float.parseFloat(findInput[2]);
-                 Rectangle result = quadtree.find(x, y);
-                 System.out.println(result != null ? result : "Rectangle not found");
-             } else if (cmd.toLowerCase().startsWith("delete")) {
-                 String[] deleteInput = parse_DeleteInput(cmd);
-                 float x = Float.parseFloat(deleteInput[1]);
-                 float y = Float.parseFloat(deleteInput[2]);
-                 quadtree.delete(x, y);
-             } else if (cmd.toLowerCase().startsWith("update")) {
-                 String[] updateInput = parse_UpdateInput(cmd);
-                 float x = Float.parseFloat(updateInput[1]);
-                 float y = Float.parseFloat(updateInput[2]);
-                 float length = Float.parseFloat(updateInput[3]);
-                 float width = Float.parseFloat(updateInput[4]);
-                 quadtree.update(x, y, length, width);
-             } else if (cmd.toLowerCase().startsWith("dump")) {
-                 quadtree.dump();
+             if (arg.equals("-")) {
+                 runner.run(System.in); // Standard input is left open
              } else {
-                 throw new Exception("Invalid command: " + cmd);
+                 try (FileInputStream in = new FileInputStream(arg)) {
+                     // Regular files are memory-mapped; pipes and devices are read as a stream
+                     if (Files.isRegularFile(Paths.get(arg))) runner.run(in.getChannel());
+                     else runner.run(in);
+                 }
              }
-         } catch (Exception e) {
-             System.out.println(e.getMessage());
          }
+     } catch (IOException e) {
+         out.append("Error reading the file: " + e.getMessage()).newline();
+     } finally {
+         out.flush();
      }
  }
 
@@ -130,7 +102,8 @@ public class Main {
  }
 
  /**
-  * Description: General command parser that splits the command string into parts and checks the number of components.
+  * Description: General command parser that splits the command string into parts and checks the number of components. 
+  * Commands read by main() go through CommandParser instead, which follows the same rules without creating Strings.
   * 
   * @param cmd (String): The command string to be parsed.
   * @param expectedParts (integer): The expected number of parts the command should contain.
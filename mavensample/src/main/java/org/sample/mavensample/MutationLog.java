@@ -0,0 +1,275 @@
+package org.sample.mavensample;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/*
+ * Description: The MutationLog class is an append-only write-ahead log of quadtree mutations (insert, delete and update).
+ * Records are first collected in memory; sync() makes them durable with group commit: the first thread that needs durability
+ * writes and fsyncs every record appended so far while the others wait, so one fsync covers a whole batch of writers.
+ * Each record carries a CRC32, so replay stops cleanly at a record torn by a crash.
+ */
+class MutationLog implements Closeable {
+    static final int MAGIC = 0x5157414C;  // "QWAL"
+    static final int VERSION = 1;
+    static final byte INSERT = 1, DELETE = 2, UPDATE = 3;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    /*
+     * Description: Receives the mutations read back by replay(), in the order they were logged.
+     */
+    interface Visitor {
+        void insert(float x, float y, float length, float width);
+
+        void delete(float x, float y);
+
+        void update(float x, float y, float length, float width);
+    }
+
+    private final FileChannel channel;
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer pending = newBuffer(INITIAL_BUFFER_SIZE);  // Appended records not yet handed to a sync
+    private ByteBuffer spare = newBuffer(INITIAL_BUFFER_SIZE);    // Swapped in while a leader writes the other buffer
+    private long appended;      // Number of records appended so far
+    private long durable;       // Number of records known to be on disk
+    private long size;          // Bytes in the file, including records being written
+    private boolean syncing;    // Whether a leader is currently writing a batch
+    private long batches;       // Number of fsyncs issued for appended records
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * Description: Opens the log file for appending, creating it with a header if it does not exist yet. An existing file must already
+     * have been checked with replay(), which also cuts off a torn record at its end.
+     *
+     * @param path (Path): The log file.
+     *
+     * @exception Throws IOException if the file cannot be opened or written.
+     */
+    MutationLog(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        size = channel.size();
+        if (size == 0) {
+            ByteBuffer header = newBuffer(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            while (header.hasRemaining()) channel.write(header, size + header.position());
+            channel.force(true);
+            size = HEADER_SIZE;
+        }
+        channel.position(size);
+    }
+
+    /**
+     * Description: Appends a record to the in-memory batch. The record is not durable until sync() has returned for its sequence number.
+     * A log that is closed, or whose writing has failed once, refuses every further record.
+     *
+     * @param type (byte): INSERT, DELETE or UPDATE.
+     * @param x (float): The x-coordinate of the rectangle's bottom-left corner.
+     * @param y (float): The y-coordinate of the rectangle's bottom-left corner.
+     * @param length (float): The (new) length; ignored for DELETE.
+     * @param width (float): The (new) width; ignored for DELETE.
+     *
+     * @exception Throws IOException if the log is closed or has failed.
+     *
+     * @return The sequence number of the record, to pass to sync().
+     */
+    synchronized long append(byte type, float x, float y, float length, float width) throws IOException {
+        if (failure != null) throw new IOException("Mutation log failed", failure);
+        if (closed) throw new IOException("Mutation log is closed");
+        int start = pending.position();
+        int recordSize = recordSize(type);
+        if (pending.remaining() < recordSize) {
+            ByteBuffer larger = newBuffer(Math.max(pending.capacity() * 2, start + recordSize));
+            pending.flip();
+            pending = larger.put(pending);
+        }
+        pending.put(type).putFloat(x).putFloat(y);
+        if (type != DELETE) pending.putFloat(length).putFloat(width);
+        crc.reset();
+        crc.update(pending.array(), start, pending.position() - start);
+        pending.putInt((int) crc.getValue());
+        size += recordSize;
+        return ++appended;
+    }
+
+    /**
+     * Description: Returns once every record up to the given sequence number is on disk. If no other thread is writing, this thread
+     * becomes the leader: it writes and fsyncs everything appended so far, including records from threads that are still waiting.
+     * Otherwise it waits for the running batch and, if its record was not in it, takes part in the next one.
+     *
+     * @param sequence (long): A sequence number returned by append().
+     *
+     * @exception Throws IOException if writing or syncing the log failed; the log cannot be used after that.
+     */
+    void sync(long sequence) throws IOException {
+        ByteBuffer batch;
+        long batchEnd;
+        synchronized (this) {
+            while (true) {
+                if (failure != null) throw new IOException("Mutation log failed", failure);
+                if (durable >= sequence) return;
+                if (!syncing) break;
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the mutation log", e);
+                }
+            }
+            syncing = true;
+            batch = pending;
+            batchEnd = appended;
+            pending = spare;
+            pending.clear();
+        }
+
+        IOException error = null;
+        try {
+            batch.flip();
+            while (batch.hasRemaining()) channel.write(batch);
+            channel.force(false);
+        } catch (IOException e) {
+            error = e;
+        }
+
+        synchronized (this) {
+            syncing = false;
+            spare = batch;
+            if (error != null) failure = error;
+            else durable = batchEnd;
+            batches++;
+            notifyAll();
+        }
+        if (error != null) throw error;
+    }
+
+    /**
+     * Description: Makes every record appended so far durable.
+     *
+     * @exception Throws IOException if writing or syncing the log failed.
+     */
+    void syncAll() throws IOException {
+        long sequence;
+        synchronized (this) {
+            sequence = appended;
+        }
+        sync(sequence);
+    }
+
+    /**
+     * Description: Returns how many batches (and therefore fsyncs) have been written so far.
+     *
+     * @return The number of batches.
+     */
+    synchronized long batches() {
+        return batches;
+    }
+
+    /**
+     * Description: Returns the size the log file will have once every appended record is written.
+     *
+     * @return The size in bytes.
+     */
+    synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Description: Writes any remaining records to disk and closes the file.
+     *
+     * @exception Throws IOException if the final sync or the close fails.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+        }
+        try {
+            if (failure == null) syncAll();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Description: Reads every intact record of a log file, in order. The first record that is incomplete or fails its checksum marks
+     * the point where a crash interrupted the log; the file is cut back to just before it so that new records follow the intact ones.
+     *
+     * @param path (Path): The log file.
+     * @param visitor (Visitor): Receives each record.
+     *
+     * @exception Throws IOException if the file cannot be read or is not a mutation log.
+     *
+     * @return The number of records replayed.
+     */
+    static long replay(Path path, Visitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                channel.truncate(0); // The header itself never made it to disk; the log is empty
+                return 0;
+            }
+            ByteBuffer in = newBuffer(INITIAL_BUFFER_SIZE);
+            in.limit(HEADER_SIZE);
+            while (in.hasRemaining() && channel.read(in, in.position()) >= 0) {
+            }
+            in.flip();
+            if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException("Not a mutation log: " + path);
+            }
+
+            CRC32 crc = new CRC32();
+            long bufferStart = HEADER_SIZE;  // File offset of in[0]
+            long position = HEADER_SIZE;     // End of the last intact record
+            long records = 0;
+            boolean endOfFile = false;
+            in.clear().limit(0);
+            while (true) {
+                if (!in.hasRemaining() || in.remaining() < recordSize(in.get(in.position()))) {
+                    if (endOfFile) break;
+                    bufferStart += in.position();
+                    in.compact();
+                    if (channel.read(in, bufferStart + in.position()) < 0) endOfFile = true;
+                    in.flip();
+                    continue;
+                }
+                int start = in.position();
+                byte type = in.get();
+                if (type != INSERT && type != DELETE && type != UPDATE) break;
+                float x = in.getFloat(), y = in.getFloat();
+                float length = type == DELETE ? 0 : in.getFloat();
+                float width = type == DELETE ? 0 : in.getFloat();
+                crc.reset();
+                crc.update(in.array(), start, in.position() - start);
+                if (in.getInt() != (int) crc.getValue()) break;
+
+                if (type == INSERT) visitor.insert(x, y, length, width);
+                else if (type == DELETE) visitor.delete(x, y);
+                else visitor.update(x, y, length, width);
+                position = bufferStart + in.position();
+                records++;
+            }
+            if (position < fileSize) {
+                channel.truncate(position);
+                channel.force(true);
+            }
+            return records;
+        }
+    }
+
+    private static int recordSize(byte type) {
+        return type == DELETE ? 1 + 8 + 4 : 1 + 16 + 4;
+    }
+
+    private static ByteBuffer newBuffer(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,204 @@
+package org.sample.mavensample;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Description: The NearestSearch class finds the k rectangles whose anchor (bottom-left corner) is closest to a point.
+ * It walks the tree best-first: nodes wait in a min-heap keyed by the distance from the point to their area, and a node is
+ * only opened while it could still hold something closer than the current k-th best. The heaps are primitive arrays that only grow
+ * when they fill up, so visiting a node or a rectangle allocates nothing; candidates are remembered as (leaf, entry) pairs and turned
+ * into Rectangles only for the final result. Nodes do not store their area, so the heap keeps each node's area next to it.
+ * An instance is not thread-safe; QuadTree.nearest() creates one per search.
+ */
+class NearestSearch {
+    private Node[] nodes = new Node[64];          // Min-heap of nodes still to visit, keyed by nodeDistances
+    private double[] nodeDistances = new double[64];
+    private double[] nodeAreas = new double[4 * 64];  // left, bottom, width, height of each node in the heap
+    private int nodeCount;
+
+    private AbstractLeafNode[] leaves = new AbstractLeafNode[16];  // Max-heap of the best candidates so far, keyed by distances
+    private int[] entries = new int[16];
+    private double[] distances = new double[16];
+    private int count;
+
+    /**
+     * Description: Returns the k rectangles anchored closest to (x, y), nearest first. Rectangles at the same distance are returned in
+     * no particular order; fewer than k are returned if the tree holds fewer.
+     *
+     * @param root (Node): The root of the tree to search.
+     * @param left (double): The x-coordinate of the left edge of the root's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the root's area.
+     * @param width (double): The width of the root's area.
+     * @param height (double): The height of the root's area.
+     * @param x (float): The x-coordinate of the query point.
+     * @param y (float): The y-coordinate of the query point.
+     * @param k (integer): The number of rectangles wanted.
+     *
+     * @return The rectangles, ordered by increasing distance from the point to their anchor.
+     */
+    List<Rectangle> search(Node root, double left, double bottom, double width, double height, float x, float y, int k) {
+        if (k < 1) throw new IllegalArgumentException("k must be at least 1: " + k);
+        count = 0;
+        nodeCount = 0;
+        pushNode(root, distanceTo(left, bottom, width, height, x, y), left, bottom, width, height);
+
+        while (nodeCount > 0) {
+            double d = nodeDistances[0];
+            double nodeLeft = nodeAreas[0], nodeBottom = nodeAreas[1], nodeWidth = nodeAreas[2], nodeHeight = nodeAreas[3];
+            Node node = popNode();
+            if (count == k && d >= distances[0]) break;  // Nothing left can beat the current k-th best
+
+            if (node instanceof InternalNode) {
+                InternalNode parent = (InternalNode) node;
+                double w = nodeWidth / 2, h = nodeHeight / 2, midX = nodeLeft + w, midY = nodeBottom + h;
+                offer(parent.topLeft, nodeLeft, midY, w, h, x, y, k);
+                offer(parent.topRight, midX, midY, w, h, x, y, k);
+                offer(parent.bottomLeft, nodeLeft, nodeBottom, w, h, x, y, k);
+                offer(parent.bottomRight, midX, nodeBottom, w, h, x, y, k);
+            } else {
+                AbstractLeafNode leaf = (AbstractLeafNode) node;
+                for (int i = 0, n = leaf.size(); i < n; i++) {
+                    double dx = leaf.x(i) - (double) x, dy = leaf.y(i) - (double) y;
+                    double distance = dx * dx + dy * dy;
+                    if (count < k) pushCandidate(leaf, i, distance);
+                    else if (distance < distances[0]) siftDownCandidate(leaf, i, distance);  // Replaces the current k-th best
+                }
+            }
+        }
+
+        // Empty the max-heap from the back so the nearest ends up first
+        Rectangle[] result = new Rectangle[count];
+        while (count > 0) {
+            result[count - 1] = leaves[0].get(entries[0]);
+            popCandidate();
+        }
+        return new ArrayList<>(Arrays.asList(result));
+    }
+
+    private void offer(Node child, double left, double bottom, double width, double height, float x, float y, int k) {
+        if (child instanceof AbstractLeafNode && ((AbstractLeafNode) child).size() == 0) return;
+        double d = distanceTo(left, bottom, width, height, x, y);
+        if (count < k || d < distances[0]) pushNode(child, d, left, bottom, width, height);
+    }
+
+    /**
+     * Description: Returns the squared distance from the point to the nearest point of the area (zero if the point is inside).
+     *
+     * @param left (double): The x-coordinate of the left edge of the area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the area.
+     * @param width (double): The width of the area.
+     * @param height (double): The height of the area.
+     * @param x (float): The x-coordinate of the point.
+     * @param y (float): The y-coordinate of the point.
+     *
+     * @return The squared distance.
+     */
+    static double distanceTo(double left, double bottom, double width, double height, float x, float y) {
+        double dx = Math.max(0, Math.max(left - x, x - (left + width)));
+        double dy = Math.max(0, Math.max(bottom - y, y - (bottom + height)));
+        return dx * dx + dy * dy;
+    }
+
+    private void pushNode(Node node, double distance, double left, double bottom, double width, double height) {
+        if (nodeCount == nodes.length) {
+            nodes = Arrays.copyOf(nodes, nodeCount * 2);
+            nodeDistances = Arrays.copyOf(nodeDistances, nodeCount * 2);
+            nodeAreas = Arrays.copyOf(nodeAreas, 4 * nodeCount * 2);
+        }
+        int i = nodeCount++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (nodeDistances[parent] <= distance) break;
+            moveNode(parent, i);
+            i = parent;
+        }
+        setNode(i, node, distance, left, bottom, width, height);
+    }
+
+    // Removes the nearest node; read its area from nodeAreas[0..3] before calling
+    private Node popNode() {
+        Node top = nodes[0];
+        int last = --nodeCount;
+        Node node = nodes[last];
+        double distance = nodeDistances[last];
+        double left = nodeAreas[4 * last], bottom = nodeAreas[4 * last + 1], width = nodeAreas[4 * last + 2], height = nodeAreas[4 * last + 3];
+        nodes[last] = null;
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= nodeCount) break;
+            if (child + 1 < nodeCount && nodeDistances[child + 1] < nodeDistances[child]) child++;
+            if (nodeDistances[child] >= distance) break;
+            moveNode(child, i);
+            i = child;
+        }
+        if (nodeCount > 0) setNode(i, node, distance, left, bottom, width, height);
+        return top;
+    }
+
+    private void moveNode(int from, int to) {
+        nodes[to] = nodes[from];
+        nodeDistances[to] = nodeDistances[from];
+        System.arraycopy(nodeAreas, 4 * from, nodeAreas, 4 * to, 4);
+    }
+
+    private void setNode(int i, Node node, double distance, double left, double bottom, double width, double height) {
+        nodes[i] = node;
+        nodeDistances[i] = distance;
+        nodeAreas[4 * i] = left;
+        nodeAreas[4 * i + 1] = bottom;
+        nodeAreas[4 * i + 2] = width;
+        nodeAreas[4 * i + 3] = height;
+    }
+
+    private void pushCandidate(AbstractLeafNode leaf, int entry, double distance) {
+        if (count == leaves.length) {
+            leaves = Arrays.copyOf(leaves, count * 2);
+            entries = Arrays.copyOf(entries, count * 2);
+            distances = Arrays.copyOf(distances, count * 2);
+        }
+        int i = count++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (distances[parent] >= distance) break;
+            moveCandidate(parent, i);
+            i = parent;
+        }
+        setCandidate(i, leaf, entry, distance);
+    }
+
+    private void popCandidate() {
+        int last = --count;
+        AbstractLeafNode leaf = leaves[last];
+        int entry = entries[last];
+        double distance = distances[last];
+        leaves[last] = null;
+        if (count > 0) siftDownCandidate(leaf, entry, distance);
+    }
+
+    // Places the given candidate at the root of the max-heap and moves it down to its position
+    private void siftDownCandidate(AbstractLeafNode leaf, int entry, double distance) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= count) break;
+            if (child + 1 < count && distances[child + 1] > distances[child]) child++;
+            if (distances[child] <= distance) break;
+            moveCandidate(child, i);
+            i = child;
+        }
+        setCandidate(i, leaf, entry, distance);
+    }
+
+    private void moveCandidate(int from, int to) {
+        setCandidate(to, leaves[from], entries[from], distances[from]);
+    }
+
+    private void setCandidate(int i, AbstractLeafNode leaf, int entry, double distance) {
+        leaves[i] = leaf;
+        entries[i] = entry;
+        distances[i] = distance;
+    }
+}
@@ -1,59 +1,235 @@
 package org.sample.mavensample;
 
+import java.util.function.Consumer;
+
 /**
  * The Node class serves as an abstract base class for handling nodes within a quadtree data structure. 
  * It provides functionality for storing rectangles within a defined boundary, managing parent-child relationships, 
  * and implementing essential methods for inserting, deleting, finding, and printing rectangles. Derived classes must provide specific implementations for these methods.
+ * Nodes do not store their boundary: a child's area follows from its parent's area and its quadrant, so every method is given 
+ * the node's area (left, bottom, width, height) by its caller and works out the children's areas on the way down. Only the 
+ * owner of the root, such as QuadTree, keeps an area.
  */
 abstract class Node {
-    Rectangle boundary;
-
-    /**
-     * Description: Initializes a new instance of the Node class with a specified boundary defined by a rectangle. 
-     * @param boundary (Rectangle): The rectangle that defines the spatial boundary of this node. This boundary determines the area within which rectangles can be stored or manipulated.
-     */
-    Node(Rectangle boundary) {
-        this.boundary = boundary;
-    }
+    float maxLength, maxWidth;  // Largest length and width of any rectangle stored under this node; rectangles reach at most this far past the boundary
 
     /**
      * Description:  Inserts a rectangle into the node. 
      * 
      * @param r (Rectangle): The rectangle to be inserted.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
      * 
      * @exception Throws an Exception if the insertion fails (e.g., if the rectangle is out of the node's boundary).
      */
-    abstract void insert(Rectangle r) throws Exception;
+    abstract void insert(Rectangle r, double left, double bottom, double width, double height) throws Exception;
     
     /**
-     * Description:  Inserts a rectangle into the node. 
+     * Description:  Deletes the rectangles located at the specified coordinates. 
      * 
      * @param x (float): The x-coordinate of the rectangle to be deleted.
      * @param y (float): The y-coordinate of the rectangle to be deleted.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
      * 
      * @exception Throws an Exception if no rectangle is found at the specified coordinates.
      */
-    abstract void delete(float x, float y) throws Exception;
+    abstract void delete(float x, float y, double left, double bottom, double width, double height) throws Exception;
     
     /**
      * Description: Finds and returns the rectangle located at the specified coordinates.. 
      * 
      * @param x (float): The x-coordinate where the rectangle is searched.
      * @param y (float): The y-coordinate where the rectangle is searched.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
      * 
      * @exception Throws an Exception if no rectangle is found at the specified coordinates.
      * 
      * @return Returns the Rectangle located at the specified coordinates, or throws an exception if not found.
      */
-    abstract Rectangle find(float x, float y) throws Exception;
+    abstract Rectangle find(float x, float y, double left, double bottom, double width, double height) throws Exception;
+
+    /**
+     * Description: Inserts a rectangle into the node without throwing. 
+     * 
+     * @param r (Rectangle): The rectangle to be inserted.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
+     * 
+     * @return Returns true if the rectangle was stored; false if it lies outside the node's boundary.
+     */
+    abstract boolean add(Rectangle r, double left, double bottom, double width, double height);
+
+    /**
+     * Description: Deletes the rectangles located at the specified coordinates without throwing. 
+     * 
+     * @param x (float): The x-coordinate of the rectangle to be deleted.
+     * @param y (float): The y-coordinate of the rectangle to be deleted.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
+     * 
+     * @return Returns true if a rectangle was removed; otherwise, returns false.
+     */
+    abstract boolean remove(float x, float y, double left, double bottom, double width, double height);
+
+    /**
+     * Description: Changes the length and width of the rectangle anchored at the specified coordinates, in place and without throwing. 
+     * Resizing never changes which leaf a rectangle belongs to, so the tree is walked once and nothing is moved or allocated.
+     * 
+     * @param x (float): The x-coordinate of the rectangle's bottom-left corner.
+     * @param y (float): The y-coordinate of the rectangle's bottom-left corner.
+     * @param newLength (float): The new length for the rectangle.
+     * @param newWidth (float): The new width for the rectangle.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
+     * 
+     * @return Returns true if a rectangle was resized; false if there is none at the coordinates.
+     */
+    abstract boolean resize(float x, float y, float newLength, float newWidth, double left, double bottom, double width, double height);
+
+    /**
+     * Description: Finds the rectangle located at the specified coordinates without throwing. 
+     * 
+     * @param x (float): The x-coordinate where the rectangle is searched.
+     * @param y (float): The y-coordinate where the rectangle is searched.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
+     * 
+     * @return Returns the Rectangle located at the specified coordinates, or null if there is none.
+     */
+    abstract Rectangle lookup(float x, float y, double left, double bottom, double width, double height);
+
+    /**
+     * Description: Passes every rectangle whose bottom-left corner lies inside the window to the visitor, 
+     * skipping any part of the node whose boundary does not intersect the window.
+     * 
+     * @param window (Rectangle): The area being queried.
+     * @param visitor (Consumer<Rectangle>): Receives each matching rectangle.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
+     */
+    abstract void queryRange(Rectangle window, Consumer<Rectangle> visitor, double left, double bottom, double width, double height);
+
+    /**
+     * Description: Passes every rectangle that overlaps the window to the visitor, taking each rectangle's full extent into account. 
+     * Any part of the node whose boundary, widened by its maxLength and maxWidth, does not intersect the window is skipped.
+     * 
+     * @param window (Rectangle): The area being queried.
+     * @param visitor (Consumer<Rectangle>): Receives each overlapping rectangle.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
+     */
+    abstract void queryIntersecting(Rectangle window, Consumer<Rectangle> visitor, double left, double bottom, double width, double height);
+
+    /**
+     * Description: Checks whether any rectangle stored under this node could overlap the window. Rectangles are anchored inside the 
+     * boundary, so they can only stick out to the right and to the top, by at most maxLength and maxWidth.
+     * 
+     * @param window (Rectangle): The area being queried.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
+     * 
+     * @return Returns true if the widened boundary intersects the window; otherwise, returns false.
+     */
+    boolean mayIntersect(Rectangle window, double left, double bottom, double width, double height) {
+        return intersects(window, left, bottom, width + maxLength, height + maxWidth);
+    }
+
+    /**
+     * Description: Checks whether the point lies inside the area, edges included, as Rectangle.contains() does.
+     * 
+     * @param x (float): The x-coordinate of the point.
+     * @param y (float): The y-coordinate of the point.
+     * @param left (double): The x-coordinate of the left edge of the area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the area.
+     * @param width (double): The width of the area.
+     * @param height (double): The height of the area.
+     * 
+     * @return Returns true if the point is inside the area; otherwise, returns false.
+     */
+    static boolean contains(float x, float y, double left, double bottom, double width, double height) {
+        return x >= left && x <= left + width && y >= bottom && y <= bottom + height;
+    }
+
+    /**
+     * Description: Checks whether the window and the area share at least one point, edges included, as Rectangle.intersects() does.
+     * 
+     * @param window (Rectangle): The window.
+     * @param left (double): The x-coordinate of the left edge of the area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the area.
+     * @param width (double): The width of the area.
+     * @param height (double): The height of the area.
+     * 
+     * @return Returns true if the window and the area overlap; otherwise, returns false.
+     */
+    static boolean intersects(Rectangle window, double left, double bottom, double width, double height) {
+        return window.point.x <= left + width && window.point.x + window.length >= left
+                && window.point.y <= bottom + height && window.point.y + window.width >= bottom;
+    }
     
     /**
      * Description: Prints the details of the node and its child nodes, formatted according to the specified depth.
      * 
      * @param depth (integer): The current depth in the quadtree structure, used for formatting output.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
      * 
      * @exception This method does not throw exceptions.
      * 
      */
-    abstract void print(int depth);
+    void print(int depth, double left, double bottom, double width, double height) {
+        OutputBuffer out = new OutputBuffer(System.out, OutputBuffer.SMALL_BUFFER_SIZE);  // One-off, so no large buffer
+        print(depth, out, left, bottom, width, height);
+        out.flush();
+    }
+
+    /**
+     * Description: Appends the details of the node and its child nodes to the output buffer, formatted according to the specified depth.
+     * Nothing is written to the console until the buffer is flushed.
+     * 
+     * @param depth (integer): The current depth in the quadtree structure, used for formatting output.
+     * @param out (OutputBuffer): The buffer receiving the output.
+     * @param left (double): The x-coordinate of the left edge of the node's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the node's area.
+     * @param width (double): The width of the node's area.
+     * @param height (double): The height of the node's area.
+     */
+    abstract void print(int depth, OutputBuffer out, double left, double bottom, double width, double height);
+
+    /**
+     * Description: Hands any storage held outside the Java heap back to its owner, once the node has been replaced and will not be used again. 
+     * Nodes on the heap hold nothing of the kind, so by default this does nothing.
+     */
+    void release() {
+    }
+
+    /**
+     * Description: Returns the total number of rectangles stored in this node and all of its descendants.
+     * 
+     * @return An integer representing the total count of rectangles under this node.
+     */
+    abstract int getTotalRectangles();
 }
\ No newline at end of file
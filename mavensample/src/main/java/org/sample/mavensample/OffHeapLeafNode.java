@@ -0,0 +1,114 @@
+package org.sample.mavensample;
+
+/*
+ * Description: The OffHeapLeafNode class is a leaf that keeps its rectangles outside the Java heap, in a block of an OffHeapStore.
+ * Each entry takes 16 bytes (x, y, length, width as floats); the leaf object itself only holds the block's address, its capacity
+ * and the entry count, so the heap does not grow with the number of rectangles. The block doubles when it fills up and is handed
+ * back to the store when the leaf empties or is discarded. Rectangles handed out by find() and queryRange() are copies, so
+ * changing their fields does not change the tree; use QuadTree.update() instead.
+ */
+class OffHeapLeafNode extends AbstractLeafNode {
+    private static final int ENTRY_SIZE = 16;
+    private static final int X = 0, Y = 4, LENGTH = 8, WIDTH = 12;
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final OffHeapStore store;
+    private long address;
+    private int capacity;  // Entries that fit in the block; 0 when the leaf holds no block
+    private int count;
+
+    /**
+     * Description: Initializes a new, empty OffHeapLeafNode. No memory is taken until the first insert.
+     *
+     * @param indexed (boolean): Whether to maintain the anchor index.
+     * @param store (OffHeapStore): The store providing the leaf's memory.
+     */
+    OffHeapLeafNode(boolean indexed, OffHeapStore store) {
+        super(indexed);
+        this.store = store;
+    }
+
+    @Override
+    int size() {
+        return count;
+    }
+
+    @Override
+    float x(int i) {
+        return store.getFloat(address, i * ENTRY_SIZE + X);
+    }
+
+    @Override
+    float y(int i) {
+        return store.getFloat(address, i * ENTRY_SIZE + Y);
+    }
+
+    @Override
+    float length(int i) {
+        return store.getFloat(address, i * ENTRY_SIZE + LENGTH);
+    }
+
+    @Override
+    float width(int i) {
+        return store.getFloat(address, i * ENTRY_SIZE + WIDTH);
+    }
+
+    @Override
+    Rectangle get(int i) {
+        return new Rectangle(x(i), y(i), length(i), width(i));
+    }
+
+    @Override
+    void append(Rectangle r) {
+        append(r.point.x, r.point.y, r.length, r.width);
+    }
+
+    @Override
+    void append(float x, float y, float length, float width) {
+        if (count == capacity) grow();
+        int offset = count * ENTRY_SIZE;
+        store.putFloat(address, offset + X, x);
+        store.putFloat(address, offset + Y, y);
+        store.putFloat(address, offset + LENGTH, length);
+        store.putFloat(address, offset + WIDTH, width);
+        count++;
+    }
+
+    private void grow() {
+        int newCapacity = capacity == 0 ? INITIAL_CAPACITY : capacity * 2;
+        long newAddress = store.allocate(newCapacity * ENTRY_SIZE);
+        if (capacity > 0) {
+            store.copy(address, 0, newAddress, 0, count * ENTRY_SIZE);
+            store.free(address, capacity * ENTRY_SIZE);
+        }
+        address = newAddress;
+        capacity = newCapacity;
+    }
+
+    @Override
+    void resize(int i, float length, float width) {
+        store.putFloat(address, i * ENTRY_SIZE + LENGTH, length);
+        store.putFloat(address, i * ENTRY_SIZE + WIDTH, width);
+    }
+
+    @Override
+    void move(int from, int to) {
+        store.copy(address, from * ENTRY_SIZE, address, to * ENTRY_SIZE, ENTRY_SIZE);
+    }
+
+    @Override
+    void truncate(int newSize) {
+        count = newSize;
+        if (count == 0) release();
+    }
+
+    /**
+     * Description: Hands the leaf's block back to the store, leaving the leaf empty.
+     */
+    @Override
+    void release() {
+        if (capacity > 0) store.free(address, capacity * ENTRY_SIZE);
+        capacity = 0;
+        count = 0;
+    }
+}
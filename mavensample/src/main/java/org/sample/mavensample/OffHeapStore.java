@@ -0,0 +1,223 @@
+package org.sample.mavensample;
+
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/*
+ * Description: The OffHeapStore class hands out blocks of native memory for OffHeapLeafNode contents. Memory is taken from large
+ * direct ByteBuffer slabs, so the heap only holds the slab array and the garbage collector never sees the rectangles themselves.
+ * Blocks come in power-of-two sizes; a freed block goes on a free list for its size and is reused by the next request of that size.
+ * An address packs the slab number (high 32 bits) and the byte offset within the slab (low 32 bits).
+ * Allocation is synchronized so leaves can be built in parallel; reads and writes of a block are not, like any other leaf.
+ * close() hands the slabs straight back to the operating system through the buffers' cleaner, so it must not run while any
+ * leaf is still being read.
+ */
+class OffHeapStore implements Closeable {
+    static final int SLAB_SIZE = 64 * 1024 * 1024;
+    private static final int MIN_BLOCK_SHIFT = 6;    // 64 bytes, four rectangles
+    private static final int MAX_BLOCK_SHIFT = 30;
+
+    private final int slabSize;
+    private volatile ByteBuffer[] slabs = new ByteBuffer[4];  // null once closed
+    private int slabCount;
+    private int used;                                         // Bytes handed out from the last slab
+    private final long[][] freeBlocks = new long[MAX_BLOCK_SHIFT + 1][];
+    private final int[] freeCounts = new int[MAX_BLOCK_SHIFT + 1];
+    private long allocated;                                   // Bytes in blocks currently handed out
+
+    // The JDK's hook for freeing a direct buffer at once: Unsafe.invokeCleaner on Java 9 and later, DirectBuffer.cleaner() on Java 8.
+    // Both are looked up reflectively; if neither exists, closed slabs are left for the garbage collector.
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER, CLEANER, CLEAN;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null, cleaner = null, clean = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            invokeCleaner = null;
+            try {
+                cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+                cleaner.setAccessible(true);
+                clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+                clean.setAccessible(true);
+            } catch (ReflectiveOperationException | RuntimeException e2) {
+                cleaner = clean = null;
+            }
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+        CLEANER = cleaner;
+        CLEAN = clean;
+    }
+
+    /**
+     * Description: Initializes an empty store taking memory in 64 MB slabs. Nothing is reserved until the first allocation.
+     */
+    OffHeapStore() {
+        this(SLAB_SIZE);
+    }
+
+    /**
+     * Description: Initializes an empty store taking memory in slabs of the given size; larger blocks get a slab of their own.
+     *
+     * @param slabSize (integer): The size of each slab in bytes.
+     */
+    OffHeapStore(int slabSize) {
+        this.slabSize = slabSize;
+    }
+
+    /**
+     * Description: Allocates a block of at least the given size.
+     *
+     * @param bytes (integer): The number of bytes needed.
+     *
+     * @exception Throws IllegalStateException if the store is closed, or IllegalArgumentException if the block would exceed 1 GB.
+     *
+     * @return The address of the block.
+     */
+    synchronized long allocate(int bytes) {
+        ByteBuffer[] current = open();
+        int shift = blockShift(bytes);
+        allocated += 1L << shift;
+        if (freeCounts[shift] > 0) return freeBlocks[shift][--freeCounts[shift]];
+
+        int size = 1 << shift;
+        if (slabCount == 0 || used + size > current[slabCount - 1].capacity()) {
+            if (slabCount == current.length) slabs = current = Arrays.copyOf(current, slabCount * 2);
+            current[slabCount++] = ByteBuffer.allocateDirect(Math.max(slabSize, size)).order(ByteOrder.nativeOrder());
+            used = 0;
+        }
+        long address = (long) (slabCount - 1) << 32 | used;
+        used += size;
+        return address;
+    }
+
+    /**
+     * Description: Returns a block to the store for reuse.
+     *
+     * @param address (long): The address returned by allocate().
+     * @param bytes (integer): The size passed to allocate().
+     */
+    synchronized void free(long address, int bytes) {
+        if (slabs == null) return;  // Everything was released by close()
+        int shift = blockShift(bytes);
+        long[] list = freeBlocks[shift];
+        if (list == null) list = freeBlocks[shift] = new long[16];
+        else if (freeCounts[shift] == list.length) list = freeBlocks[shift] = Arrays.copyOf(list, list.length * 2);
+        list[freeCounts[shift]++] = address;
+        allocated -= 1L << shift;
+    }
+
+    private static int blockShift(int bytes) {
+        int shift = Math.max(MIN_BLOCK_SHIFT, 32 - Integer.numberOfLeadingZeros(Math.max(bytes, 1) - 1));
+        if (shift > MAX_BLOCK_SHIFT) throw new IllegalArgumentException("Block too large: " + bytes + " bytes");
+        return shift;
+    }
+
+    float getFloat(long address, int offset) {
+        return slab(address).getFloat((int) address + offset);
+    }
+
+    void putFloat(long address, int offset, float value) {
+        slab(address).putFloat((int) address + offset, value);
+    }
+
+    /**
+     * Description: Copies bytes between blocks (or within one block, towards lower offsets). The length must be a multiple of 8.
+     *
+     * @param from (long): The address of the source block.
+     * @param fromOffset (integer): The byte offset in the source block.
+     * @param to (long): The address of the target block.
+     * @param toOffset (integer): The byte offset in the target block.
+     * @param bytes (integer): The number of bytes to copy.
+     */
+    void copy(long from, int fromOffset, long to, int toOffset, int bytes) {
+        ByteBuffer source = slab(from), target = slab(to);
+        int s = (int) from + fromOffset, t = (int) to + toOffset;
+        for (int i = 0; i < bytes; i += 8) {
+            target.putLong(t + i, source.getLong(s + i));
+        }
+    }
+
+    private ByteBuffer slab(long address) {
+        return open()[(int) (address >>> 32)];
+    }
+
+    private ByteBuffer[] open() {
+        ByteBuffer[] current = slabs;
+        if (current == null) throw new IllegalStateException("Off-heap store is closed");
+        return current;
+    }
+
+    /**
+     * Description: Returns the number of bytes in blocks currently in use.
+     *
+     * @return The allocated size in bytes.
+     */
+    synchronized long allocatedBytes() {
+        return allocated;
+    }
+
+    /**
+     * Description: Returns the number of bytes reserved from the operating system, including free and unused space.
+     *
+     * @return The reserved size in bytes.
+     */
+    synchronized long reservedBytes() {
+        long total = 0;
+        ByteBuffer[] current = slabs;
+        for (int i = 0; current != null && i < slabCount; i++) total += current[i].capacity();
+        return total;
+    }
+
+    /**
+     * Description: Frees every slab at once. Leaves using this store must not be read afterwards; they throw IllegalStateException.
+     * Nothing may be reading a block while close() runs, since the memory behind it is gone as soon as its slab is freed.
+     * Closing twice does nothing.
+     */
+    @Override
+    public synchronized void close() {
+        ByteBuffer[] current = slabs;
+        slabs = null;
+        for (int i = 0; current != null && i < slabCount; i++) release(current[i]);
+        slabCount = 0;
+        used = 0;
+        allocated = 0;
+        Arrays.fill(freeBlocks, null);
+        Arrays.fill(freeCounts, 0);
+    }
+
+    /**
+     * Description: Frees the native memory of a direct buffer without waiting for the garbage collector. The buffer must not be used afterwards.
+     *
+     * @param buffer (ByteBuffer): The direct buffer to free.
+     *
+     * @return Returns true if the memory was freed; false if this JVM offers no way to do so and the garbage collector has to.
+     */
+    static boolean release(ByteBuffer buffer) {
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+                return true;
+            }
+            if (CLEANER != null) {
+                Object cleaner = CLEANER.invoke(buffer);
+                if (cleaner != null) CLEAN.invoke(cleaner);
+                return cleaner != null;
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Left to the garbage collector
+        }
+        return false;
+    }
+}
@@ -0,0 +1,192 @@
+package org.sample.mavensample;
+
+import java.io.PrintStream;
+
+/*
+ * Description: The OutputBuffer class collects console output in one large byte buffer and writes it to the underlying stream
+ * only when the buffer is full or flush() is called. Numbers are formatted straight into the buffer, so printing a rectangle,
+ * a node header or an indent creates no Strings. The text produced is identical to what println() and Rectangle.toString() print.
+ */
+class OutputBuffer {
+    private static final int BUFFER_SIZE = 256 * 1024;
+    static final int SMALL_BUFFER_SIZE = 8 * 1024;     // For one-off output; matches System.out's own buffer
+    private static final byte[] NEWLINE = System.lineSeparator().getBytes();
+    private static final double MAX_FAST_VALUE = 1e7;  // Beyond this a double's rounding error can reach the second decimal
+    private static final double TIE_MARGIN = 1e-6;     // How close to a rounding tie we fall back to String.format()
+
+    private final PrintStream out;
+    private final byte[] buffer;
+    private final boolean plainDecimals;  // Whether String.format("%.2f") prints ASCII digits and a '.' in the default locale
+    private int count;
+
+    /**
+     * Description: Initializes a new, empty OutputBuffer that writes to the given stream.
+     *
+     * @param out (PrintStream): The stream the buffered output is written to, usually System.out.
+     */
+    OutputBuffer(PrintStream out) {
+        this(out, BUFFER_SIZE);
+    }
+
+    /**
+     * Description: Initializes a new, empty OutputBuffer of the given size that writes to the given stream.
+     *
+     * @param out (PrintStream): The stream the buffered output is written to, usually System.out.
+     * @param size (integer): The number of bytes collected before they are written; at least 64.
+     */
+    OutputBuffer(PrintStream out, int size) {
+        this.out = out;
+        this.buffer = new byte[Math.max(64, size)];
+        this.plainDecimals = String.format("%.2f", -1234.5f).equals("-1234.50");
+    }
+
+    /**
+     * Description: Appends a string. ASCII text is copied byte by byte; anything else is encoded like PrintStream would.
+     *
+     * @param s (String): The text to append.
+     *
+     * @return This buffer, for chaining.
+     */
+    OutputBuffer append(String s) {
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            if (s.charAt(i) >= 0x80) return append(s.getBytes());
+        }
+        for (int i = 0; i < length; i++) {
+            if (count == buffer.length) drain();
+            buffer[count++] = (byte) s.charAt(i);
+        }
+        return this;
+    }
+
+    private OutputBuffer append(byte[] bytes) {
+        for (byte b : bytes) {
+            if (count == buffer.length) drain();
+            buffer[count++] = b;
+        }
+        return this;
+    }
+
+    /**
+     * Description: Appends a single ASCII character.
+     *
+     * @param c (char): The character to append.
+     *
+     * @return This buffer, for chaining.
+     */
+    OutputBuffer append(char c) {
+        if (count == buffer.length) drain();
+        buffer[count++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * Description: Appends a float as Float.toString() (and string concatenation) would print it.
+     *
+     * @param f (float): The number to append.
+     *
+     * @return This buffer, for chaining.
+     */
+    OutputBuffer append(float f) {
+        return append(Float.toString(f));
+    }
+
+    /**
+     * Description: Appends the line separator, like println() ends a line.
+     *
+     * @return This buffer, for chaining.
+     */
+    OutputBuffer newline() {
+        return append(NEWLINE);
+    }
+
+    /**
+     * Description: Appends the indentation used by dump(): four spaces per level.
+     *
+     * @param depth (integer): The indentation level.
+     *
+     * @return This buffer, for chaining.
+     */
+    OutputBuffer indent(int depth) {
+        for (int i = 4 * depth; i > 0; i--) {
+            if (count == buffer.length) drain();
+            buffer[count++] = ' ';
+        }
+        return this;
+    }
+
+    /**
+     * Description: Appends a rectangle exactly as Rectangle.toString() prints it.
+     *
+     * @param r (Rectangle): The rectangle to append.
+     *
+     * @return This buffer, for chaining.
+     */
+    OutputBuffer append(Rectangle r) {
+        return appendRectangle(r.point.x, r.point.y, r.length, r.width);
+    }
+
+    /**
+     * Description: Appends a rectangle given by its fields, exactly as Rectangle.toString() prints it.
+     *
+     * @param x (float): The x-coordinate of the bottom-left corner.
+     * @param y (float): The y-coordinate of the bottom-left corner.
+     * @param length (float): The length of the rectangle.
+     * @param width (float): The width of the rectangle.
+     *
+     * @return This buffer, for chaining.
+     */
+    OutputBuffer appendRectangle(float x, float y, float length, float width) {
+        append("Rectangle at (").appendFixed2(x).append(", ").appendFixed2(y).append("): ");
+        return appendFixed2(length).append('x').appendFixed2(width);
+    }
+
+    /**
+     * Description: Appends a float with two decimals, as String.format("%.2f") does (rounding half up). The digits are computed
+     * with integer arithmetic; only values that are huge, not finite, or within a hair of a rounding tie go through String.format().
+     *
+     * @param f (float): The number to append.
+     *
+     * @return This buffer, for chaining.
+     */
+    OutputBuffer appendFixed2(float f) {
+        double magnitude = Math.abs((double) f);
+        if (plainDecimals && magnitude < MAX_FAST_VALUE) {
+            double scaled = magnitude * 100;
+            double floor = Math.floor(scaled);
+            double fraction = scaled - floor;
+            if (Math.abs(fraction - 0.5) > TIE_MARGIN) {
+                long cents = (long) floor + (fraction > 0.5 ? 1 : 0);
+                if (Float.floatToRawIntBits(f) < 0) append('-');
+                appendLong(cents / 100);
+                append('.');
+                append((char) ('0' + cents / 10 % 10));
+                return append((char) ('0' + cents % 10));
+            }
+        }
+        return append(String.format("%.2f", f));
+    }
+
+    private void appendLong(long value) {
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) digits++;
+        if (buffer.length - count < digits) drain();
+        for (int i = count + digits - 1; i >= count; i--, value /= 10) {
+            buffer[i] = (byte) ('0' + value % 10);
+        }
+        count += digits;
+    }
+
+    /**
+     * Description: Writes everything buffered so far to the underlying stream and flushes it.
+     */
+    void flush() {
+        drain();
+        out.flush();
+    }
+
+    private void drain() {
+        out.write(buffer, 0, count);
+        count = 0;
+    }
+}
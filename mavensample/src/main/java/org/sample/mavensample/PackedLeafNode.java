@@ -0,0 +1,98 @@
+package org.sample.mavensample;
+
+import java.util.Arrays;
+
+/*
+ * Description: The PackedLeafNode class is a leaf that stores its rectangles column by column in parallel float arrays 
+ * (x, y, length, width) instead of as Rectangle objects. Scans touch contiguous memory and each stored rectangle costs 
+ * 16 bytes of array space rather than a Rectangle and a Point object. Rectangles handed out by find() and queryRange() 
+ * are copies, so changing their fields does not change the tree; use QuadTree.update() instead.
+ */
+class PackedLeafNode extends AbstractLeafNode {
+    private static final int INITIAL_CAPACITY = 4;
+
+    float[] xs = new float[INITIAL_CAPACITY];
+    float[] ys = new float[INITIAL_CAPACITY];
+    float[] lengths = new float[INITIAL_CAPACITY];
+    float[] widths = new float[INITIAL_CAPACITY];
+    int count;
+
+    /**
+     * Description: Initializes a new, empty PackedLeafNode. 
+     * 
+     * @param indexed (boolean): Whether to maintain the anchor index.
+     */
+    PackedLeafNode(boolean indexed) {
+        super(indexed);
+    }
+
+    @Override
+    int size() {
+        return count;
+    }
+
+    @Override
+    float x(int i) {
+        return xs[i];
+    }
+
+    @Override
+    float y(int i) {
+        return ys[i];
+    }
+
+    @Override
+    float length(int i) {
+        return lengths[i];
+    }
+
+    @Override
+    float width(int i) {
+        return widths[i];
+    }
+
+    @Override
+    Rectangle get(int i) {
+        return new Rectangle(xs[i], ys[i], lengths[i], widths[i]);
+    }
+
+    @Override
+    void append(Rectangle r) {
+        append(r.point.x, r.point.y, r.length, r.width);
+    }
+
+    @Override
+    void append(float x, float y, float length, float width) {
+        if (count == xs.length) {
+            int capacity = count + (count >> 1) + 1;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+        }
+        xs[count] = x;
+        ys[count] = y;
+        lengths[count] = length;
+        widths[count] = width;
+        count++;
+    }
+
+    @Override
+    void resize(int i, float length, float width) {
+        lengths[i] = length;
+        widths[i] = width;
+    }
+
+    @Override
+    void move(int from, int to) {
+        xs[to] = xs[from];
+        ys[to] = ys[from];
+        lengths[to] = lengths[from];
+        widths[to] = widths[from];
+    }
+
+    @Override
+    void truncate(int newSize) {
+        count = newSize;
+    }
+}
@@ -0,0 +1,137 @@
+package org.sample.mavensample;
+
+import java.util.Arrays;
+
+/*
+ * Description: The PointIndex class is a small open-addressing hash map from a packed (x, y) anchor to an integer slot.
+ * Keys and values are kept in primitive arrays, so lookups, inserts and removals never box or allocate
+ * (apart from the occasional resize on insert).
+ */
+class PointIndex {
+    private static final int NONE = -1;
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    /**
+     * Description: Initializes a new, empty PointIndex.
+     */
+    PointIndex() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Description: Packs the raw bits of an anchor point into a single long key. Negative zero is folded into positive zero
+     * so that the index agrees with the == comparisons used elsewhere in the tree.
+     *
+     * @param x (float): The x-coordinate of the anchor point.
+     * @param y (float): The y-coordinate of the anchor point.
+     *
+     * @return The packed key.
+     */
+    static long key(float x, float y) {
+        return ((long) Float.floatToIntBits(x + 0.0f) << 32) | (Float.floatToIntBits(y + 0.0f) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Description: Returns the slot stored for the key.
+     *
+     * @param key (long): A key built by key(x, y).
+     *
+     * @return The stored slot, or -1 if the key is not present.
+     */
+    int get(long key) {
+        for (int i = slot(key); values[i] != NONE; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+        }
+        return NONE;
+    }
+
+    /**
+     * Description: Stores the slot for the key, replacing any previous value.
+     *
+     * @param key (long): A key built by key(x, y).
+     * @param value (integer): The non-negative slot to store.
+     */
+    void put(long key, int value) {
+        int i = slot(key);
+        for (; values[i] != NONE; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > values.length) {
+            resize(values.length * 2);
+        }
+    }
+
+    /**
+     * Description: Removes the key, shifting later entries of the same probe run back so that no tombstones are left behind.
+     *
+     * @param key (long): A key built by key(x, y).
+     *
+     * @return The slot that was stored for the key, or -1 if the key was not present.
+     */
+    int remove(long key) {
+        int i = slot(key);
+        for (; values[i] != NONE; i = (i + 1) & mask) {
+            if (keys[i] == key) break;
+        }
+        int removed = values[i];
+        if (removed == NONE) return NONE;
+
+        // Backward-shift deletion: pull every entry that probed past the hole back into it
+        int hole = i;
+        for (int j = (hole + 1) & mask; values[j] != NONE; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        values[hole] = NONE;
+        size--;
+        return removed;
+    }
+
+    /**
+     * Description: Returns the number of keys currently stored.
+     *
+     * @return The number of keys.
+     */
+    int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, NONE);
+        mask = capacity - 1;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == NONE) continue;
+            int j = slot(oldKeys[i]);
+            while (values[j] != NONE) j = (j + 1) & mask;
+            keys[j] = oldKeys[i];
+            values[j] = oldValues[i];
+        }
+    }
+}
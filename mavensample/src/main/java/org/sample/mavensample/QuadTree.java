@@ -1,46 +1,349 @@
 package org.sample.mavensample;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /*
  * The QuadTree class represents a spatial data structure used to partition a two-dimensional space 
  * by recursively subdividing it into four quadrants or regions. 
  * It allows for efficient insertion, searching, deletion, and updating of rectangles within a defined boundary.
+ * A tree whose leaves live off the heap (see offHeap()) must be closed once it is no longer needed; for other trees close() does nothing.
  */
-public class QuadTree {
+public class QuadTree implements Iterable<Rectangle>, SpatialIndex, Closeable {
+    private static final float DEFAULT_X = -50;       // Default x-coordinate
+    private static final float DEFAULT_Y = -50;       // Default y-coordinate
+    private static final float DEFAULT_WIDTH = 100;   // Default width of the root boundary
+    private static final float DEFAULT_HEIGHT = 100;  // Default height of the root boundary
+
     private Node root;
-    private final float x;  // Default x-coordinate
-    private final float y;  // Default y-coordinate
-    private final float width;  // Default width of the root boundary
-    private final float height; // Default height of the root boundary
+    private double left, bottom, width, height;  // The root's area; every other node's area is worked out from it on the way down
+    private final QuadTreeConfig config;
+    private final boolean growable;  // Whether the root expands to take in rectangles outside its boundary
 
     /**
      * Description:  Initializes a new instance of the QuadTree class with default boundary values and an initial root node as a LeafNode.
      * 
      */
     public QuadTree() {
-        this.x = -50;  // Set default x-coordinate
-        this.y = -50;  // Set default y-coordinate
-        this.width = 100;  // Set default width of the root boundary
-        this.height = 100; // Set default height of the root boundary
-        this.root = new LeafNode(x, y, width, height); // Initialize root with default dimensions
+        this(QuadTreeConfig.DEFAULT);
+    }
+
+    /**
+     * Description:  Initializes a new instance of the QuadTree class with default boundary values, splitting any leaf that holds more than 
+     * leafCapacity rectangles until the tree reaches maxDepth levels.
+     * 
+     * @param leafCapacity (integer): The number of rectangles a leaf may hold before it is split.
+     * @param maxDepth (integer): The deepest level (the root is level 0) at which a leaf may still be split.
+     */
+    public QuadTree(int leafCapacity, int maxDepth) {
+        this(new QuadTreeConfig(leafCapacity, maxDepth));
+    }
+
+    /**
+     * Description:  Initializes a new instance of the QuadTree class with default boundary values and the given configuration.
+     * 
+     * @param config (QuadTreeConfig): The tuning parameters shared by every node of the tree.
+     */
+    QuadTree(QuadTreeConfig config) {
+        this(DEFAULT_X, DEFAULT_Y, DEFAULT_WIDTH, DEFAULT_HEIGHT, config);
+    }
+
+    /**
+     * Description:  Initializes a new instance of the QuadTree class covering the given boundary.
+     * 
+     * @param x (float): The x-coordinate of the bottom-left corner of the root boundary.
+     * @param y (float): The y-coordinate of the bottom-left corner of the root boundary.
+     * @param width (float): The width of the root boundary.
+     * @param height (float): The height of the root boundary.
+     */
+    public QuadTree(float x, float y, float width, float height) {
+        this(x, y, width, height, QuadTreeConfig.DEFAULT);
+    }
+
+    /**
+     * Description:  Initializes a new instance of the QuadTree class covering the given boundary, with the given configuration.
+     * 
+     * @param x (float): The x-coordinate of the bottom-left corner of the root boundary.
+     * @param y (float): The y-coordinate of the bottom-left corner of the root boundary.
+     * @param width (float): The width of the root boundary.
+     * @param height (float): The height of the root boundary.
+     * @param config (QuadTreeConfig): The tuning parameters shared by every node of the tree.
+     */
+    QuadTree(float x, float y, float width, float height, QuadTreeConfig config) {
+        this(x, y, width, height, config, false);
+    }
+
+    private QuadTree(float x, float y, float width, float height, QuadTreeConfig config, boolean growable) {
+        if (!(width > 0 && height > 0 && Float.isFinite(width) && Float.isFinite(height))) {
+            throw new IllegalArgumentException("Boundary must have a finite, positive size: " + width + "x" + height);
+        }
+        this.config = config;
+        this.growable = growable;
+        this.root = config.newLeaf(); // Initialize root with the given dimensions
+        this.left = x;
+        this.bottom = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Description:  Initializes a QuadTree around an existing root node, e.g. one rebuilt from a snapshot.
+     * 
+     * @param root (Node): The root node of the tree.
+     * @param left (double): The x-coordinate of the left edge of the root's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the root's area.
+     * @param width (double): The width of the root's area.
+     * @param height (double): The height of the root's area.
+     * @param config (QuadTreeConfig): The tuning parameters shared by every node of the tree.
+     * @param growable (boolean): Whether the root expands to take in rectangles outside its boundary.
+     */
+    QuadTree(Node root, double left, double bottom, double width, double height, QuadTreeConfig config, boolean growable) {
+        this.root = root;
+        this.left = left;
+        this.bottom = bottom;
+        this.width = width;
+        this.height = height;
+        this.config = config;
+        this.growable = growable;
+    }
+
+    /**
+     * Description:  Creates a QuadTree covering the given boundary whose leaves keep their rectangles in native memory instead of on the Java heap, 
+     * so the heap only holds the nodes themselves. Leaves hold up to 256 rectangles and keep no anchor index, which would live on the heap,
+     * so there are few nodes and exact-point lookups scan one leaf. Rectangles returned by the tree are copies. The memory is held until 
+     * close() is called, after which the tree must not be used.
+     * 
+     * @param x (float): The x-coordinate of the bottom-left corner of the root boundary.
+     * @param y (float): The y-coordinate of the bottom-left corner of the root boundary.
+     * @param width (float): The width of the root boundary.
+     * @param height (float): The height of the root boundary.
+     * 
+     * @return (QuadTree): The new, empty tree.
+     */
+    public static QuadTree offHeap(float x, float y, float width, float height) {
+        QuadTreeConfig config = new QuadTreeConfig(QuadTreeConfig.OFF_HEAP_LEAF_CAPACITY, QuadTreeConfig.DEFAULT_MAX_DEPTH, false, LeafStorage.OFF_HEAP);
+        return new QuadTree(x, y, width, height, config);
+    }
+
+    /**
+     * Description:  Creates a QuadTree without a fixed boundary. It starts out covering the default -50..50 area and, whenever a rectangle 
+     * lands outside, doubles the root's boundary (keeping the old root as one of the new root's quadrants) until the rectangle fits. 
+     * Existing rectangles are never re-inserted.
+     * 
+     * @return (QuadTree): The new, empty tree.
+     */
+    public static QuadTree unbounded() {
+        return unbounded(QuadTreeConfig.DEFAULT);
+    }
+
+    /**
+     * Description:  Creates a QuadTree without a fixed boundary, as unbounded() does, with the given configuration.
+     * 
+     * @param config (QuadTreeConfig): The tuning parameters shared by every node of the tree.
+     * 
+     * @return (QuadTree): The new, empty tree.
+     */
+    static QuadTree unbounded(QuadTreeConfig config) {
+        return new QuadTree(DEFAULT_X, DEFAULT_Y, DEFAULT_WIDTH, DEFAULT_HEIGHT, config, true);
     }
 
     /**
-     * Description: Inserts a rectangle into the quadtree. If the root node is a LeafNode and it contains five or more rectangles, it will subdivide into an InternalNode.
+     * Description: Inserts a rectangle into the quadtree. Whenever a LeafNode (including the root) holds more rectangles than the configured 
+     * leaf capacity, it is subdivided into an InternalNode, recursively, until the configured maximum depth is reached.
      * @param r (Rectangle): The rectangle to be inserted into the quadtree.
      * 
      * @exception: Throws Exception if there is an error during the insertion process, such as if the rectangle is out of bounds or cannot be inserted for any reason.
      */
     public void insert(Rectangle r) throws Exception {
-        if (root instanceof LeafNode && ((LeafNode) root).rectangles.size() >= 5) {
-            InternalNode newRoot = new InternalNode(x, y, width, height);
-            for (Rectangle rect : ((LeafNode) root).rectangles) {
-                newRoot.insert(rect);
+        // A leaf root has always ignored rectangles outside its boundary; an internal root reports them
+        if (!tryInsert(r) && root instanceof InternalNode) {
+            throw new Exception("Rectangle is out of the internal node's boundary.");
+        }
+    }
+
+    /**
+     * Description: Inserts a rectangle into the quadtree like insert(), but never throws: a rectangle outside the tree's boundary is reported 
+     * through the return value, without allocating anything.
+     * @param r (Rectangle): The rectangle to be inserted into the quadtree.
+     * 
+     * @return (boolean): Returns true if the rectangle was stored; false if it lies outside the tree's boundary.
+     */
+    @Override
+    public boolean tryInsert(Rectangle r) {
+        if (growable && !growToInclude(r.point.x, r.point.y)) return false;
+        if (!root.add(r, left, bottom, width, height)) return false;
+        if (root instanceof AbstractLeafNode && config.shouldSplit(root.getTotalRectangles(), 0)) {
+            root = InternalNode.split((AbstractLeafNode) root, 0, config, left, bottom, width, height); // Assign the new root
+        }
+        return true;
+    }
+
+    /**
+     * Description: Loads many rectangles at once. The rectangles (together with any already in the tree) are sorted spatially and the 
+     * tree is rebuilt top-down in a single pass, partitioning each node's rectangles into its quadrants once, which is much faster than 
+     * calling insert() for each one. For a fixed boundary the resulting tree holds the same rectangles in the same nodes as one built 
+     * by repeated inserts. Rectangles outside the tree's boundary are skipped, 
+     * unless the tree is unbounded, in which case it first grows to cover them all and the grown tree is then rebuilt as a whole.
+     * @param rectangles (Collection<Rectangle>): The rectangles to load.
+     * 
+     * @return (integer): The number of rectangles that were loaded.
+     */
+    public int bulkLoad(Collection<Rectangle> rectangles) {
+        return bulkLoad(rectangles.toArray(new Rectangle[0]));
+    }
+
+    /**
+     * Description: Loads every rectangle of the stream at once, as bulkLoad(Collection) does.
+     * @param rectangles (Stream<Rectangle>): The rectangles to load.
+     * 
+     * @return (integer): The number of rectangles that were loaded.
+     */
+    public int bulkLoad(Stream<Rectangle> rectangles) {
+        return bulkLoad(rectangles.toArray(Rectangle[]::new));
+    }
+
+    /**
+     * Description: Loads every rectangle of the array at once, as bulkLoad(Collection) does. The array itself is left unchanged.
+     * @param rectangles (Rectangle[]): The rectangles to load.
+     * 
+     * @return (integer): The number of rectangles that were loaded.
+     */
+    public int bulkLoad(Rectangle[] rectangles) {
+        return bulkLoad(rectangles, null);
+    }
+
+    /**
+     * Description: Loads many rectangles at once like bulkLoad(Collection), building the tree in parallel on the given pool: 
+     * after the rectangles are partitioned into the four quadrants of a node, the quadrants are built as separate fork/join tasks, 
+     * down to nodes covering a few thousand rectangles. The resulting tree is the same as the one bulkLoad(Collection) builds.
+     * @param rectangles (Collection<Rectangle>): The rectangles to load.
+     * @param pool (ForkJoinPool): The pool running the build.
+     * 
+     * @return (integer): The number of rectangles that were loaded.
+     */
+    public int bulkLoad(Collection<Rectangle> rectangles, ForkJoinPool pool) {
+        return bulkLoad(rectangles.toArray(new Rectangle[0]), pool);
+    }
+
+    /**
+     * Description: Loads every rectangle of the array at once, building the tree in parallel as bulkLoad(Collection, ForkJoinPool) does. 
+     * The array itself is left unchanged.
+     * @param rectangles (Rectangle[]): The rectangles to load.
+     * @param pool (ForkJoinPool): The pool running the build, or null to build on the calling thread.
+     * 
+     * @return (integer): The number of rectangles that were loaded.
+     */
+    public int bulkLoad(Rectangle[] rectangles, ForkJoinPool pool) {
+        if (growable) {
+            for (Rectangle r : rectangles) {
+                growToInclude(r.point.x, r.point.y);
             }
-            newRoot.insert(r);
-            root = newRoot; // Assign the new root
+        }
+
+        int existing = root.getTotalRectangles();
+        Rectangle[] all = new Rectangle[existing + rectangles.length];
+        int n = 0;
+        if (existing > 0) {
+            for (Rectangle r : this) all[n++] = r;
+        }
+        for (Rectangle r : rectangles) {
+            if (inBounds(r.point.x, r.point.y)) all[n++] = r;
+        }
+
+        Node old = root;
+        if (pool == null) {
+            root = new BulkLoader(config).build(left, bottom, width, height, 0, all, new Rectangle[n], 0, n);
         } else {
-            root.insert(r); // Insert into the current root
+            root = new BulkLoader(config, BulkLoader.PARALLEL_CUTOFF).buildIn(pool, left, bottom, width, height, all, n);
+        }
+        old.release();
+        return root.getTotalRectangles() - existing;
+    }
+
+    /**
+     * Description: Expands the root until its boundary contains the point (x, y). Each step wraps the current root in a new InternalNode 
+     * twice as wide and tall, placing the old root in the quadrant facing away from the point. The new midlines run along two edges of 
+     * the old root, and a point on a midline is routed to the left or top quadrant; rectangles on an edge the old root no longer owns 
+     * are moved to the neighbouring quadrant, so only those few rectangles move.
+     * @param x (float): The x-coordinate that must end up inside the boundary.
+     * @param y (float): The y-coordinate that must end up inside the boundary.
+     * 
+     * @return (boolean): Returns true if the point is now inside the boundary; false if it can never fit (e.g. it is infinite or NaN).
+     */
+    private boolean growToInclude(float x, float y) {
+        if (!accepts(x, y)) return false;
+        while (!inBounds(x, y)) {
+            boolean leftward = x < left, below = y < bottom;
+            // In the right half the old root loses its left edge; in the bottom half it loses its top edge
+            List<Rectangle> moved = new ArrayList<>();
+            if (leftward) collectEdge(moved, true, left, Double.NaN);
+            if (!below) collectEdge(moved, false, bottom + height, leftward ? left : Double.NaN);
+            Node old = root;
+            for (Rectangle r : moved) old.remove(r.point.x, r.point.y, left, bottom, width, height);
+            if (!moved.isEmpty() && old instanceof InternalNode) old = ((InternalNode) old).collapse();
+
+            InternalNode newRoot = new InternalNode(config);
+            if (leftward && below) newRoot.topRight = old;
+            else if (leftward) newRoot.bottomRight = old;
+            else if (below) newRoot.topLeft = old;
+            else newRoot.bottomLeft = old;
+            newRoot.recomputeExtent();
+            root = newRoot;
+            if (leftward) left -= width;
+            if (below) bottom -= height;
+            width *= 2;
+            height *= 2;
+            for (Rectangle r : moved) newRoot.add(r, left, bottom, width, height);
         }
+        return true;
+    }
+
+    // Collects the rectangles anchored exactly on the root's vertical (or horizontal) line at the given coordinate, except any whose
+    // other coordinate equals skip because an earlier call already took them
+    private void collectEdge(List<Rectangle> result, boolean vertical, double at, double skip) {
+        // The window is padded to cover float rounding of the root's area; the exact match is made on each anchor
+        float edge = (float) at, across = (float) (vertical ? bottom : left), span = (float) (vertical ? height : width);
+        float start = Math.nextDown(edge) - Math.ulp(edge), pad = Math.ulp(span) * 2;
+        Rectangle window = vertical
+                ? new Rectangle(start, across - pad, 4 * Math.ulp(edge), span + 2 * pad)
+                : new Rectangle(across - pad, start, span + 2 * pad, 4 * Math.ulp(edge));
+        root.queryRange(window, r -> {
+            float on = vertical ? r.point.x : r.point.y, other = vertical ? r.point.y : r.point.x;
+            if (on == at && other != skip) result.add(r);
+        }, left, bottom, width, height);
+    }
+
+    /**
+     * Description: Checks whether tryInsert() would store a rectangle anchored at (x, y), without changing the tree. For an unbounded tree 
+     * this means the root could grow to cover the point.
+     * @param x (float): The x-coordinate of the rectangle's bottom-left corner.
+     * @param y (float): The y-coordinate of the rectangle's bottom-left corner.
+     * 
+     * @return (boolean): Returns true if an insert at (x, y) would succeed; otherwise, returns false.
+     */
+    boolean accepts(float x, float y) {
+        if (!growable) return inBounds(x, y);
+        if (!Float.isFinite(x) || !Float.isFinite(y)) return false;
+        double l = left, b = bottom, w = width, h = height;
+        while (!Node.contains(x, y, l, b, w, h)) {
+            if (!Float.isFinite((float) (w * 2)) || !Float.isFinite((float) (h * 2))) return false;
+            if (x < l) l -= w;
+            if (y < b) b -= h;
+            w *= 2;
+            h *= 2;
+        }
+        return true;
     }
 
     /**
@@ -53,7 +356,185 @@ public class QuadTree {
      * @return (Rectangle): Returns the rectangle found at the specified coordinates, or throws an exception if not found.
      */
     public Rectangle find(float x, float y) throws Exception {
-        return root.find(x, y);
+        return root.find(x, y, left, bottom, width, height);
+    }
+
+    /**
+     * Description: Searches for a rectangle at the specified coordinates (x, y) without throwing or allocating on a miss.
+     * @param x (float): The x-coordinate of the point to search for.
+     * @param y (float): The y-coordinate of the point to search for.
+     * 
+     * @return (Rectangle): Returns the rectangle found at the specified coordinates, or null if there is none.
+     */
+    @Override
+    public Rectangle tryFind(float x, float y) {
+        return root.lookup(x, y, left, bottom, width, height);
+    }
+
+    /**
+     * Description: Checks whether the point (x, y) lies inside the quadtree's boundary, e.g. to tell an empty spot from an out-of-range one after a miss.
+     * @param x (float): The x-coordinate of the point to check.
+     * @param y (float): The y-coordinate of the point to check.
+     * 
+     * @return (boolean): Returns true if the point is inside the tree's boundary; otherwise, returns false.
+     */
+    public boolean inBounds(float x, float y) {
+        return Node.contains(x, y, left, bottom, width, height);
+    }
+
+    /**
+     * Description: Collects every rectangle whose bottom-left corner lies inside the window. Only the quadrants whose boundary 
+     * intersects the window are visited.
+     * @param window (Rectangle): The area being queried, e.g. the current viewport.
+     * 
+     * @return (List<Rectangle>): The matching rectangles, in no particular order.
+     */
+    @Override
+    public List<Rectangle> queryRange(Rectangle window) {
+        List<Rectangle> result = new ArrayList<>();
+        queryRange(window, result::add);
+        return result;
+    }
+
+    /**
+     * Description: Passes every rectangle whose bottom-left corner lies inside the window to the visitor, without building a list. 
+     * Only the quadrants whose boundary intersects the window are visited.
+     * @param window (Rectangle): The area being queried, e.g. the current viewport.
+     * @param visitor (Consumer<Rectangle>): Receives each matching rectangle.
+     */
+    @Override
+    public void queryRange(Rectangle window, Consumer<Rectangle> visitor) {
+        if (Node.intersects(window, left, bottom, width, height)) {
+            root.queryRange(window, visitor, left, bottom, width, height);
+        }
+    }
+
+    /**
+     * Description: Looks up the rectangle anchored at each point (xs[i], ys[i]) in parallel, using the common ForkJoinPool. 
+     * The tree must not be modified until the call returns.
+     * @param xs (float[]): The x-coordinates of the points.
+     * @param ys (float[]): The y-coordinates of the points.
+     * 
+     * @exception Throws IllegalArgumentException if xs and ys differ in length.
+     * 
+     * @return (Rectangle[]): The rectangle found for each point, or null where there is none, in input order.
+     */
+    public Rectangle[] findAll(float[] xs, float[] ys) {
+        return findAll(xs, ys, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Description: Looks up the rectangle anchored at each point (xs[i], ys[i]) in parallel on the given pool. The points are grouped 
+     * by root quadrant and each group is answered by fork/join tasks descending from that quadrant. The tree must not be modified 
+     * until the call returns.
+     * @param xs (float[]): The x-coordinates of the points.
+     * @param ys (float[]): The y-coordinates of the points.
+     * @param pool (ForkJoinPool): The pool running the queries.
+     * 
+     * @exception Throws IllegalArgumentException if xs and ys differ in length.
+     * 
+     * @return (Rectangle[]): The rectangle found for each point, or null where there is none, in input order.
+     */
+    public Rectangle[] findAll(float[] xs, float[] ys, ForkJoinPool pool) {
+        return BatchQuery.findAll(root, left, bottom, width, height, xs, ys, pool);
+    }
+
+    /**
+     * Description: Runs a range query for each window in parallel, using the common ForkJoinPool. The tree must not be modified 
+     * until the call returns.
+     * @param windows (List<Rectangle>): The windows to query.
+     * 
+     * @return (List<List<Rectangle>>): For each window, in input order, the rectangles anchored inside it.
+     */
+    public List<List<Rectangle>> queryRangeAll(List<Rectangle> windows) {
+        return queryRangeAll(windows, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Description: Runs a range query for each window in parallel on the given pool. Windows that meet a single root quadrant are 
+     * grouped by that quadrant and answered from it; windows spanning quadrants start at the root. The tree must not be modified 
+     * until the call returns.
+     * @param windows (List<Rectangle>): The windows to query.
+     * @param pool (ForkJoinPool): The pool running the queries.
+     * 
+     * @return (List<List<Rectangle>>): For each window, in input order, the rectangles anchored inside it.
+     */
+    public List<List<Rectangle>> queryRangeAll(List<Rectangle> windows, ForkJoinPool pool) {
+        return BatchQuery.queryRangeAll(root, left, bottom, width, height, windows, pool);
+    }
+
+    /**
+     * Description: Returns every rectangle that overlaps the window, judged by the rectangle's full extent rather than just its 
+     * bottom-left corner. Rectangles touching the window along an edge count as overlapping, as in Rectangle.intersects().
+     * @param window (Rectangle): The area being queried.
+     * 
+     * @return (List<Rectangle>): The overlapping rectangles, in no particular order.
+     */
+    public List<Rectangle> queryIntersecting(Rectangle window) {
+        List<Rectangle> result = new ArrayList<>();
+        queryIntersecting(window, result::add);
+        return result;
+    }
+
+    /**
+     * Description: Passes every rectangle that overlaps the window to the visitor, without building a list. Every node tracks the 
+     * largest length and width stored beneath it, so a quadrant is only visited if its boundary, widened by that much to the right 
+     * and to the top, intersects the window; large rectangles widen only the quadrants on their own path.
+     * @param window (Rectangle): The area being queried.
+     * @param visitor (Consumer<Rectangle>): Receives each overlapping rectangle.
+     */
+    public void queryIntersecting(Rectangle window, Consumer<Rectangle> visitor) {
+        if (root.mayIntersect(window, left, bottom, width, height)) {
+            root.queryIntersecting(window, visitor, left, bottom, width, height);
+        }
+    }
+
+    /**
+     * Description: Returns the k rectangles whose bottom-left corner is closest to the point (x, y), nearest first. Quadrants are
+     * visited in order of their distance to the point, and a quadrant is skipped once it cannot hold anything closer than the
+     * k-th best found so far. Each call uses its own search state, so concurrent readers may call it like the other queries.
+     * @param x (float): The x-coordinate of the query point.
+     * @param y (float): The y-coordinate of the query point.
+     * @param k (integer): The number of rectangles wanted.
+     * 
+     * @exception Throws IllegalArgumentException if k is less than 1.
+     * 
+     * @return (List<Rectangle>): Up to k rectangles, ordered by the distance from (x, y) to their bottom-left corner.
+     */
+    public List<Rectangle> nearest(float x, float y, int k) {
+        return new NearestSearch().search(root, left, bottom, width, height, x, y, k);
+    }
+
+    /**
+     * Description: Returns an iterator over every rectangle in the tree, in the order dump() prints them. Nodes are visited lazily 
+     * from a small stack, without copying the tree's contents. The tree must not be modified while the iterator is in use.
+     * 
+     * @return (Iterator<Rectangle>): The iterator.
+     */
+    @Override
+    public Iterator<Rectangle> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Description: Returns a spliterator over every rectangle in the tree that splits along quadrant boundaries, for parallel streams. 
+     * The tree must not be modified while it is in use.
+     * 
+     * @return (Spliterator<Rectangle>): The spliterator.
+     */
+    @Override
+    public Spliterator<Rectangle> spliterator() {
+        return new QuadTreeSpliterator(root);
+    }
+
+    /**
+     * Description: Returns a stream of every rectangle in the tree. Call parallel() on it to spread the work over the quadrants.
+     * The tree must not be modified while the stream runs.
+     * 
+     * @return (Stream<Rectangle>): The stream.
+     */
+    public Stream<Rectangle> stream() {
+        return StreamSupport.stream(spliterator(), false);
     }
 
     /**
@@ -65,12 +546,34 @@ public class QuadTree {
      * 
      */
     public void delete(float x, float y) throws Exception {
-        root.delete(x, y);
+        root.delete(x, y, left, bottom, width, height);
+        collapseRoot();
+    }
+
+    /**
+     * Description: Deletes the rectangle located at the specified coordinates (x, y) without throwing or allocating on a miss. 
+     * Any subtree on the path that drops to half the leaf capacity or below is merged back into a single leaf, up to and 
+     * including the root, so the tree does not keep empty nodes after heavy churn.
+     * @param x (float): The x-coordinate of the rectangle to be deleted.
+     * @param y (float): The y-coordinate of the rectangle to be deleted.
+     * 
+     * @return (boolean): Returns true if a rectangle was removed; otherwise, returns false.
+     */
+    @Override
+    public boolean tryDelete(float x, float y) {
+        if (!root.remove(x, y, left, bottom, width, height)) return false;
+        collapseRoot();
+        return true;
+    }
+
+    // Turns an internal root that has shrunk to the merge threshold back into a leaf; its boundary stays the same
+    private void collapseRoot() {
+        if (root instanceof InternalNode) root = ((InternalNode) root).collapse();
     }
 
     /**
      * Description: Updates the dimensions of a rectangle located at the specified coordinates (x, y). 
-     * If found, the rectangle is deleted and a new rectangle with updated dimensions is inserted.
+     * If found, the rectangle is resized in place; a rectangle's leaf depends only on its anchor, so nothing moves.
      * 
      * @param x (float): The x-coordinate of the rectangle to be updated.
      * @param y (float): The y-coordinate of the rectangle to be updated.
@@ -79,21 +582,87 @@ public class QuadTree {
      * 
      */
     public void update(float x, float y, float newLength, float newWidth) throws Exception {
-        Rectangle found = root.find(x, y);
-        if (found != null) {
-            delete(x, y);
-            insert(new Rectangle(x, y, newLength, newWidth));
-        } else {
+        if (!tryUpdate(x, y, newLength, newWidth)) {
+            root.find(x, y, left, bottom, width, height); // Reports an out-of-range point the same way find() does
             throw new Exception("No rectangle found at " + x + ", " + y);
         }
     }
 
+    /**
+     * Description: Updates the dimensions of a rectangle located at the specified coordinates (x, y) without throwing. The tree is walked 
+     * once down to the rectangle's leaf, which changes the rectangle in place, so nothing is allocated, hit or miss. Rectangles 
+     * returned earlier by find() for a list-backed leaf are the stored objects and see the new size.
+     * 
+     * @param x (float): The x-coordinate of the rectangle to be updated.
+     * @param y (float): The y-coordinate of the rectangle to be updated.
+     * @param newLength (float): The new length for the rectangle.
+     * @param newWidth (float): The new width for the rectangle.
+     * 
+     * @return (boolean): Returns true if a rectangle was updated; false if there is no rectangle at (x, y).
+     */
+    @Override
+    public boolean tryUpdate(float x, float y, float newLength, float newWidth) {
+        return root.resize(x, y, newLength, newWidth, left, bottom, width, height);
+    }
+
+    /**
+     * Description: Returns the number of rectangles stored in the tree. This counts them node by node.
+     * 
+     * @return (integer): The number of rectangles.
+     */
+    @Override
+    public int size() {
+        return root.getTotalRectangles();
+    }
+
+    /**
+     * Description: Saves the whole tree (its configuration, node structure and every rectangle) to a compact binary snapshot. 
+     * The file is written under a temporary name and then moved into place, so an earlier snapshot at the same path stays intact 
+     * until the new one is complete.
+     * @param path (Path): The file to write.
+     * 
+     * @exception Throws IOException if the file cannot be written.
+     */
+    public void save(Path path) throws IOException {
+        Snapshot.write(path, root, left, bottom, width, height, config, growable);
+    }
+
+    /**
+     * Description: Loads a tree saved by save(). The file is memory-mapped and every node is rebuilt directly with its final contents, 
+     * so loading does not re-insert rectangles. The loaded tree has the same structure, contents and configuration as the saved one.
+     * @param path (Path): The file to read.
+     * 
+     * @exception Throws IOException if the file cannot be read, is not a quadtree snapshot, or is truncated or corrupt.
+     * 
+     * @return (QuadTree): The loaded tree.
+     */
+    public static QuadTree load(Path path) throws IOException {
+        return Snapshot.read(path);
+    }
+
+    /**
+     * Description: Frees the native memory of a tree created by offHeap() (or with OFF_HEAP leaf storage). The tree must not be used afterwards; 
+     * reading it throws IllegalStateException. Closing twice, or closing a tree kept on the heap, does nothing.
+     */
+    @Override
+    public void close() {
+        if (config.store != null) config.store.close();
+    }
+
     /**
      * Description: Prints the structure of the quadtree, showing all rectangles and their relationships.
      * 
      */
     public void dump() {
-        root.print(0);
+        root.print(0, left, bottom, width, height);
+    }
+
+    /**
+     * Description: Appends the structure of the quadtree to the output buffer, in the same format as dump().
+     * @param out (OutputBuffer): The buffer receiving the output.
+     */
+    void dump(OutputBuffer out) {
+        root.print(0, out, left, bottom, width, height);
     }
     
     /**
@@ -106,4 +675,14 @@ public class QuadTree {
         return root;
     }
 
+    /**
+     * Description:  Returns the area covered by the root node. Nodes do not store their area, so this is the starting point 
+     * for working out the area of any node below the root.
+     * 
+     * @return Rectangle: A new rectangle holding the root's area.
+     */
+    public Rectangle getBoundary() {
+        return new Rectangle((float) left, (float) bottom, (float) width, (float) height);
+    }
+
 }
@@ -0,0 +1,105 @@
+package org.sample.mavensample;
+
+/*
+ * Description: The QuadTreeConfig class holds the tuning parameters shared by every node of a quadtree,
+ * such as how many rectangles a leaf may hold before it is split and how deep the tree may grow. A subtree is merged back
+ * into a single leaf once it holds no more than half the leaf capacity, so a node hovering around the capacity does not
+ * keep splitting and merging. A configuration with OFF_HEAP storage owns the OffHeapStore its leaves live in, so it should
+ * serve a single tree and be closed with it.
+ */
+class QuadTreeConfig {
+    static final int DEFAULT_LEAF_CAPACITY = 5;
+    static final int DEFAULT_MAX_DEPTH = 16;
+    static final int OFF_HEAP_LEAF_CAPACITY = 256;  // 4 KB of records, so a leaf's node outweighs them by little
+    static final QuadTreeConfig DEFAULT = new QuadTreeConfig(DEFAULT_LEAF_CAPACITY, DEFAULT_MAX_DEPTH);
+
+    final int leafCapacity;
+    final int maxDepth;
+    final boolean leafIndex;
+    final LeafStorage storage;
+    final OffHeapStore store;  // Memory for OFF_HEAP leaves; null for other storage
+
+    /**
+     * Description: Initializes a new QuadTreeConfig with the given leaf capacity and maximum depth.
+     *
+     * @param leafCapacity (integer): The number of rectangles a leaf may hold before it is split into four children.
+     * @param maxDepth (integer): The deepest level (the root is level 0) at which a leaf may still be split.
+     *
+     * @exception Throws IllegalArgumentException if the capacity is below 1 or the depth is negative.
+     */
+    QuadTreeConfig(int leafCapacity, int maxDepth) {
+        this(leafCapacity, maxDepth, false);
+    }
+
+    /**
+     * Description: Initializes a new QuadTreeConfig like the constructor above, optionally giving every leaf a hash index 
+     * on the anchor point of its rectangles.
+     *
+     * @param leafCapacity (integer): The number of rectangles a leaf may hold before it is split into four children.
+     * @param maxDepth (integer): The deepest level (the root is level 0) at which a leaf may still be split.
+     * @param leafIndex (boolean): Whether leaves keep an anchor index, making exact-point find, delete and update constant time within a leaf.
+     *
+     * @exception Throws IllegalArgumentException if the capacity is below 1 or the depth is negative.
+     */
+    QuadTreeConfig(int leafCapacity, int maxDepth, boolean leafIndex) {
+        this(leafCapacity, maxDepth, leafIndex, LeafStorage.LIST);
+    }
+
+    /**
+     * Description: Initializes a new QuadTreeConfig like the constructor above, also choosing how leaves store their rectangles.
+     *
+     * @param leafCapacity (integer): The number of rectangles a leaf may hold before it is split into four children.
+     * @param maxDepth (integer): The deepest level (the root is level 0) at which a leaf may still be split.
+     * @param leafIndex (boolean): Whether leaves keep an anchor index, making exact-point find, delete and update constant time within a leaf.
+     * @param storage (LeafStorage): The storage layout used by every leaf.
+     *
+     * @exception Throws IllegalArgumentException if the capacity is below 1 or the depth is negative.
+     */
+    QuadTreeConfig(int leafCapacity, int maxDepth, boolean leafIndex, LeafStorage storage) {
+        if (leafCapacity < 1) throw new IllegalArgumentException("Leaf capacity must be at least 1: " + leafCapacity);
+        if (maxDepth < 0) throw new IllegalArgumentException("Max depth must not be negative: " + maxDepth);
+        this.leafCapacity = leafCapacity;
+        this.maxDepth = maxDepth;
+        this.leafIndex = leafIndex;
+        this.storage = storage;
+        this.store = storage == LeafStorage.OFF_HEAP ? new OffHeapStore() : null;
+    }
+
+    /**
+     * Description: Creates an empty leaf set up according to this configuration.
+     *
+     * @return The new leaf.
+     */
+    AbstractLeafNode newLeaf() {
+        switch (storage) {
+            case PACKED:
+                return new PackedLeafNode(leafIndex);
+            case OFF_HEAP:
+                return new OffHeapLeafNode(leafIndex, store);
+            default:
+                return new LeafNode(leafIndex);
+        }
+    }
+
+    /**
+     * Description: Decides whether a leaf holding the given number of rectangles at the given depth should be split.
+     *
+     * @param count (integer): The number of rectangles currently stored in the leaf.
+     * @param depth (integer): The depth of the leaf in the quadtree.
+     *
+     * @return Returns true if the leaf is over capacity and may still be subdivided.
+     */
+    boolean shouldSplit(int count, int depth) {
+        return count > leafCapacity && depth < maxDepth;
+    }
+
+    /**
+     * Description: Returns the largest number of rectangles a subtree may hold and still be merged into a single leaf. 
+     * It is well below the leaf capacity, so a merged leaf needs several inserts before it splits again.
+     *
+     * @return The merge threshold.
+     */
+    int mergeThreshold() {
+        return leafCapacity / 2;
+    }
+}
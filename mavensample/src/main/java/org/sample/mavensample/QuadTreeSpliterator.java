@@ -0,0 +1,179 @@
+package org.sample.mavensample;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/*
+ * Description: The QuadTreeSpliterator class walks the rectangles of a (sub)tree lazily, depth-first in the order dump() prints them
+ * (top-left, top-right, bottom-left, bottom-right). Nodes still to visit wait on an array stack, with the next one on top, together
+ * with their depth; only the leaf being read is held open. trySplit() hands the first part of the remaining nodes to a new
+ * spliterator, cutting the stack where about half the remaining area lies on each side, so splits follow quadrant boundaries.
+ * Nothing is counted up front: the size estimate is only computed when a stream asks for it, so a loop that stops early stays cheap.
+ * The tree must not be modified while it is being traversed.
+ */
+class QuadTreeSpliterator implements Spliterator<Rectangle> {
+    private Node[] nodes;          // Stack of subtrees still to visit; the top (highest index) comes next
+    private int[] depths;          // Depth of each stacked subtree, used to weigh it when splitting
+    private int size;
+    private AbstractLeafNode leaf;  // Leaf being read, or null
+    private int leafDepth;
+    private int position;           // Next entry of leaf
+    private long estimate = -1;     // Estimated number of rectangles left, kept up to date as they are consumed; -1 until first asked for
+
+    /**
+     * Description: Initializes a spliterator over every rectangle under the given node.
+     *
+     * @param root (Node): The root of the (sub)tree to walk.
+     */
+    QuadTreeSpliterator(Node root) {
+        this(new Node[8], new int[8], 0, -1);
+        push(root, 0);
+    }
+
+    private QuadTreeSpliterator(Node[] nodes, int[] depths, int size, long estimate) {
+        this.nodes = nodes;
+        this.depths = depths;
+        this.size = size;
+        this.estimate = estimate;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Rectangle> action) {
+        while (leaf == null || position == leaf.size()) {
+            if (!openNextLeaf()) return false;
+        }
+        if (estimate > 0) estimate--;
+        action.accept(leaf.get(position++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Rectangle> action) {
+        do {
+            if (leaf != null) {
+                for (int n = leaf.size(); position < n; position++) {
+                    action.accept(leaf.get(position));
+                }
+            }
+        } while (openNextLeaf());
+        estimate = 0;
+    }
+
+    /**
+     * Description: Pops subtrees off the stack, pushing the children of internal nodes in reverse so the top-left comes out first,
+     * until a leaf is reached.
+     *
+     * @return Returns true if a leaf was opened; false if nothing is left.
+     */
+    private boolean openNextLeaf() {
+        leaf = null;
+        while (size > 0) {
+            Node node = nodes[--size];
+            int depth = depths[size];
+            nodes[size] = null;
+            if (node instanceof InternalNode) {
+                pushChildren((InternalNode) node, depth + 1);
+            } else {
+                leaf = (AbstractLeafNode) node;
+                leafDepth = depth;
+                position = 0;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void pushChildren(InternalNode node, int depth) {
+        push(node.bottomRight, depth);
+        push(node.bottomLeft, depth);
+        push(node.topRight, depth);
+        push(node.topLeft, depth);
+    }
+
+    private void push(Node node, int depth) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            depths = Arrays.copyOf(depths, size * 2);
+        }
+        nodes[size] = node;
+        depths[size] = depth;
+        size++;
+    }
+
+    /**
+     * Description: Splits off the rectangles that come first: the open leaf plus the subtrees at the top of the stack. Each subtree
+     * is weighed by the area it covers (a quarter per level), and the stack is cut where the weights on both sides are closest to
+     * equal. A lone internal node is opened up first, so the split always falls between quadrants.
+     *
+     * @return A spliterator over the first part, or null if what is left cannot be split.
+     */
+    @Override
+    public Spliterator<Rectangle> trySplit() {
+        boolean leafLeft = leaf != null && position < leaf.size();
+        while (size == 1 && !leafLeft && nodes[0] instanceof InternalNode) {
+            InternalNode node = (InternalNode) nodes[0];
+            size = 0;
+            pushChildren(node, depths[0] + 1);
+        }
+        if (size == 0 || (size == 1 && !leafLeft)) return null;
+        long remaining = estimateSize();  // Counted before the stack is cut
+
+        double total = leafLeft ? weight(leafDepth) : 0;
+        for (int i = 0; i < size; i++) total += weight(depths[i]);
+        // Keep the bottom of the stack (visited last), up to about half the weight, and always at least one subtree
+        int keep = 0;
+        double kept = 0;
+        while (keep < size && (keep == 0 || kept + weight(depths[keep]) / 2 <= total / 2)) {
+            kept += weight(depths[keep++]);
+        }
+        if (keep == size && !leafLeft) {
+            keep--;
+            kept -= weight(depths[keep]);
+        }
+
+        int given = size - keep;
+        Node[] prefixNodes = new Node[Math.max(8, given * 2)];
+        int[] prefixDepths = new int[prefixNodes.length];
+        System.arraycopy(nodes, keep, prefixNodes, 0, given);
+        System.arraycopy(depths, keep, prefixDepths, 0, given);
+        Arrays.fill(nodes, keep, size, null);
+        size = keep;
+
+        long prefixEstimate = (long) (remaining * (1 - kept / total));
+        QuadTreeSpliterator prefix = new QuadTreeSpliterator(prefixNodes, prefixDepths, given, prefixEstimate);
+        if (leafLeft) {
+            prefix.leaf = leaf;
+            prefix.leafDepth = leafDepth;
+            prefix.position = position;
+            leaf = null;
+        }
+        estimate -= prefixEstimate;
+        return prefix;
+    }
+
+    private static double weight(int depth) {
+        return Math.scalb(1.0, -2 * depth);
+    }
+
+    /**
+     * Description: Returns the number of rectangles left. The first call counts what is still on the stack; after that the count
+     * drops by one for every rectangle consumed and is shared out on a split, so once split it is an estimate.
+     *
+     * @return The estimated number of rectangles left.
+     */
+    @Override
+    public long estimateSize() {
+        if (estimate < 0) {
+            long count = leaf == null ? 0 : leaf.size() - position;
+            for (int i = 0; i < size; i++) count += nodes[i].getTotalRectangles();
+            estimate = count;
+        }
+        return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+}
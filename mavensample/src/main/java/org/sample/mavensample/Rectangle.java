@@ -31,6 +31,18 @@ class Rectangle {
         return x >= point.x && x <= point.x + length && y >= point.y && y <= point.y + width;
     }
 
+    /**
+     * Description:  Checks if this rectangle and the other rectangle overlap. Rectangles that only touch along an edge or a corner 
+     * are considered to overlap, in line with contains() treating the boundary as inside.
+     * @param other (Rectangle): The rectangle to check against.
+     * 
+     * @return (boolean): Returns true if the two rectangles share at least one point; otherwise, returns false.
+     */
+    public boolean intersects(Rectangle other) {
+        return other.point.x <= point.x + length && other.point.x + other.length >= point.x
+                && other.point.y <= point.y + width && other.point.y + other.width >= point.y;
+    }
+
     /**
      * Description:  Returns a string representation of the rectangle, including its location and dimensions.
      * 
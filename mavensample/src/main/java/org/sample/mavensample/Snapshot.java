@@ -0,0 +1,226 @@
+package org.sample.mavensample;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Description: The Snapshot class saves a whole quadtree to a compact binary file and loads it back.
+ * The file holds a small header with the tree's configuration and the root's area, followed by the nodes in pre-order
+ * (top-left, top-right, bottom-left, bottom-right). Each node starts with a tag byte; a leaf then stores its entry count and the
+ * four floats of each rectangle. Every other node covers the quadrant its parent computes, so no boundary is stored for it.
+ * Loading memory-maps the file and rebuilds every node directly from the mapped bytes.
+ */
+class Snapshot {
+    static final int MAGIC = 0x51545245;  // "QTRE"
+    static final int VERSION = 1;
+
+    private static final int TAG_INTERNAL = 1;      // The node is an InternalNode; otherwise it is a leaf
+    private static final int FLAG_LEAF_INDEX = 1;
+    private static final int FLAG_GROWABLE = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int AREA_SIZE = 32;         // The root's left, bottom, width and height as doubles
+    private static final int MAX_LEVELS = 4096;      // Below about 1100 levels a node's area has halved to nothing, so no real tree is deeper
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+    private static final int MAP_WINDOW_SIZE = 1 << 30;  // A single mapping is limited to 2 GB
+
+    private Snapshot() {
+    }
+
+    /**
+     * Description: Writes the tree to the file. The snapshot is first written next to the target and then moved over it,
+     * so an existing snapshot is never left half-overwritten.
+     *
+     * @param path (Path): The file to write.
+     * @param root (Node): The root of the tree.
+     * @param left (double): The x-coordinate of the left edge of the root's area.
+     * @param bottom (double): The y-coordinate of the bottom edge of the root's area.
+     * @param width (double): The width of the root's area.
+     * @param height (double): The height of the root's area.
+     * @param config (QuadTreeConfig): The tree's configuration.
+     * @param growable (boolean): Whether the tree is unbounded.
+     *
+     * @exception Throws IOException if the file cannot be written.
+     */
+    static void write(Path path, Node root, double left, double bottom, double width, double height, QuadTreeConfig config,
+                      boolean growable) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new Writer(channel);
+            ByteBuffer header = writer.reserve(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(config.leafCapacity).putInt(config.maxDepth);
+            header.putInt((config.leafIndex ? FLAG_LEAF_INDEX : 0) | (growable ? FLAG_GROWABLE : 0));
+            header.putInt(config.storage.ordinal());
+            header.putLong(root.getTotalRectangles());
+            writer.reserve(AREA_SIZE).putDouble(left).putDouble(bottom).putDouble(width).putDouble(height);
+            writeNode(writer, root);
+            writer.finish();
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeNode(Writer writer, Node node) throws IOException {
+        boolean internal = node instanceof InternalNode;
+        writer.reserve(1).put((byte) (internal ? TAG_INTERNAL : 0));
+
+        if (internal) {
+            InternalNode parent = (InternalNode) node;
+            writeNode(writer, parent.topLeft);
+            writeNode(writer, parent.topRight);
+            writeNode(writer, parent.bottomLeft);
+            writeNode(writer, parent.bottomRight);
+        } else {
+            AbstractLeafNode leaf = (AbstractLeafNode) node;
+            int n = leaf.size();
+            writer.reserve(4).putInt(n);
+            for (int i = 0; i < n; i++) {
+                writer.reserve(16).putFloat(leaf.x(i)).putFloat(leaf.y(i)).putFloat(leaf.length(i)).putFloat(leaf.width(i));
+            }
+        }
+    }
+
+    /**
+     * Description: Loads a tree written by write(). The file is memory-mapped (a window at a time for files over 1 GB) and every
+     * node is rebuilt with its final contents, using the configuration stored in the file.
+     *
+     * @param path (Path): The file to read.
+     *
+     * @exception Throws IOException if the file cannot be read, is not a snapshot, or is truncated or corrupt.
+     *
+     * @return The loaded tree.
+     */
+    static QuadTree read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Reader reader = new Reader(channel, path);
+            if (channel.size() < 4 || reader.require(4).getInt() != MAGIC) throw new IOException("Not a quadtree snapshot: " + path);
+            ByteBuffer header = reader.require(HEADER_SIZE - 4);
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("Unsupported snapshot version " + version + ": " + path);
+            int leafCapacity = header.getInt();
+            int maxDepth = header.getInt();
+            int flags = header.getInt();
+            int storage = header.getInt();
+            long rectangles = header.getLong();
+            if (storage < 0 || storage >= LeafStorage.values().length) throw new IOException("Corrupt snapshot: " + path);
+
+            QuadTreeConfig config;
+            try {
+                config = new QuadTreeConfig(leafCapacity, maxDepth, (flags & FLAG_LEAF_INDEX) != 0, LeafStorage.values()[storage]);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt snapshot: " + path, e);
+            }
+            ByteBuffer area = reader.require(AREA_SIZE);
+            double left = area.getDouble(), bottom = area.getDouble(), width = area.getDouble(), height = area.getDouble();
+            if (!(width > 0) || !(height > 0)) throw new IOException("Corrupt snapshot: " + path);
+
+            // Splitting stops at maxDepth, but every time an unbounded tree grows, its nodes move one level down. Growing starts from
+            // a float-sized area and only ever doubles it, which bounds how often that can have happened.
+            boolean growable = (flags & FLAG_GROWABLE) != 0;
+            long grown = growable ? Math.max(0, Math.getExponent(Math.max(width, height)) - Float.MIN_EXPONENT + 24) : 0;
+            int levels = (int) Math.min(MAX_LEVELS, config.maxDepth + grown);
+            Node root = readNode(reader, config, levels, left, bottom, width, height);
+            if (root.getTotalRectangles() != rectangles || reader.position() != channel.size()) {
+                throw new IOException("Corrupt snapshot: " + path);
+            }
+            return new QuadTree(root, left, bottom, width, height, config, growable);
+        }
+    }
+
+    // levels is how many more levels may follow below this node; a deeper tree can only come from a corrupt file
+    private static Node readNode(Reader reader, QuadTreeConfig config, int levels, double left, double bottom, double width, double height)
+            throws IOException {
+        int tag = reader.require(1).get();
+        if ((tag & ~TAG_INTERNAL) != 0) throw new IOException("Corrupt snapshot: " + reader.path);
+        if (tag == TAG_INTERNAL) {
+            if (levels == 0) throw new IOException("Corrupt snapshot: " + reader.path);
+            Node[] children = new Node[4];
+            for (int q = InternalNode.TOP_LEFT; q <= InternalNode.BOTTOM_RIGHT; q++) {
+                children[q] = readNode(reader, config, levels - 1, InternalNode.quadrantLeft(q, left, width), InternalNode.quadrantBottom(q, bottom, height),
+                        width / 2, height / 2);
+            }
+            return new InternalNode(config, children[0], children[1], children[2], children[3]);
+        }
+
+        AbstractLeafNode leaf = config.newLeaf();
+        int n = reader.require(4).getInt();
+        if (n < 0) throw new IOException("Corrupt snapshot: " + reader.path);
+        for (int i = 0; i < n; i++) {
+            ByteBuffer in = reader.require(16);
+            float x = in.getFloat(), y = in.getFloat();
+            if (!Node.contains(x, y, left, bottom, width, height)) throw new IOException("Corrupt snapshot: " + reader.path);
+            leaf.add(x, y, in.getFloat(), in.getFloat());
+        }
+        return leaf;
+    }
+
+    /*
+     * Description: Writes through one large direct buffer, emptying it into the channel whenever a record would not fit.
+     */
+    private static final class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        ByteBuffer reserve(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) drain();
+            return buffer;
+        }
+
+        void finish() throws IOException {
+            drain();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+    }
+
+    /*
+     * Description: Reads from a memory-mapped window of the file, mapping the next window when a record runs past the current one.
+     */
+    private static final class Reader {
+        private final FileChannel channel;
+        private final Path path;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        Reader(FileChannel channel, Path path) throws IOException {
+            this.channel = channel;
+            this.path = path;
+            this.size = channel.size();
+            map(0);
+        }
+
+        ByteBuffer require(int bytes) throws IOException {
+            if (window.remaining() < bytes) {
+                map(position());
+                if (window.remaining() < bytes) throw new IOException("Snapshot is truncated: " + path);
+            }
+            return window;
+        }
+
+        long position() {
+            return windowStart + window.position();
+        }
+
+        private void map(long start) throws IOException {
+            windowStart = start;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(MAP_WINDOW_SIZE, size - start));
+            window.order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.sample.mavensample;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/*
+ * Description: The SpatialIndex interface is what every quadtree engine offers: rectangles are stored under their bottom-left
+ * corner (anchor), looked up and deleted by that anchor, and found by range queries over anchors. QuadTree implements it
+ * with a tree of node objects, LinearQuadTree with a sorted array of Morton codes.
+ */
+public interface SpatialIndex {
+    /**
+     * Description: Inserts a rectangle.
+     * @param r (Rectangle): The rectangle to be inserted.
+     *
+     * @return (boolean): Returns true if the rectangle was stored; false if it lies outside the index's boundary.
+     */
+    boolean tryInsert(Rectangle r);
+
+    /**
+     * Description: Searches for a rectangle anchored at the specified coordinates (x, y).
+     * @param x (float): The x-coordinate of the point to search for.
+     * @param y (float): The y-coordinate of the point to search for.
+     *
+     * @return (Rectangle): Returns the rectangle found at the specified coordinates, or null if there is none.
+     */
+    Rectangle tryFind(float x, float y);
+
+    /**
+     * Description: Deletes every rectangle anchored at the specified coordinates (x, y).
+     * @param x (float): The x-coordinate of the rectangles to be deleted.
+     * @param y (float): The y-coordinate of the rectangles to be deleted.
+     *
+     * @return (boolean): Returns true if anything was deleted; otherwise, returns false.
+     */
+    boolean tryDelete(float x, float y);
+
+    /**
+     * Description: Updates the dimensions of the rectangle anchored at the specified coordinates (x, y). Other rectangles
+     * at the same anchor are dropped, leaving a single one.
+     * @param x (float): The x-coordinate of the rectangle to be updated.
+     * @param y (float): The y-coordinate of the rectangle to be updated.
+     * @param newLength (float): The new length for the rectangle.
+     * @param newWidth (float): The new width for the rectangle.
+     *
+     * @return (boolean): Returns true if a rectangle was updated; false if there is none at (x, y).
+     */
+    boolean tryUpdate(float x, float y, float newLength, float newWidth);
+
+    /**
+     * Description: Collects every rectangle whose bottom-left corner lies inside the window.
+     * @param window (Rectangle): The area being queried.
+     *
+     * @return (List<Rectangle>): The matching rectangles, in no particular order.
+     */
+    List<Rectangle> queryRange(Rectangle window);
+
+    /**
+     * Description: Passes every rectangle whose bottom-left corner lies inside the window to the visitor, without building a list.
+     * @param window (Rectangle): The area being queried.
+     * @param visitor (Consumer<Rectangle>): Receives each matching rectangle.
+     */
+    void queryRange(Rectangle window, Consumer<Rectangle> visitor);
+
+    /**
+     * Description: Returns the number of rectangles stored.
+     *
+     * @return (integer): The number of rectangles.
+     */
+    int size();
+}
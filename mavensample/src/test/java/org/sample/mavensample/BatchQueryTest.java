@@ -0,0 +1,86 @@
+package org.sample.mavensample;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class BatchQueryTest extends TestCase {
+    private QuadTree quadTree;
+    private float[] xs, ys;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        quadTree = new QuadTree();
+        Random random = new Random(5);
+        xs = new float[5000];
+        ys = new float[5000];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = random.nextFloat() * 100 - 50;
+            ys[i] = random.nextFloat() * 100 - 50;
+            if (i % 2 == 0) quadTree.insert(new Rectangle(xs[i], ys[i], 1, 1)); // Every other point is a miss
+        }
+        xs[1] = 0; // On the root's split lines
+        ys[1] = 0;
+        xs[3] = 500; // Outside the tree
+    }
+
+    public void testFindAllMatchesFind() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Rectangle[] found = quadTree.findAll(xs, ys, pool);
+            assertEquals("One answer per point", xs.length, found.length);
+            for (int i = 0; i < xs.length; i++) {
+                assertSame("Answers should be in input order", quadTree.tryFind(xs[i], ys[i]), found[i]);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public void testQueryRangeAllMatchesQueryRange() {
+        Random random = new Random(9);
+        List<Rectangle> windows = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            float size = i % 3 == 0 ? 60 : random.nextFloat() * 5; // Some windows span several quadrants
+            windows.add(new Rectangle(random.nextFloat() * 140 - 70, random.nextFloat() * 140 - 70, size, size));
+        }
+        windows.add(new Rectangle(0, -10, 5, 5)); // Touches the vertical split line from the right
+
+        List<List<Rectangle>> results = quadTree.queryRangeAll(windows);
+        assertEquals("One answer per window", windows.size(), results.size());
+        for (int i = 0; i < windows.size(); i++) {
+            assertEquals("Answers should be in input order", sorted(quadTree.queryRange(windows.get(i))), sorted(results.get(i)));
+        }
+    }
+
+    public void testLeafRootAndEmptyBatch() throws Exception {
+        QuadTree small = new QuadTree();
+        small.insert(new Rectangle(1, 2, 1, 1));
+        Rectangle[] found = small.findAll(new float[]{1, 3}, new float[]{2, 3});
+        assertEquals("Found in a leaf root", 1f, found[0].point.x);
+        assertNull("Miss in a leaf root", found[1]);
+        assertEquals("Empty batch", 0, small.findAll(new float[0], new float[0]).length);
+        assertTrue("Empty batch", small.queryRangeAll(Collections.<Rectangle>emptyList()).isEmpty());
+    }
+
+    public void testMismatchedCoordinates() {
+        try {
+            quadTree.findAll(new float[2], new float[3]);
+            fail("Arrays of different lengths should be rejected");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    private static List<String> sorted(List<Rectangle> rectangles) {
+        List<String> result = new ArrayList<>();
+        for (Rectangle r : rectangles) result.add(r.toString());
+        Collections.sort(result);
+        return result;
+    }
+}
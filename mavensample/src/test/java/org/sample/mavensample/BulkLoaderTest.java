@@ -0,0 +1,91 @@
+package org.sample.mavensample;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class BulkLoaderTest extends TestCase {
+
+    public void testQuadrantAreasMatchRouting() {
+        for (int q = InternalNode.TOP_LEFT; q <= InternalNode.BOTTOM_RIGHT; q++) {
+            double left = InternalNode.quadrantLeft(q, -50, 100), bottom = InternalNode.quadrantBottom(q, -50, 100);
+            assertEquals("Quadrant " + q + " should start on the grid", q % 2 == 0 ? -50.0 : 0.0, left);
+            assertEquals("Quadrant " + q + " should start on the grid", q < 2 ? 0.0 : -50.0, bottom);
+            assertEquals("The quadrant's inner point should route to it", q,
+                    InternalNode.quadrantOf((float) left + 10, (float) bottom + 10, -50, -50, 100, 100));
+        }
+        assertEquals("A point outside routes nowhere", -1, InternalNode.quadrantOf(60, 0, -50, -50, 100, 100));
+    }
+
+    public void testPartitionIsStableAndOrdered() {
+        Rectangle br = new Rectangle(20, -20, 1, 1);
+        Rectangle tl1 = new Rectangle(-20, 20, 1, 1);
+        Rectangle bl = new Rectangle(-20, -20, 1, 1);
+        Rectangle tl2 = new Rectangle(-30, 30, 1, 1);
+        Rectangle outside = new Rectangle(80, 80, 1, 1);
+        Rectangle center = new Rectangle(0, 0, 1, 1); // on every edge, so the first quadrant wins
+        Rectangle[] rectangles = {br, tl1, outside, bl, tl2, center};
+
+        int[] ends = BulkLoader.partition(-50, -50, 100, 100, rectangles, new Rectangle[rectangles.length], 0, rectangles.length);
+
+        assertEquals("Top-left group end", 3, ends[0]);
+        assertEquals("Top-right group end", 3, ends[1]);
+        assertEquals("Bottom-left group end", 4, ends[2]);
+        assertEquals("Bottom-right group end", 5, ends[3]);
+        assertSame(tl1, rectangles[0]);
+        assertSame(tl2, rectangles[1]);
+        assertSame(center, rectangles[2]);
+        assertSame(bl, rectangles[3]);
+        assertSame(br, rectangles[4]);
+        assertSame(outside, rectangles[5]);
+    }
+
+    public void testBuildSplitsOnlyOverCapacity() {
+        BulkLoader loader = new BulkLoader(new QuadTreeConfig(2, 16));
+        Rectangle[] few = {new Rectangle(1, 1, 1, 1), new Rectangle(2, 2, 1, 1)};
+        assertTrue("A range within capacity should become a leaf",
+                loader.build(-50, -50, 100, 100, 0, few, new Rectangle[2], 0, 2) instanceof LeafNode);
+
+        Rectangle[] many = {new Rectangle(1, 1, 1, 1), new Rectangle(2, 2, 1, 1), new Rectangle(-3, -3, 1, 1)};
+        Node node = loader.build(-50, -50, 100, 100, 0, many, new Rectangle[3], 0, 3);
+        assertTrue("A range over capacity should be split", node instanceof InternalNode);
+        assertEquals("Every rectangle should be kept", 3, node.getTotalRectangles());
+    }
+
+    public void testParallelBuildMatchesSequentialInsert() {
+        QuadTreeConfig config = new QuadTreeConfig(3, 10, false, LeafStorage.PACKED);
+        Random random = new Random(21);
+        Rectangle[] rectangles = new Rectangle[3000];
+        for (int i = 0; i < rectangles.length; i++) {
+            // Clustered, so some quadrants go deep and others stay small
+            float spread = i % 2 == 0 ? 100 : 3;
+            rectangles[i] = new Rectangle(random.nextFloat() * spread - spread / 2, random.nextFloat() * spread - spread / 2, 1, 1);
+        }
+        QuadTree sequential = new QuadTree(config);
+        for (Rectangle r : rectangles) sequential.tryInsert(r);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Rectangle boundary = sequential.getBoundary();
+            Rectangle[] input = rectangles.clone();
+            Node root = new BulkLoader(config, 16).buildIn(pool, boundary.point.x, boundary.point.y, boundary.length, boundary.width,
+                    input, input.length);
+            assertEquals("Parallel build should match sequential insertion", dump(sequential),
+                    dump(new QuadTree(root, boundary.point.x, boundary.point.y, boundary.length, boundary.width, config, false)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Shared with OffHeapLeafNodeTest
+    static String dump(QuadTree tree) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputBuffer out = new OutputBuffer(new PrintStream(bytes));
+        tree.dump(out);
+        out.flush();
+        return bytes.toString();
+    }
+}
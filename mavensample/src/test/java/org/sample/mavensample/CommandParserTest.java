@@ -0,0 +1,110 @@
+package org.sample.mavensample;
+
+import junit.framework.TestCase;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class CommandParserTest extends TestCase {
+    private CommandParser parser;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        parser = new CommandParser();
+    }
+
+    private void parse(String line) throws Exception {
+        byte[] bytes = ("##" + line + "##").getBytes(StandardCharsets.UTF_8);
+        parser.parse(ByteBuffer.wrap(bytes), 2, bytes.length - 2); // Only the middle of the buffer is the command
+    }
+
+    private static float parseFloat(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return CommandParser.parseFloat(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    public void testParsesEveryVerb() throws Exception {
+        parse("insert 10 -20.5 5 5;");
+        assertEquals(CommandParser.INSERT, parser.verb);
+        assertEquals(10f, parser.args[0]);
+        assertEquals(-20.5f, parser.args[1]);
+        assertEquals(5f, parser.args[2]);
+        assertEquals(5f, parser.args[3]);
+
+        parse("  FIND 1 2  ");
+        assertEquals(CommandParser.FIND, parser.verb);
+        assertEquals(2f, parser.args[1]);
+
+        parse("delete\t3 4 ;");
+        assertEquals(CommandParser.DELETE, parser.verb);
+        assertEquals(3f, parser.args[0]);
+
+        parse("Update 1 2 3 4");
+        assertEquals(CommandParser.UPDATE, parser.verb);
+        assertEquals(4f, parser.args[3]);
+
+        parse("dump;");
+        assertEquals(CommandParser.DUMP, parser.verb);
+    }
+
+    public void testErrorMessagesMatchStringParser() {
+        String[] lines = {"insert 10 10 5;", "find 1 2 3;", "insert 1 2 3 4;;", "find a b c", "delete x y;", "", "invalidCommand;", "  bogus 1 2  "};
+        for (String line : lines) {
+            String expected = stringParserMessage(line.trim());
+            try {
+                parse(line);
+                fail("Should reject: " + line);
+            } catch (Exception e) {
+                assertEquals("Message for: " + line, expected, e.getMessage());
+            }
+        }
+    }
+
+    // The messages Main printed when every command went through parseCommand and Float.parseFloat
+    private static String stringParserMessage(String cmd) {
+        try {
+            String[] parts;
+            if (cmd.toLowerCase().startsWith("insert") || cmd.toLowerCase().startsWith("update")) parts = Main.parseCommand(cmd, 5);
+            else if (cmd.toLowerCase().startsWith("find") || cmd.toLowerCase().startsWith("delete")) parts = Main.parseCommand(cmd, 3);
+            else throw new Exception("Invalid command: " + cmd);
+            for (int i = 1; i < parts.length; i++) Float.parseFloat(parts[i]);
+            return null;
+        } catch (Exception e) {
+            return e.getMessage();
+        }
+    }
+
+    public void testParseFloatMatchesFloatParseFloat() {
+        String[] numbers = {"0", "-0", "+7", "12.5", ".5", "5.", "0.1", "-0.3", "3.4028235e38", "1e-45", "1.17549435E-38", "16777217",
+                "123456789", "100000000", "0.000001", "99999.99", "1e10", "1e11", "2.5e-3", "0x1p3", "NaN", "-Infinity", "1f", "12345678901234567890"};
+        for (String number : numbers) {
+            assertEquals("Parsing " + number, Float.floatToIntBits(Float.parseFloat(number)), Float.floatToIntBits(parseFloat(number)));
+        }
+
+        java.util.Random random = new java.util.Random(11);
+        for (int i = 0; i < 20000; i++) {
+            String number = String.format(java.util.Locale.ROOT, "%." + random.nextInt(8) + "f", (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12)));
+            assertEquals("Parsing " + number, Float.floatToIntBits(Float.parseFloat(number)), Float.floatToIntBits(parseFloat(number)));
+        }
+    }
+
+    public void testParseFloatRejectsGarbage() {
+        String[] garbage = {"", "-", ".", "1e", "1.2.3", "4;", "abc"};
+        for (String text : garbage) {
+            try {
+                parseFloat(text);
+                fail("Should reject: " + text);
+            } catch (NumberFormatException e) {
+                String expected;
+                try {
+                    Float.parseFloat(text);
+                    expected = null;
+                } catch (NumberFormatException original) {
+                    expected = original.getMessage();
+                }
+                assertEquals(expected, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.sample.mavensample;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class CommandRunnerTest extends TestCase {
+    private ByteArrayOutputStream outputStream;
+    private PrintStream originalOut;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        outputStream = new ByteArrayOutputStream();
+        originalOut = System.out;
+        System.setOut(new PrintStream(outputStream));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        System.setOut(originalOut);
+    }
+
+    public void testLineTerminators() throws Exception {
+        QuadTree quadTree = new QuadTree();
+        new CommandRunner(quadTree).run(new ByteArrayInputStream(
+                "insert 1 1 1 1;\r\ninsert 2 2 1 1;\rinsert 3 3 1 1;\ninsert 4 4 1 1".getBytes(StandardCharsets.US_ASCII)));
+
+        assertEquals("Every line should be executed, including the last one", 4, quadTree.getRoot().getTotalRectangles());
+        assertEquals("No line should be reported as invalid", "", outputStream.toString());
+    }
+
+    public void testBlankLinesAreInvalid() throws Exception {
+        new CommandRunner(new QuadTree()).run(new ByteArrayInputStream("find 1 1;\n\nfind 2 2;\n".getBytes(StandardCharsets.US_ASCII)));
+        String newline = System.lineSeparator();
+        assertEquals("Rectangle not found" + newline + "Invalid command: " + newline + "Rectangle not found" + newline, outputStream.toString());
+    }
+
+    public void testLinesSplitAcrossReads() throws Exception {
+        // Hand out the input a few bytes at a time so lines and "\r\n" pairs are cut at every position
+        StringBuilder commands = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            commands.append("insert ").append(i % 90 - 45).append(' ').append(i / 90 * 10 - 45).append(" 1 1;\r\n");
+        }
+        StringBuilder longLine = new StringBuilder("insert");
+        for (int i = 0; i < 100000; i++) longLine.append(' ');
+        commands.append(longLine).append("-49 -49 1 1;");
+        byte[] bytes = commands.toString().getBytes(StandardCharsets.US_ASCII);
+
+        QuadTree quadTree = new QuadTree();
+        new CommandRunner(quadTree).run(new InputStream() {
+            private int position;
+
+            @Override
+            public int read() {
+                return position < bytes.length ? bytes[position++] : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (position == bytes.length) return -1;
+                int n = Math.min(Math.min(len, 7), bytes.length - position);
+                System.arraycopy(bytes, position, b, off, n);
+                position += n;
+                return n;
+            }
+        });
+
+        assertEquals("No line should be reported as invalid", "", outputStream.toString());
+        assertEquals("Every rectangle should be inserted", 201, quadTree.getRoot().getTotalRectangles());
+        assertNotNull("A line longer than the buffer should still be read", quadTree.tryFind(-49, -49));
+    }
+
+    public void testMappedFileInWindows() throws Exception {
+        StringBuilder commands = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            commands.append("insert ").append(i % 90 - 45).append(' ').append(i / 90 * 10 - 45).append(" 1 1;").append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        commands.append("find -45 -45");
+        Path file = Files.createTempFile("commands", ".cmmd");
+        try {
+            Files.write(file, commands.toString().getBytes(StandardCharsets.US_ASCII));
+            QuadTree quadTree = new QuadTree();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                new CommandRunner(quadTree).run(channel, 37); // Windows end in the middle of lines and "\r\n" pairs
+            }
+
+            assertEquals("Every rectangle should be inserted", 300, quadTree.getRoot().getTotalRectangles());
+            assertEquals("Only the final find should print", "Rectangle at (-45.00, -45.00): 1.00x1.00" + System.lineSeparator(), outputStream.toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public void testMappedLineLongerThanWindow() throws Exception {
+        Path file = Files.createTempFile("commands", ".cmmd");
+        try {
+            Files.write(file, "insert 1 1 1 1;\ninsert 2 2 1 1;\n".getBytes(StandardCharsets.US_ASCII));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                new CommandRunner(new QuadTree()).run(channel, 10);
+                fail("A line longer than a window should be reported");
+            } catch (IOException e) {
+                assertEquals("Command at byte 0 is longer than 10 bytes", e.getMessage());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package org.sample.mavensample;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ConcurrentQuadTreeTest extends TestCase {
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int PER_WRITER = 2000;
+
+    private ConcurrentQuadTree tree;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        tree = new ConcurrentQuadTree(-50, -50, 100, 100, 4);
+    }
+
+    public void testSingleThreadedOperations() {
+        assertTrue("Insert inside the boundary should succeed", tree.tryInsert(new Rectangle(10, 10, 5, 5)));
+        assertFalse("Insert outside the boundary should be rejected", tree.tryInsert(new Rectangle(500, 500, 5, 5)));
+        assertTrue("Insert on a stripe edge should succeed", tree.tryInsert(new Rectangle(0, 0, 1, 1)));
+        assertTrue("Insert on the far edge should succeed", tree.tryInsert(new Rectangle(50, 50, 1, 1)));
+
+        assertNotNull("Rectangle on a stripe edge should be found", tree.tryFind(0, 0));
+        assertTrue("Existing rectangle should be updated", tree.tryUpdate(10, 10, 8, 9));
+        assertEquals("Update should change the length", 8.0f, tree.tryFind(10, 10).length);
+        assertEquals("Range query should span stripes", 2, tree.queryRange(new Rectangle(-1, -1, 20, 20)).size());
+        assertTrue("Existing rectangle should be deleted", tree.tryDelete(10, 10));
+        assertNull("Deleted rectangle should be gone", tree.tryFind(10, 10));
+        assertEquals("Two rectangles should remain", 2, tree.size());
+    }
+
+    public void testStripeAndOuterEdgesMatchPlainTree() {
+        float[][] boundaries = {{-50, -50, 100, 100}, {0, 0, 1, 1}, {-1000, 3.3f, 77.7f, 0.3f}, {1e6f, -7.1f, 333.3f, 9.9f}};
+        for (float[] b : boundaries) {
+            for (int stripesPerSide : new int[]{1, 2, 3, 6, 7}) {
+                ConcurrentQuadTree striped = new ConcurrentQuadTree(b[0], b[1], b[2], b[3], stripesPerSide);
+                QuadTree plain = new QuadTree(b[0], b[1], b[2], b[3]);
+                List<Float> xs = new ArrayList<>(), ys = new ArrayList<>();
+                for (int i = 0; i <= stripesPerSide; i++) {
+                    addNear(xs, (float) (b[0] + (double) b[2] * i / stripesPerSide));
+                    addNear(ys, (float) (b[1] + (double) b[3] * i / stripesPerSide));
+                }
+                addNear(xs, 0f);
+                addNear(ys, -0f);
+                xs.add(49.999996f);
+                for (float px : xs) {
+                    for (float py : ys) {
+                        String at = px + ", " + py + " with " + stripesPerSide + " stripes over " + b[0] + ", " + b[1];
+                        boolean stored = plain.tryInsert(new Rectangle(px, py, 1, 1));
+                        assertEquals("The striped tree should accept " + at + " exactly when a plain tree does", stored,
+                                striped.tryInsert(new Rectangle(px, py, 1, 1)));
+                        if (stored) assertNotNull("The rectangle at " + at + " should be found", striped.tryFind(px, py));
+                    }
+                }
+                assertEquals(plain.size(), striped.size());
+                assertEquals(plain.size(), striped.queryRange(new Rectangle(b[0] - 1, b[1] - 1, b[2] + 2, b[3] + 2)).size());
+            }
+        }
+    }
+
+    private static void addNear(List<Float> values, float value) {
+        values.add(Math.nextDown(value));
+        values.add(value);
+        values.add(Math.nextUp(value));
+    }
+
+    /*
+     * Writers insert, delete and update their own anchors while readers run finds and range queries. Afterwards every anchor must be in 
+     * exactly the state a sequential QuadTree reaches when given the same operations.
+     */
+    public void testConcurrentStress() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                final int writer = w;
+                writers.add(pool.submit((Callable<Void>) () -> {
+                    start.await();
+                    for (int i = 0; i < PER_WRITER; i++) {
+                        tree.tryInsert(new Rectangle(anchorX(writer, i), anchorY(writer, i), 1, 1));
+                    }
+                    for (int i = 0; i < PER_WRITER; i++) {
+                        if (i % 3 == 0) tree.tryDelete(anchorX(writer, i), anchorY(writer, i));
+                        else if (i % 5 == 0) tree.tryUpdate(anchorX(writer, i), anchorY(writer, i), 2, 3);
+                    }
+                    return null;
+                }));
+            }
+            for (int r = 0; r < READERS; r++) {
+                final int reader = r;
+                readers.add(pool.submit((Callable<Void>) () -> {
+                    start.await();
+                    int i = 0;
+                    while (writing.get()) {
+                        float x = anchorX(reader % WRITERS, i), y = anchorY(reader % WRITERS, i);
+                        Rectangle found = tree.tryFind(x, y);
+                        if (found != null && (found.point.x != x || found.point.y != y)) {
+                            throw new AssertionError("Find returned the wrong rectangle");
+                        }
+                        for (Rectangle hit : tree.queryRange(new Rectangle(x - 2, y - 2, 4, 4))) {
+                            if (hit.point.x < x - 2 || hit.point.x > x + 2) throw new AssertionError("Range query returned a rectangle outside the window");
+                        }
+                        i = (i + 1) % PER_WRITER;
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> f : writers) f.get();
+            writing.set(false);
+            for (Future<?> f : readers) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        QuadTree expected = new QuadTree(-50, -50, 100, 100);
+        for (int w = 0; w < WRITERS; w++) {
+            for (int i = 0; i < PER_WRITER; i++) {
+                expected.tryInsert(new Rectangle(anchorX(w, i), anchorY(w, i), 1, 1));
+            }
+            for (int i = 0; i < PER_WRITER; i++) {
+                if (i % 3 == 0) expected.tryDelete(anchorX(w, i), anchorY(w, i));
+                else if (i % 5 == 0) expected.tryUpdate(anchorX(w, i), anchorY(w, i), 2, 3);
+            }
+        }
+
+        assertEquals("Size should match the sequential tree", expected.getRoot().getTotalRectangles(), tree.size());
+        for (int w = 0; w < WRITERS; w++) {
+            for (int i = 0; i < PER_WRITER; i++) {
+                Rectangle want = expected.tryFind(anchorX(w, i), anchorY(w, i));
+                Rectangle got = tree.tryFind(anchorX(w, i), anchorY(w, i));
+                if (want == null) {
+                    assertNull("Deleted anchor should be gone", got);
+                } else {
+                    assertNotNull("Surviving anchor should be present", got);
+                    assertEquals("Length should match the sequential tree", want.length, got.length);
+                    assertEquals("Width should match the sequential tree", want.width, got.width);
+                }
+            }
+        }
+    }
+
+    // Each writer owns a disjoint set of anchors spread over the whole boundary
+    private static float anchorX(int writer, int i) {
+        return -50 + (i % 500) * 0.2f;
+    }
+
+    private static float anchorY(int writer, int i) {
+        return -50 + writer * 25 + (i / 500) * 5;
+    }
+
+    public void testCloseFreesOffHeapStripes() {
+        QuadTreeConfig config = new QuadTreeConfig(4, 8, false, LeafStorage.OFF_HEAP);
+        ConcurrentQuadTree offHeap = new ConcurrentQuadTree(-50, -50, 100, 100, 2, config);
+        for (int i = 0; i < 40; i++) assertTrue(offHeap.tryInsert(new Rectangle(-45 + i * 2, -45 + i * 2, 1, 1)));
+        assertTrue(config.store.reservedBytes() > 0);
+        offHeap.close();
+        offHeap.close();  // A second close does nothing
+        assertEquals("Closing should free the shared store", 0, config.store.reservedBytes());
+        try {
+            offHeap.tryFind(-45, -45);
+            fail("Reading a closed tree should throw");
+        } catch (IllegalStateException expected) {
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.sample.mavensample;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public class DurableQuadTreeTest extends TestCase {
+    private Path directory;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        directory = Files.createTempDirectory("durable");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+        super.tearDown();
+    }
+
+    private long countFiles(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(suffix)).count();
+        }
+    }
+
+    public void testMutationsSurviveReopen() throws Exception {
+        try (DurableQuadTree tree = DurableQuadTree.open(directory)) {
+            for (int i = 0; i < 20; i++) assertTrue(tree.tryInsert(new Rectangle(-45 + i * 4, -45 + i * 4, 1, 1)));
+            assertFalse("Out-of-bounds inserts are not logged", tree.tryInsert(new Rectangle(500, 500, 1, 1)));
+            assertTrue(tree.tryDelete(-45, -45));
+            assertFalse(tree.tryDelete(0.5f, 0.5f));
+            assertTrue(tree.tryUpdate(-41, -41, 7, 8));
+        }
+
+        try (DurableQuadTree tree = DurableQuadTree.open(directory)) {
+            assertEquals(19, tree.size());
+            assertNull("Deleted rectangle should stay deleted", tree.tryFind(-45, -45));
+            assertEquals("Update should be replayed", 7f, tree.tryFind(-41, -41).length);
+            assertNotNull(tree.tryFind(31, 31));
+        }
+    }
+
+    public void testRecoveryWithoutClose() throws Exception {
+        DurableQuadTree crashed = DurableQuadTree.open(directory);
+        for (int i = 0; i < 10; i++) crashed.tryInsert(new Rectangle(i, i, 1, 1));
+        // Every call returned, so every mutation is on disk even though the tree was never closed
+
+        try (DurableQuadTree recovered = DurableQuadTree.open(directory)) {
+            assertEquals(10, recovered.size());
+        }
+    }
+
+    public void testTornLogTailIsIgnored() throws Exception {
+        try (DurableQuadTree tree = DurableQuadTree.open(directory)) {
+            tree.tryInsert(new Rectangle(1, 1, 1, 1));
+            tree.tryInsert(new Rectangle(2, 2, 1, 1));
+        }
+        Files.write(directory.resolve("log-0.wal"), new byte[]{MutationLog.INSERT, 7, 7}, StandardOpenOption.APPEND);
+
+        try (DurableQuadTree tree = DurableQuadTree.open(directory)) {
+            assertEquals(2, tree.size());
+            tree.tryInsert(new Rectangle(3, 3, 1, 1));
+        }
+        try (DurableQuadTree tree = DurableQuadTree.open(directory)) {
+            assertEquals("Records written after the torn tail should be kept", 3, tree.size());
+        }
+    }
+
+    public void testCheckpointTruncatesLog() throws Exception {
+        try (DurableQuadTree tree = DurableQuadTree.open(directory, new QuadTree(), 2000)) {
+            for (int i = 0; i < 500; i++) tree.tryInsert(new Rectangle(-50 + (i % 50) * 2, -50 + (i / 50) * 10, 1, 1));
+            for (int i = 0; i < 100; i++) tree.tryDelete(-50 + (i % 50) * 2, -50 + (i / 50) * 10);
+            assertTrue("The log should stay near its threshold", Files.size(directory.resolve(logName(directory))) < 4000);
+        }
+        assertEquals("Only one checkpoint should be kept", 1, countFiles(".snapshot"));
+        assertEquals("Only one log should be kept", 1, countFiles(".wal"));
+
+        try (DurableQuadTree tree = DurableQuadTree.open(directory, new QuadTree(), 2000)) {
+            assertEquals(400, tree.size());
+            assertNull(tree.tryFind(-50, -50));
+            assertNotNull(tree.tryFind(-50, 0));
+        }
+    }
+
+    public void testExplicitCheckpointKeepsConfiguration() throws Exception {
+        QuadTree empty = new QuadTree(0, 0, 1000, 1000, new QuadTreeConfig(3, 8, true, LeafStorage.PACKED));
+        try (DurableQuadTree tree = DurableQuadTree.open(directory, empty)) {
+            tree.tryInsert(new Rectangle(900, 900, 1, 1));
+            tree.checkpoint();
+            tree.tryInsert(new Rectangle(950, 950, 1, 1));
+        }
+        try (DurableQuadTree tree = DurableQuadTree.open(directory)) {
+            assertEquals("The checkpoint's boundary should be used", 2, tree.size());
+            assertNotNull(tree.tryFind(950, 950));
+        }
+    }
+
+    public void testConcurrentWriters() throws Exception {
+        try (DurableQuadTree tree = DurableQuadTree.open(directory, new QuadTree(), 4000)) {
+            Thread[] writers = new Thread[4];
+            for (int t = 0; t < writers.length; t++) {
+                int id = t;
+                writers[t] = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < 100; i++) tree.tryInsert(new Rectangle(-50 + i * 0.5f, -50 + id * 20, 1, 1));
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                writers[t].start();
+            }
+            for (Thread w : writers) w.join();
+            assertEquals(400, tree.size());
+        }
+        try (DurableQuadTree tree = DurableQuadTree.open(directory)) {
+            assertEquals(400, tree.size());
+        }
+    }
+
+    private static String logName(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(p -> p.getFileName().toString()).filter(n -> n.endsWith(".wal")).findFirst().get();
+        }
+    }
+
+    public void testCloseFreesOffHeapTree() throws Exception {
+        QuadTreeConfig config = new QuadTreeConfig(4, 8, false, LeafStorage.OFF_HEAP);
+        try (DurableQuadTree tree = DurableQuadTree.open(directory, new QuadTree(-50, -50, 100, 100, config))) {
+            for (int i = 0; i < 20; i++) assertTrue(tree.tryInsert(new Rectangle(-45 + i * 4, -45 + i * 4, 1, 1)));
+            assertTrue(config.store.reservedBytes() > 0);
+        }
+        assertEquals("Closing should free the tree's native memory", 0, config.store.reservedBytes());
+
+        QuadTreeConfig reopened = new QuadTreeConfig(4, 8, false, LeafStorage.OFF_HEAP);
+        try (DurableQuadTree tree = DurableQuadTree.open(directory, new QuadTree(-50, -50, 100, 100, reopened))) {
+            assertEquals(20, tree.size());
+        }
+    }
+
+    public void testFailedLogLeavesTreeUntouched() throws Exception {
+        try (DurableQuadTree tree = DurableQuadTree.open(directory)) {
+            assertTrue(tree.tryInsert(new Rectangle(1, 1, 1, 1)));
+            Thread.currentThread().interrupt();  // An interrupted write closes the log's channel, so the log fails
+            try {
+                tree.tryInsert(new Rectangle(2, 2, 1, 1));
+                fail("The insert should not become durable");
+            } catch (IOException expected) {
+            } finally {
+                Thread.interrupted();
+            }
+
+            try {
+                tree.tryInsert(new Rectangle(3, 3, 1, 1));
+                fail("Inserts should be refused once the log has failed");
+            } catch (IOException expected) {
+            }
+            try {
+                tree.tryDelete(1, 1);
+                fail("Deletes should be refused once the log has failed");
+            } catch (IOException expected) {
+            }
+            try {
+                tree.tryUpdate(1, 1, 5, 5);
+                fail("Updates should be refused once the log has failed");
+            } catch (IOException expected) {
+            }
+            assertNull("A refused insert should not reach the tree", tree.tryFind(3, 3));
+            assertNotNull("A refused delete should not reach the tree", tree.tryFind(1, 1));
+            assertEquals("A refused update should not reach the tree", 1f, tree.tryFind(1, 1).length);
+        }
+
+        try (DurableQuadTree tree = DurableQuadTree.open(directory)) {
+            assertNotNull("Records synced before the failure should be recovered", tree.tryFind(1, 1));
+            assertNull(tree.tryFind(3, 3));
+        }
+    }
+}
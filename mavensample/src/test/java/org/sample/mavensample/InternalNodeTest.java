@@ -2,14 +2,17 @@ package org.sample.mavensample;
 
 import junit.framework.TestCase;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class InternalNodeTest extends TestCase {
     private InternalNode internalNode;
 
     @Override
     protected void setUp() throws Exception {
         super.setUp();
-        // Create an InternalNode for testing with arbitrary dimensions
-        internalNode = new InternalNode(0, 0, 100, 100);
+        // Create an InternalNode for testing; its area (0, 0, 100, 100) is passed to every call
+        internalNode = new InternalNode();
     }
 
     public void testConstructor() {
@@ -22,9 +25,9 @@ public class InternalNodeTest extends TestCase {
 
     public void testUpdateExistingRectangle() throws Exception {
         Rectangle rect = new Rectangle(10, 10, 5, 5);
-        internalNode.insert(rect);
-        internalNode.update(10, 10, 10, 10); // Update the rectangle
-        Rectangle updatedRectangle = internalNode.find(10, 10);
+        internalNode.insert(rect, 0, 0, 100, 100);
+        internalNode.update(10, 10, 10, 10, 0, 0, 100, 100); // Update the rectangle
+        Rectangle updatedRectangle = internalNode.find(10, 10, 0, 0, 100, 100);
         assertNotNull("Updated rectangle should exist", updatedRectangle);
         assertEquals("Updated rectangle should have the new length", 10.0f, updatedRectangle.length);
         assertEquals("Updated rectangle should have the new width", 10.0f, updatedRectangle.width);
@@ -32,7 +35,7 @@ public class InternalNodeTest extends TestCase {
 
     public void testUpdateNonExistingRectangle() {
         try {
-            internalNode.update(30, 30, 10, 10); // Try to update a non-existing rectangle
+            internalNode.update(30, 30, 10, 10, 0, 0, 100, 100); // Try to update a non-existing rectangle
             fail("Should throw an exception for updating non-existing rectangle");
         } catch (Exception e) {
             assertEquals("Rectangle not found at specified location", e.getMessage());
@@ -48,10 +51,10 @@ public class InternalNodeTest extends TestCase {
     }
 
     public void testGetTotalRectangles() throws Exception {
-        internalNode.insert(new Rectangle(10, 10, 5, 5));
-        internalNode.insert(new Rectangle(20, 20, 5, 5));
+        internalNode.insert(new Rectangle(10, 10, 5, 5), 0, 0, 100, 100);
+        internalNode.insert(new Rectangle(20, 20, 5, 5), 0, 0, 100, 100);
         assertEquals("Total rectangles should be 2 initially", 2, internalNode.getTotalRectangles());
-        internalNode.insert(new Rectangle(15, 15, 5, 5));
+        internalNode.insert(new Rectangle(15, 15, 5, 5), 0, 0, 100, 100);
         assertEquals("Total rectangles should be 3 after adding one", 3, internalNode.getTotalRectangles());
     }
 
@@ -66,14 +69,14 @@ public class InternalNodeTest extends TestCase {
 
     public void testInsertValidRectangle() throws Exception {
         Rectangle newRectangle = new Rectangle(15, 15, 5, 5);
-        internalNode.insert(newRectangle); // Should succeed
+        internalNode.insert(newRectangle, 0, 0, 100, 100); // Should succeed
         assertEquals("Total rectangles should be 1 after insertion", 1, internalNode.getTotalRectangles());
     }
 
     public void testInsertRectangleOutOfBoundary() {
         Rectangle outOfBoundaryRectangle = new Rectangle(200, 200, 5, 5);
         try {
-            internalNode.insert(outOfBoundaryRectangle);
+            internalNode.insert(outOfBoundaryRectangle, 0, 0, 100, 100);
             fail("Should throw an exception for inserting out of boundary");
         } catch (Exception e) {
             assertEquals("Rectangle is out of the internal node's boundary.", e.getMessage());
@@ -82,9 +85,9 @@ public class InternalNodeTest extends TestCase {
 
     public void testInsertDuplicateRectangle() throws Exception {
         Rectangle duplicateRectangle = new Rectangle(10, 10, 5, 5);
-        internalNode.insert(duplicateRectangle); // Should succeed first
+        internalNode.insert(duplicateRectangle, 0, 0, 100, 100); // Should succeed first
         try {
-            internalNode.insert(duplicateRectangle); // This should throw an exception
+            internalNode.insert(duplicateRectangle, 0, 0, 100, 100); // This should throw an exception
             fail("Should throw an exception for double insert");
         } catch (Exception e) {
             assertEquals("You can not double insert at this position.", e.getMessage());
@@ -93,11 +96,11 @@ public class InternalNodeTest extends TestCase {
 
     public void testDeleteExistingRectangle() throws Exception {
         Rectangle rect = new Rectangle(10, 10, 5, 5);
-        internalNode.insert(rect);
-        internalNode.delete(10, 10);
+        internalNode.insert(rect, 0, 0, 100, 100);
+        internalNode.delete(10, 10, 0, 0, 100, 100);
         assertEquals("Total rectangles should be 0 after deletion", 0, internalNode.getTotalRectangles());
         try {
-            internalNode.find(10, 10); // This should now throw an exception
+            internalNode.find(10, 10, 0, 0, 100, 100); // This should now throw an exception
             fail("Should have thrown an exception since rectangle was deleted");
         } catch (Exception e) {
             assertEquals("Nothing is at 10.0, 10.0", e.getMessage());
@@ -106,7 +109,7 @@ public class InternalNodeTest extends TestCase {
 
     public void testDeleteNonExistingRectangle() {
         try {
-            internalNode.delete(30, 30);
+            internalNode.delete(30, 30, 0, 0, 100, 100);
             fail("Should throw an exception when trying to delete a non-existing rectangle");
         } catch (Exception e) {
             assertEquals("Nothing to delete at 30.0, 30.0", e.getMessage());
@@ -115,54 +118,65 @@ public class InternalNodeTest extends TestCase {
 
     public void testFindExistingRectangle() throws Exception {
         Rectangle rect = new Rectangle(10, 10, 5, 5);
-        internalNode.insert(rect);
-        Rectangle found = internalNode.find(10, 10);
+        internalNode.insert(rect, 0, 0, 100, 100);
+        Rectangle found = internalNode.find(10, 10, 0, 0, 100, 100);
         assertNotNull("Should find rectangle at (10, 10)", found);
         assertEquals("Found rectangle should have the correct dimensions", 5.0f, found.length);
     }
 
     public void testFindNonExistingRectangle() {
         try {
-            internalNode.find(30, 30);
+            internalNode.find(30, 30, 0, 0, 100, 100);
             fail("Should throw an exception for not found rectangle");
         } catch (Exception e) {
             assertEquals("Nothing is at 30.0, 30.0", e.getMessage());
         }
     }
 
+    public void testQueryRangeAcrossChildren() throws Exception {
+        internalNode.insert(new Rectangle(10, 60, 5, 5), 0, 0, 100, 100); // top left
+        internalNode.insert(new Rectangle(60, 60, 5, 5), 0, 0, 100, 100); // top right
+        internalNode.insert(new Rectangle(10, 10, 5, 5), 0, 0, 100, 100); // bottom left
+        internalNode.insert(new Rectangle(60, 10, 5, 5), 0, 0, 100, 100); // bottom right
+
+        List<Rectangle> found = new ArrayList<>();
+        internalNode.queryRange(new Rectangle(0, 50, 100, 50), found::add, 0, 0, 100, 100);
+        assertEquals("Only the two top rectangles should be returned", 2, found.size());
+    }
+
     public void testPrint() {
         // Capture the output of the print method
-        internalNode.print(0);
+        internalNode.print(0, 0, 0, 100, 100);
         // This test might be expanded with an output capturing mechanism if needed.
     }
     public void testInsertIntoTopLeftChild() throws Exception {
         Rectangle rect = new Rectangle(10, 60, 5, 5); // Should go to top left
-        internalNode.insert(rect);
+        internalNode.insert(rect, 0, 0, 100, 100);
         assertEquals("Total rectangles should be 1 after insertion", 1, internalNode.getTotalRectangles());
     }
 
     public void testInsertIntoTopRightChild() throws Exception {
         Rectangle rect = new Rectangle(60, 60, 5, 5); // Should go to top right
-        internalNode.insert(rect);
+        internalNode.insert(rect, 0, 0, 100, 100);
         assertEquals("Total rectangles should be 1 after insertion", 1, internalNode.getTotalRectangles());
     }
 
     public void testInsertIntoBottomLeftChild() throws Exception {
         Rectangle rect = new Rectangle(10, 10, 5, 5); // Should go to bottom left
-        internalNode.insert(rect);
+        internalNode.insert(rect, 0, 0, 100, 100);
         assertEquals("Total rectangles should be 1 after insertion", 1, internalNode.getTotalRectangles());
     }
 
     public void testInsertIntoBottomRightChild() throws Exception {
         Rectangle rect = new Rectangle(60, 10, 5, 5); // Should go to bottom right
-        internalNode.insert(rect);
+        internalNode.insert(rect, 0, 0, 100, 100);
         assertEquals("Total rectangles should be 1 after insertion", 1, internalNode.getTotalRectangles());
     }
 
     public void testInsertIntoInvalidPosition() {
         Rectangle invalidRectangle = new Rectangle(150, 150, 5, 5); // Out of bounds
         try {
-            internalNode.insert(invalidRectangle);
+            internalNode.insert(invalidRectangle, 0, 0, 100, 100);
             fail("Should throw an exception for inserting out of boundary");
         } catch (Exception e) {
             assertEquals("Rectangle is out of the internal node's boundary.", e.getMessage());
@@ -171,60 +185,60 @@ public class InternalNodeTest extends TestCase {
 
     public void testDeleteFromTopLeftChild() throws Exception {
         Rectangle rect = new Rectangle(10, 60, 5, 5); // Should go to top left
-        internalNode.insert(rect);
-        internalNode.delete(10, 60);
+        internalNode.insert(rect, 0, 0, 100, 100);
+        internalNode.delete(10, 60, 0, 0, 100, 100);
         assertEquals("Total rectangles should be 0 after deletion", 0, internalNode.getTotalRectangles());
     }
 
     public void testDeleteFromTopRightChild() throws Exception {
         Rectangle rect = new Rectangle(60, 60, 5, 5); // Should go to top right
-        internalNode.insert(rect);
-        internalNode.delete(60, 60);
+        internalNode.insert(rect, 0, 0, 100, 100);
+        internalNode.delete(60, 60, 0, 0, 100, 100);
         assertEquals("Total rectangles should be 0 after deletion", 0, internalNode.getTotalRectangles());
     }
 
     public void testDeleteFromBottomLeftChild() throws Exception {
         Rectangle rect = new Rectangle(10, 10, 5, 5); // Should go to bottom left
-        internalNode.insert(rect);
-        internalNode.delete(10, 10);
+        internalNode.insert(rect, 0, 0, 100, 100);
+        internalNode.delete(10, 10, 0, 0, 100, 100);
         assertEquals("Total rectangles should be 0 after deletion", 0, internalNode.getTotalRectangles());
     }
 
     public void testDeleteFromBottomRightChild() throws Exception {
         Rectangle rect = new Rectangle(60, 10, 5, 5); // Should go to bottom right
-        internalNode.insert(rect);
-        internalNode.delete(60, 10);
+        internalNode.insert(rect, 0, 0, 100, 100);
+        internalNode.delete(60, 10, 0, 0, 100, 100);
         assertEquals("Total rectangles should be 0 after deletion", 0, internalNode.getTotalRectangles());
     }
 
     public void testFindInTopLeftChild() throws Exception {
         Rectangle rect = new Rectangle(10, 60, 5, 5); // Should go to top left
-        internalNode.insert(rect);
-        Rectangle found = internalNode.find(10, 60);
+        internalNode.insert(rect, 0, 0, 100, 100);
+        Rectangle found = internalNode.find(10, 60, 0, 0, 100, 100);
         assertNotNull("Should find rectangle in top left child", found);
         assertEquals("Found rectangle should have the correct dimensions", 5.0f, found.length);
     }
 
     public void testFindInTopRightChild() throws Exception {
         Rectangle rect = new Rectangle(60, 60, 5, 5); // Should go to top right
-        internalNode.insert(rect);
-        Rectangle found = internalNode.find(60, 60);
+        internalNode.insert(rect, 0, 0, 100, 100);
+        Rectangle found = internalNode.find(60, 60, 0, 0, 100, 100);
         assertNotNull("Should find rectangle in top right child", found);
         assertEquals("Found rectangle should have the correct dimensions", 5.0f, found.length);
     }
 
     public void testFindInBottomLeftChild() throws Exception {
         Rectangle rect = new Rectangle(10, 10, 5, 5); // Should go to bottom left
-        internalNode.insert(rect);
-        Rectangle found = internalNode.find(10, 10);
+        internalNode.insert(rect, 0, 0, 100, 100);
+        Rectangle found = internalNode.find(10, 10, 0, 0, 100, 100);
         assertNotNull("Should find rectangle in bottom left child", found);
         assertEquals("Found rectangle should have the correct dimensions", 5.0f, found.length);
     }
 
     public void testFindInBottomRightChild() throws Exception {
         Rectangle rect = new Rectangle(60, 10, 5, 5); // Should go to bottom right
-        internalNode.insert(rect);
-        Rectangle found = internalNode.find(60, 10);
+        internalNode.insert(rect, 0, 0, 100, 100);
+        Rectangle found = internalNode.find(60, 10, 0, 0, 100, 100);
         assertNotNull("Should find rectangle in bottom right child", found);
         assertEquals("Found rectangle should have the correct dimensions", 5.0f, found.length);
     }
@@ -11,8 +11,8 @@ public class LeafNodeTest extends TestCase {
     @Override
     protected void setUp() throws Exception {
         super.setUp();
-        // Create a LeafNode with boundary defined by a rectangle at (0, 0) with width and height of 100
-        leafNode = new LeafNode(0, 0, 100, 100);
+        // Create a LeafNode; calls that need its area use (0, 0) with width and height of 100
+        leafNode = new LeafNode();
     }
 
     public void testInsert() {
@@ -26,7 +26,7 @@ public class LeafNodeTest extends TestCase {
 
     public void testInsertOutsideBoundary() {
         Rectangle rect2 = new Rectangle(150, 150, 5, 5); // Outside the boundary
-        leafNode.insert(rect2);
+        leafNode.insert(rect2, 0, 0, 100, 100);
         
         // Check that it has not been added
         assertEquals("Should still contain no rectangles", 0, leafNode.rectangles.size());
@@ -133,6 +133,55 @@ public class LeafNodeTest extends TestCase {
         assertEquals("Should still contain five rectangles", 5, leafNode.rectangles.size());
     }
 
+    public void testIndexedFindAndDelete() {
+        LeafNode indexed = new LeafNode(true);
+        for (int i = 0; i < 10; i++) {
+            indexed.insert(new Rectangle(i * 10, i * 5, 5, 5));
+        }
+
+        assertEquals("Indexed find should return the matching rectangle", 30.0f, indexed.find(30, 15).point.x);
+        indexed.delete(30, 15);
+        assertNull("Deleted rectangle should be gone", indexed.find(30, 15));
+        assertEquals("Nine rectangles should remain", 9, indexed.rectangles.size());
+        for (int i = 0; i < 10; i++) {
+            if (i != 3) assertNotNull("Remaining rectangles should still be indexed", indexed.find(i * 10, i * 5));
+        }
+    }
+
+    public void testIndexedDeleteRemovesDuplicates() {
+        LeafNode indexed = new LeafNode(true);
+        indexed.insert(new Rectangle(10, 10, 5, 5));
+        indexed.insert(new Rectangle(20, 20, 5, 5));
+        indexed.insert(new Rectangle(10, 10, 7, 7));
+
+        indexed.delete(10, 10);
+        assertEquals("Both rectangles at the anchor should be removed", 1, indexed.rectangles.size());
+        assertNotNull("Other rectangle should still be found", indexed.find(20, 20));
+    }
+
+    public void testIndexedDuplicatesAreCountedPerAnchor() {
+        LeafNode indexed = new LeafNode(true);
+        indexed.insert(new Rectangle(10, 10, 1, 1));
+        indexed.insert(new Rectangle(10, 10, 2, 2));
+        indexed.insert(new Rectangle(10, 10, 3, 3));
+        indexed.insert(new Rectangle(20, 20, 1, 1));
+        indexed.insert(new Rectangle(30, 30, 1, 1));
+        indexed.insert(new Rectangle(30, 30, 2, 2));
+
+        indexed.delete(30, 30);
+        assertEquals("Only the two rectangles at (30, 30) should go", 4, indexed.rectangles.size());
+        assertTrue("A single rectangle is resized", indexed.resize(20, 20, 5, 5));
+        assertEquals("Resizing an anchor without duplicates keeps everything", 4, indexed.rectangles.size());
+        assertTrue("A duplicated anchor is resized", indexed.resize(10, 10, 9, 9));
+        assertEquals("Resizing drops the other rectangles at that anchor", 2, indexed.rectangles.size());
+        assertEquals("The resized rectangle remains", 9.0f, indexed.find(10, 10).length);
+
+        indexed.insert(new Rectangle(10, 10, 4, 4));
+        indexed.delete(10, 10);
+        assertNull("A duplicate added after the resize is deleted too", indexed.find(10, 10));
+        assertEquals("Only (20, 20) should be left", 1, indexed.rectangles.size());
+    }
+
     public void testPrint() {
         Rectangle rect1 = new Rectangle(10, 10, 5, 5);
         leafNode.insert(rect1);
@@ -142,7 +191,7 @@ public class LeafNodeTest extends TestCase {
         PrintStream originalOut = System.out;
         System.setOut(new PrintStream(outputStream));
         
-        leafNode.print(0);
+        leafNode.print(0, 0, 0, 100, 100);
         
         // Reset System.out
         System.setOut(originalOut);
@@ -155,15 +204,15 @@ public class LeafNodeTest extends TestCase {
     public void testBoundaryConditions() {
         // Check inserting at the edges of the boundary
         Rectangle rect1 = new Rectangle(0, 0, 5, 5); // At the corner
-        leafNode.insert(rect1);
+        leafNode.insert(rect1, 0, 0, 100, 100);
         assertEquals("Should contain one rectangle", 1, leafNode.rectangles.size());
 
         Rectangle rect2 = new Rectangle(95, 95, 10, 10); // Just touching the boundary
-        leafNode.insert(rect2); 
+        leafNode.insert(rect2, 0, 0, 100, 100);
         assertEquals("Should still contain one rectangle", 1, leafNode.rectangles.size()); // Should not be added
 
         Rectangle rect3 = new Rectangle(100, 100, 5, 5); // Outside boundary
-        leafNode.insert(rect3);
+        leafNode.insert(rect3, 0, 0, 100, 100);
         assertEquals("Should still contain one rectangle", 1, leafNode.rectangles.size()); // Should not be added
     }
 }
@@ -0,0 +1,107 @@
+package org.sample.mavensample;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class LinearQuadTreeTest extends TestCase {
+
+    public void testCodesFollowQuadrants() {
+        LinearQuadTree tree = new LinearQuadTree(0, 0, 100, 100);
+        long bottomLeft = tree.code(10, 10), bottomRight = tree.code(60, 10), topLeft = tree.code(10, 60), topRight = tree.code(60, 60);
+        assertTrue("Z-order visits bottom-left, bottom-right, top-left, top-right", bottomLeft < bottomRight);
+        assertTrue("Z-order visits bottom-left, bottom-right, top-left, top-right", bottomRight < topLeft);
+        assertTrue("Z-order visits bottom-left, bottom-right, top-left, top-right", topLeft < topRight);
+        assertEquals("The far corner is in the last cell", (1L << 2 * LinearQuadTree.BITS) - 1, tree.code(100, 100));
+        assertEquals("The near corner is in the first cell", 0L, tree.code(0, 0));
+    }
+
+    public void testMatchesQuadTree() {
+        Random random = new Random(31);
+        SpatialIndex expected = new QuadTree();
+        SpatialIndex actual = new LinearQuadTree();
+        float[] xs = new float[400], ys = new float[400];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = random.nextFloat() * 110 - 55; // Some outside the boundary
+            ys[i] = random.nextFloat() * 110 - 55;
+        }
+        xs[0] = 50; // On the far edges
+        ys[0] = 50;
+
+        for (int step = 0; step < 5000; step++) {
+            int i = random.nextInt(xs.length);
+            switch (random.nextInt(4)) {
+                case 0:
+                case 1:
+                    Rectangle r = new Rectangle(xs[i], ys[i], random.nextFloat(), random.nextFloat());
+                    assertEquals("insert", expected.tryInsert(r), actual.tryInsert(r));
+                    break;
+                case 2:
+                    assertEquals("delete", expected.tryDelete(xs[i], ys[i]), actual.tryDelete(xs[i], ys[i]));
+                    break;
+                default:
+                    assertEquals("update", expected.tryUpdate(xs[i], ys[i], 2, 3), actual.tryUpdate(xs[i], ys[i], 2, 3));
+            }
+            assertEquals("size", expected.size(), actual.size());
+            assertEquals("find", String.valueOf(expected.tryFind(xs[i], ys[i])), String.valueOf(actual.tryFind(xs[i], ys[i])));
+            if (step % 50 == 0) {
+                Rectangle window = new Rectangle(random.nextFloat() * 120 - 60, random.nextFloat() * 120 - 60,
+                        random.nextFloat() * 40, random.nextFloat() * 40);
+                assertEquals("range", sorted(expected.queryRange(window)), sorted(actual.queryRange(window)));
+            }
+        }
+        Rectangle everything = new Rectangle(-50, -50, 100, 100);
+        assertEquals("All contents", sorted(expected.queryRange(everything)), sorted(actual.queryRange(everything)));
+    }
+
+    public void testBulkLoadMatchesInserts() {
+        Random random = new Random(8);
+        Rectangle[] rectangles = new Rectangle[5000];
+        for (int i = 0; i < rectangles.length; i++) {
+            rectangles[i] = new Rectangle(random.nextInt(200) / 2f - 50, random.nextInt(200) / 2f - 50, i, 1); // Many shared anchors
+        }
+        LinearQuadTree inserted = new LinearQuadTree();
+        for (Rectangle r : rectangles) inserted.tryInsert(r);
+        LinearQuadTree loaded = new LinearQuadTree();
+        assertEquals("Every rectangle should be loaded", rectangles.length, loaded.bulkLoad(rectangles));
+
+        Rectangle everything = new Rectangle(-50, -50, 100, 100);
+        assertEquals("Same contents in the same order", asStrings(inserted.queryRange(everything)), asStrings(loaded.queryRange(everything)));
+        Rectangle first = rectangles[0];
+        assertEquals("The first rectangle at an anchor is found", 0f, loaded.tryFind(first.point.x, first.point.y).length);
+    }
+
+    public void testLargeRangeQuery() {
+        LinearQuadTree tree = new LinearQuadTree(0, 0, 1000, 1000);
+        Rectangle[] grid = new Rectangle[100 * 100];
+        for (int i = 0; i < grid.length; i++) grid[i] = new Rectangle(i % 100 * 10, i / 100 * 10, 1, 1);
+        tree.bulkLoad(grid);
+        assertEquals("A 10x10 block of the grid", 100, tree.queryRange(new Rectangle(205, 305, 99, 99)).size());
+        assertEquals("Window edges are inclusive", 4, tree.queryRange(new Rectangle(200, 300, 10, 10)).size());
+        assertEquals("Outside", 0, tree.queryRange(new Rectangle(2000, 0, 10, 10)).size());
+    }
+
+    public void testInvalidBoundary() {
+        try {
+            new LinearQuadTree(0, 0, 0, 10);
+            fail("An empty boundary should be rejected");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    private static List<String> asStrings(List<Rectangle> rectangles) {
+        List<String> result = new ArrayList<>();
+        for (Rectangle r : rectangles) result.add(r.toString());
+        return result;
+    }
+
+    private static List<String> sorted(List<Rectangle> rectangles) {
+        List<String> result = asStrings(rectangles);
+        Collections.sort(result);
+        return result;
+    }
+}
@@ -154,6 +154,88 @@ public class MainTest extends TestCase {
         assertTrue("Output should indicate rectangle not found", output.contains("Rectangle not found"));
     }
 
+    public void testMissMessages() throws Exception {
+        String fileName = "test_commands.txt";
+        try (FileWriter writer = new FileWriter(fileName)) {
+            writer.write("insert 500 500 5 5;\n");
+            writer.write("find 500 500;\n");
+            writer.write("delete 500 500;\n");
+            writer.write("update 20 20 5 5;\n");
+        }
+
+        Main.main(new String[]{fileName});
+
+        String output = outputStream.toString();
+        assertTrue("Output should report the rejected insert", output.contains("Rectangle is out of the quadtree's boundary."));
+        assertTrue("Output should report the out-of-range find", output.contains("Nothing is at 500.0, 500.0"));
+        assertTrue("Output should report the out-of-range delete", output.contains("Nothing to delete at 500.0, 500.0"));
+        assertTrue("Output should report the missed update", output.contains("No rectangle found at 20.0, 20.0"));
+    }
+
+    public void testMissMessagesDoNotDependOnTreeShape() throws Exception {
+        // Every miss prints the same message whether the root is still a leaf or has been split
+        String misses = "insert 500 500 5 5;\nfind 500 500;\ndelete 500 500;\nupdate 500 500 5 5;\n"
+                + "find 20 20;\ndelete 20 20;\nupdate 20 20 5 5;\n";
+        String expected = "Rectangle is out of the quadtree's boundary." + System.lineSeparator()
+                + "Nothing is at 500.0, 500.0" + System.lineSeparator()
+                + "Nothing to delete at 500.0, 500.0" + System.lineSeparator()
+                + "No rectangle found at 500.0, 500.0" + System.lineSeparator()
+                + "Rectangle not found" + System.lineSeparator()
+                + "No rectangle found at 20.0, 20.0" + System.lineSeparator();
+        String split = "insert -40 -40 1 1;\ninsert 40 -40 1 1;\ninsert -40 40 1 1;\ninsert 40 40 1 1;\ninsert 0 -30 1 1;\ninsert 0 30 1 1;\n";
+        String fileName = "test_commands.txt";
+
+        createTempFile(fileName, misses);
+        Main.main(new String[]{fileName});
+        assertEquals("Misses on a leaf root", expected, outputStream.toString());
+
+        outputStream.reset();
+        createTempFile(fileName, split + misses);
+        Main.main(new String[]{fileName});
+        assertEquals("Misses on a split root", expected, outputStream.toString());
+    }
+
+    public void testStandardInput() throws Exception {
+        InputStream originalIn = System.in;
+        System.setIn(new ByteArrayInputStream("insert 10 10 5 5;\nfind 10 10;\nfind 20 20;\n".getBytes("US-ASCII")));
+        try {
+            Main.main(new String[]{"-"});
+        } finally {
+            System.setIn(originalIn);
+        }
+
+        String output = outputStream.toString();
+        assertTrue("Output should contain rectangle info", output.contains("Rectangle at (10.00, 10.00): 5.00x5.00"));
+        assertTrue("Output should indicate rectangle not found", output.contains("Rectangle not found"));
+    }
+
+    public void testCommandsRunWhileReading() throws Exception {
+        // The first command must be executed before the stream ends
+        PipedOutputStream writer = new PipedOutputStream();
+        PipedInputStream reader = new PipedInputStream(writer);
+        QuadTree quadTree = new QuadTree();
+        Thread runner = new Thread(() -> {
+            try {
+                new CommandRunner(quadTree).run(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        runner.start();
+
+        writer.write("insert 10 10 5 5;\n".getBytes("US-ASCII"));
+        writer.flush();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (quadTree.tryFind(10, 10) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertNotNull("Insert should run before the input is closed", quadTree.tryFind(10, 10));
+
+        writer.close();
+        runner.join(5000);
+        assertFalse("Reading should stop at the end of the stream", runner.isAlive());
+    }
+
     public void testParseCommandSuccess() throws Exception {
         String command = "insert 10 10 5 5;";
         String[] result = Main.parse_InsertInput(command);
@@ -0,0 +1,159 @@
+package org.sample.mavensample;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MutationLogTest extends TestCase {
+    private Path file;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        file = Files.createTempFile("quadtree", ".wal");
+        Files.delete(file);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+        super.tearDown();
+    }
+
+    private List<String> replay() throws IOException {
+        List<String> records = new ArrayList<>();
+        MutationLog.replay(file, new MutationLog.Visitor() {
+            @Override
+            public void insert(float x, float y, float length, float width) {
+                records.add("insert " + x + " " + y + " " + length + " " + width);
+            }
+
+            @Override
+            public void delete(float x, float y) {
+                records.add("delete " + x + " " + y);
+            }
+
+            @Override
+            public void update(float x, float y, float length, float width) {
+                records.add("update " + x + " " + y + " " + length + " " + width);
+            }
+        });
+        return records;
+    }
+
+    public void testReplayReturnsRecordsInOrder() throws Exception {
+        try (MutationLog log = new MutationLog(file)) {
+            log.sync(log.append(MutationLog.INSERT, 1, 2, 3, 4));
+            log.sync(log.append(MutationLog.DELETE, 5, 6, 0, 0));
+            log.sync(log.append(MutationLog.UPDATE, -7.5f, 8, 9, 10));
+        }
+        List<String> records = replay();
+        assertEquals(3, records.size());
+        assertEquals("insert 1.0 2.0 3.0 4.0", records.get(0));
+        assertEquals("delete 5.0 6.0", records.get(1));
+        assertEquals("update -7.5 8.0 9.0 10.0", records.get(2));
+
+        // Reopening appends after the existing records
+        try (MutationLog log = new MutationLog(file)) {
+            log.sync(log.append(MutationLog.DELETE, 1, 2, 0, 0));
+        }
+        assertEquals(4, replay().size());
+    }
+
+    public void testOneSyncCoversEveryAppendedRecord() throws Exception {
+        try (MutationLog log = new MutationLog(file)) {
+            long last = 0;
+            for (int i = 0; i < 1000; i++) last = log.append(MutationLog.INSERT, i, i, 1, 1);
+            log.sync(last);
+            assertEquals("A single batch should cover all records", 1, log.batches());
+            log.sync(1);
+            assertEquals("Durable records need no further fsync", 1, log.batches());
+        }
+        assertEquals(1000, replay().size());
+    }
+
+    public void testConcurrentWritersShareFsyncs() throws Exception {
+        int threads = 8, perThread = 200;
+        try (MutationLog log = new MutationLog(file)) {
+            List<Thread> writers = new ArrayList<>();
+            List<Throwable> errors = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                writers.add(new Thread(() -> {
+                    try {
+                        for (int i = 0; i < perThread; i++) log.sync(log.append(MutationLog.INSERT, id, i, 1, 1));
+                    } catch (Throwable e) {
+                        synchronized (errors) {
+                            errors.add(e);
+                        }
+                    }
+                }));
+            }
+            for (Thread w : writers) w.start();
+            for (Thread w : writers) w.join();
+            assertTrue("No writer should fail: " + errors, errors.isEmpty());
+            assertTrue("Never more fsyncs than records", log.batches() <= threads * perThread);
+        }
+        assertEquals(threads * perThread, replay().size());
+    }
+
+    public void testTornTailIsCutOff() throws Exception {
+        try (MutationLog log = new MutationLog(file)) {
+            log.sync(log.append(MutationLog.INSERT, 1, 2, 3, 4));
+            log.sync(log.append(MutationLog.INSERT, 5, 6, 7, 8));
+        }
+        long intact = Files.size(file);
+        Files.write(file, new byte[]{MutationLog.INSERT, 1, 2, 3}, StandardOpenOption.APPEND); // a record cut short by a crash
+
+        assertEquals(2, replay().size());
+        assertEquals("The torn record should be removed", intact, Files.size(file));
+
+        // A record whose checksum does not match ends the log as well
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 10] ^= 0x40;
+        Files.write(file, bytes);
+        assertEquals(1, replay().size());
+    }
+
+    public void testRejectsOtherFiles() throws Exception {
+        Files.write(file, "insert 1 2 3 4;\n".getBytes("US-ASCII"));
+        try {
+            replay();
+            fail("Should reject a file that is not a log");
+        } catch (IOException e) {
+            assertEquals("Not a mutation log: " + file, e.getMessage());
+        }
+    }
+
+    public void testFailedOrClosedLogRefusesRecords() throws Exception {
+        try (MutationLog log = new MutationLog(file)) {
+            long sequence = log.append(MutationLog.INSERT, 1, 2, 3, 4);
+            Thread.currentThread().interrupt();  // An interrupted write closes the channel, so the sync fails
+            try {
+                log.sync(sequence);
+                fail("The sync should fail");
+            } catch (IOException expected) {
+            } finally {
+                Thread.interrupted();
+            }
+            try {
+                log.append(MutationLog.DELETE, 1, 2, 0, 0);
+                fail("A failed log should refuse new records");
+            } catch (IOException expected) {
+            }
+        }
+
+        MutationLog closed = new MutationLog(file);
+        closed.close();
+        try {
+            closed.append(MutationLog.DELETE, 1, 2, 0, 0);
+            fail("A closed log should refuse new records");
+        } catch (IOException expected) {
+        }
+    }
+}
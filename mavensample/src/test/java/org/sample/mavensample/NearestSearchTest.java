@@ -0,0 +1,116 @@
+package org.sample.mavensample;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+public class NearestSearchTest extends TestCase {
+
+    public void testMatchesBruteForce() {
+        QuadTreeConfig[] configs = {
+                QuadTreeConfig.DEFAULT,
+                new QuadTreeConfig(2, 3),
+                new QuadTreeConfig(5, 16, true, LeafStorage.PACKED)
+        };
+        Random random = new Random(11);
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rectangles.add(new Rectangle(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50, 1, 1));
+        }
+
+        for (QuadTreeConfig config : configs) {
+            QuadTree quadTree = new QuadTree(config);
+            for (Rectangle r : rectangles) quadTree.tryInsert(r);
+            for (int q = 0; q < 50; q++) {
+                // Some query points lie outside the boundary
+                float x = random.nextFloat() * 160 - 80, y = random.nextFloat() * 160 - 80;
+                for (int k : new int[]{1, 7, 40}) {
+                    List<Rectangle> found = quadTree.nearest(x, y, k);
+                    assertEquals("Should return k rectangles", k, found.size());
+                    double[] expected = sortedDistances(rectangles, x, y);
+                    for (int i = 0; i < k; i++) {
+                        assertEquals("The i-th nearest should be at the expected distance", expected[i], distance(found.get(i), x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    public void testFewerRectanglesThanK() throws Exception {
+        QuadTree quadTree = new QuadTree();
+        assertTrue("An empty tree should return nothing", quadTree.nearest(0, 0, 3).isEmpty());
+
+        quadTree.insert(new Rectangle(10, 10, 1, 1));
+        quadTree.insert(new Rectangle(-20, 5, 2, 2));
+        List<Rectangle> found = quadTree.nearest(0, 0, 3);
+        assertEquals("Should return every rectangle", 2, found.size());
+        assertEquals("Nearest first", 10f, found.get(0).point.x);
+        assertEquals("Nearest first", -20f, found.get(1).point.x);
+    }
+
+    public void testRejectsNonPositiveK() {
+        try {
+            new QuadTree().nearest(0, 0, 0);
+            fail("k of 0 should be rejected");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    public void testSearchIsReusable() throws Exception {
+        QuadTree quadTree = new QuadTree();
+        for (int i = 0; i < 30; i++) quadTree.insert(new Rectangle(-45 + i * 3, -45 + i * 3, 1, 1));
+        assertEquals("First search", -45f + 15 * 3, quadTree.nearest(0, 0, 1).get(0).point.x);
+        assertEquals("A later, larger search should not see earlier state", 30, quadTree.nearest(40, 40, 100).size());
+        assertEquals("A later, smaller search should not see earlier state", 42f, quadTree.nearest(42, 42, 1).get(0).point.x);
+    }
+
+    public void testConcurrentSearches() throws Exception {
+        QuadTree quadTree = new QuadTree();
+        Random random = new Random(5);
+        for (int i = 0; i < 2000; i++) quadTree.tryInsert(new Rectangle(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50, 1, 1));
+        float[] xs = new float[200];
+        for (int q = 0; q < xs.length; q++) xs[q] = random.nextFloat() * 100 - 50;
+        List<List<Rectangle>> expected = new ArrayList<>();
+        for (float x : xs) expected.add(quadTree.nearest(x, -x, 25));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int round = 0; round < 5; round++) {
+                pool.submit(() -> IntStream.range(0, xs.length).parallel().forEach(q -> {
+                    List<Rectangle> found = quadTree.nearest(xs[q], -xs[q], 25);
+                    for (int i = 0; i < found.size(); i++) {
+                        assertEquals("Concurrent searches should not disturb each other",
+                                distance(expected.get(q).get(i), xs[q], -xs[q]), distance(found.get(i), xs[q], -xs[q]));
+                    }
+                })).get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public void testDistanceToBoundary() {
+        assertEquals("Inside", 0.0, NearestSearch.distanceTo(0, 0, 10, 10, 5, 5));
+        assertEquals("On the edge", 0.0, NearestSearch.distanceTo(0, 0, 10, 10, 10, 3));
+        assertEquals("Beside", 4.0, NearestSearch.distanceTo(0, 0, 10, 10, -2, 3));
+        assertEquals("Off a corner", 25.0, NearestSearch.distanceTo(0, 0, 10, 10, 13, 14));
+    }
+
+    private static double[] sortedDistances(List<Rectangle> rectangles, float x, float y) {
+        double[] distances = new double[rectangles.size()];
+        for (int i = 0; i < distances.length; i++) distances[i] = distance(rectangles.get(i), x, y);
+        Arrays.sort(distances);
+        return distances;
+    }
+
+    private static double distance(Rectangle r, float x, float y) {
+        double dx = r.point.x - (double) x, dy = r.point.y - (double) y;
+        return dx * dx + dy * dy;
+    }
+}
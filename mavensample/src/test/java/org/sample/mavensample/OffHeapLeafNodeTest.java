@@ -0,0 +1,135 @@
+package org.sample.mavensample;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class OffHeapLeafNodeTest extends TestCase {
+    private OffHeapStore store;
+    private OffHeapLeafNode leafNode;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        store = new OffHeapStore(4096);
+        leafNode = new OffHeapLeafNode(false, store);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        store.close();
+        super.tearDown();
+    }
+
+    public void testEmptyLeafTakesNoMemory() {
+        assertEquals(0, store.allocatedBytes());
+        leafNode.insert(new Rectangle(150, 150, 5, 5), 0, 0, 100, 100);
+        assertEquals("Should still contain no rectangles", 0, leafNode.getTotalRectangles());
+        assertEquals(0, store.allocatedBytes());
+    }
+
+    public void testGrowthAndFind() {
+        for (int i = 0; i < 50; i++) {
+            leafNode.insert(new Rectangle(i, i, i + 1, i + 2));
+        }
+        Rectangle found = leafNode.find(42, 42);
+        assertNotNull("Should find the rectangle after the block grew", found);
+        assertEquals(43.0f, found.length);
+        assertEquals(44.0f, found.width);
+        assertNull("Should not find a missing rectangle", leafNode.find(42, 43));
+        assertEquals("Only the final 64-entry block should be in use", 64 * 16, store.allocatedBytes());
+    }
+
+    public void testDeleteKeepsOrderAndFreesWhenEmpty() {
+        leafNode.insert(new Rectangle(1, 1, 1, 1));
+        leafNode.insert(new Rectangle(2, 2, 1, 1));
+        leafNode.insert(new Rectangle(3, 3, 1, 1));
+        leafNode.delete(2, 2);
+
+        assertEquals("Should contain two rectangles", 2, leafNode.getTotalRectangles());
+        assertEquals(1.0f, leafNode.x(0));
+        assertEquals(3.0f, leafNode.x(1));
+
+        leafNode.delete(1, 1);
+        leafNode.delete(3, 3);
+        assertEquals("An empty leaf should give its block back", 0, store.allocatedBytes());
+    }
+
+    public void testResizeInPlace() {
+        leafNode.insert(new Rectangle(5, 5, 1, 1));
+        assertTrue(leafNode.resize(5, 5, 7, 8));
+        Rectangle found = leafNode.find(5, 5);
+        assertEquals(7.0f, found.length);
+        assertEquals(8.0f, found.width);
+        assertEquals(7.0f, leafNode.maxLength);
+    }
+
+    public void testQueryRange() {
+        leafNode.insert(new Rectangle(10, 10, 1, 1));
+        leafNode.insert(new Rectangle(60, 60, 1, 1));
+        List<Rectangle> found = new ArrayList<>();
+        leafNode.queryRange(new Rectangle(0, 0, 50, 50), found::add);
+        assertEquals("Only one rectangle lies in the window", 1, found.size());
+        assertEquals(10.0f, found.get(0).point.x);
+    }
+
+    public void testOffHeapQuadTreeMatchesHeapTree() throws Exception {
+        QuadTree heap = new QuadTree(0, 0, 1000, 1000, new QuadTreeConfig(QuadTreeConfig.OFF_HEAP_LEAF_CAPACITY, QuadTreeConfig.DEFAULT_MAX_DEPTH));
+        Random random = new Random(7);
+        try (QuadTree offHeap = QuadTree.offHeap(0, 0, 1000, 1000)) {
+            for (int i = 0; i < 2000; i++) {
+                Rectangle r = new Rectangle(random.nextInt(1000), random.nextInt(1000), 1 + random.nextInt(9), 1 + random.nextInt(9));
+                assertEquals(heap.tryInsert(r), offHeap.tryInsert(new Rectangle(r.point.x, r.point.y, r.length, r.width)));
+            }
+            for (int i = 0; i < 1500; i++) {
+                float x = random.nextInt(1000), y = random.nextInt(1000);
+                assertEquals(heap.tryDelete(x, y), offHeap.tryDelete(x, y));
+                assertEquals(heap.tryUpdate(y, x, 3, 4), offHeap.tryUpdate(y, x, 3, 4));
+            }
+            assertEquals(heap.size(), offHeap.size());
+            assertEquals(BulkLoaderTest.dump(heap), BulkLoaderTest.dump(offHeap));
+            Rectangle window = new Rectangle(200, 300, 400, 250);
+            assertEquals(heap.queryRange(window).size(), offHeap.queryRange(window).size());
+        }
+    }
+
+    public void testClosedTreeCannotBeRead() {
+        QuadTree tree = QuadTree.offHeap(0, 0, 100, 100);
+        tree.tryInsert(new Rectangle(1, 1, 1, 1));
+        tree.close();
+        tree.close();  // A second close does nothing
+        try {
+            tree.tryFind(1, 1);
+            fail("Reading a closed tree should throw");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    public void testBulkLoadReleasesOldLeaves() {
+        QuadTreeConfig config = new QuadTreeConfig(4, 10, false, LeafStorage.OFF_HEAP);
+        QuadTree tree = new QuadTree(0, 0, 100, 100, config);
+        Rectangle[] rectangles = new Rectangle[500];
+        for (int i = 0; i < rectangles.length; i++) {
+            rectangles[i] = new Rectangle(i % 100, i / 5, 1, 1);
+        }
+        tree.bulkLoad(rectangles);
+        long used = config.store.allocatedBytes();
+        tree.bulkLoad(new Rectangle[0]);
+        assertEquals("Rebuilding the same contents should not leak the old leaves", used, config.store.allocatedBytes());
+        tree.close();
+    }
+
+    public void testOffHeapTreeUsesLargeUnindexedLeaves() {
+        try (QuadTree tree = QuadTree.offHeap(0, 0, 1000, 1000)) {
+            for (int i = 0; i < QuadTreeConfig.OFF_HEAP_LEAF_CAPACITY; i++) {
+                assertTrue(tree.tryInsert(new Rectangle(i * 3, i * 2, 1, 1)));
+            }
+            assertTrue("A full leaf should not be split yet", tree.getRoot() instanceof OffHeapLeafNode);
+            assertNotNull("Lookups should still find every rectangle", tree.tryFind(300, 200));
+            tree.tryInsert(new Rectangle(999, 999, 1, 1));
+            assertTrue(tree.getRoot() instanceof InternalNode);
+        }
+    }
+}
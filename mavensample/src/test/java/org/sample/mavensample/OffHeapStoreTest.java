@@ -0,0 +1,88 @@
+package org.sample.mavensample;
+
+import junit.framework.TestCase;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+
+public class OffHeapStoreTest extends TestCase {
+    private static final int SLAB = 4096;
+    private OffHeapStore store;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        store = new OffHeapStore(SLAB);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        store.close();
+        super.tearDown();
+    }
+
+    public void testReadBackWrittenValues() {
+        long a = store.allocate(64);
+        long b = store.allocate(64);
+        store.putFloat(a, 0, 1.5f);
+        store.putFloat(b, 60, -2.5f);
+        assertEquals(1.5f, store.getFloat(a, 0));
+        assertEquals(-2.5f, store.getFloat(b, 60));
+        assertFalse("Blocks should not overlap", a == b);
+    }
+
+    public void testFreedBlockIsReused() {
+        long a = store.allocate(100);
+        assertEquals("Sizes should round up to a power of two", 128, store.allocatedBytes());
+        store.free(a, 100);
+        assertEquals("Nothing should be in use", 0, store.allocatedBytes());
+        assertEquals("The freed block should be handed out again", a, store.allocate(128));
+    }
+
+    public void testCopy() {
+        long a = store.allocate(32), b = store.allocate(32);
+        for (int i = 0; i < 8; i++) store.putFloat(a, 4 * i, i);
+        store.copy(a, 8, b, 0, 16);
+        assertEquals(2.0f, store.getFloat(b, 0));
+        assertEquals(5.0f, store.getFloat(b, 12));
+    }
+
+    public void testLargeBlockGetsOwnSlab() {
+        long a = store.allocate(64);
+        long big = store.allocate(SLAB * 2);
+        store.putFloat(big, SLAB * 2 - 4, 9f);
+        assertEquals(9f, store.getFloat(big, SLAB * 2 - 4));
+        assertEquals(3L * SLAB, store.reservedBytes());
+        assertEquals(0f, store.getFloat(a, 0));
+    }
+
+    public void testClosedStoreRejectsAccess() {
+        long a = store.allocate(64);
+        store.close();
+        assertEquals("Closing should release every slab", 0, store.reservedBytes());
+        store.free(a, 64);  // Freeing after close is harmless
+        try {
+            store.getFloat(a, 0);
+            fail("Reading a closed store should throw");
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            store.allocate(64);
+            fail("Allocating from a closed store should throw");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    public void testCloseFreesNativeMemoryAtOnce() {
+        BufferPoolMXBean direct = null;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) direct = pool;
+        }
+        OffHeapStore large = new OffHeapStore(1 << 20);
+        large.allocate(64);
+        large.allocate(1 << 21);
+        long before = direct.getMemoryUsed();
+        large.close();
+        assertTrue("Both slabs should be freed without waiting for the garbage collector", direct.getMemoryUsed() <= before - 3 * (1 << 20));
+    }
+}
@@ -0,0 +1,112 @@
+package org.sample.mavensample;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+public class OutputBufferTest extends TestCase {
+    private ByteArrayOutputStream bytes;
+    private OutputBuffer out;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        bytes = new ByteArrayOutputStream();
+        out = new OutputBuffer(new PrintStream(bytes));
+    }
+
+    private String flushed() {
+        out.flush();
+        String text = bytes.toString();
+        bytes.reset();
+        return text;
+    }
+
+    public void testFixed2MatchesStringFormat() {
+        float[] values = {0f, -0f, 1f, -1f, 0.125f, 0.375f, 2.675f, 1.005f, 0.005f, -0.005f, 0.004999f, -0.001f, 99.995f, 12345.678f,
+                9999999f, 1e7f, 3.4028235e38f, 1.4e-45f, Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        for (float f : values) {
+            out.appendFixed2(f);
+            assertEquals("Formatting " + f, String.format("%.2f", f), flushed());
+        }
+
+        Random random = new Random(5);
+        for (int i = 0; i < 100000; i++) {
+            float f = (float) ((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(9)));
+            if (i % 3 == 0) f = Math.round(f * 1000) / 1000f;  // Many values close to a rounding tie
+            out.appendFixed2(f);
+            assertEquals("Formatting " + f, String.format("%.2f", f), flushed());
+        }
+    }
+
+    public void testRectangleMatchesToString() {
+        Rectangle r = new Rectangle(-12.345f, 0.5f, 100, 0.015f);
+        out.append(r);
+        assertEquals(r.toString(), flushed());
+    }
+
+    public void testTextAndIndent() {
+        out.indent(2).append("Leaf Node - ").append('x').append(1.5f).newline();
+        out.append("caf\u00e9");
+        assertEquals("        Leaf Node - x1.5" + System.lineSeparator() + new String("caf\u00e9".getBytes()), flushed());
+    }
+
+    public void testNothingWrittenUntilFlush() {
+        out.append("pending");
+        assertEquals("Output should stay buffered", 0, bytes.size());
+        out.flush();
+        assertEquals("pending", bytes.toString());
+    }
+
+    public void testSmallBufferGivesSameOutput() {
+        OutputBuffer small = new OutputBuffer(new PrintStream(bytes), 64);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            small.appendRectangle(i, -i, i / 3f, 1.005f).newline();
+            expected.append(new Rectangle(i, -i, i / 3f, 1.005f)).append(System.lineSeparator());
+        }
+        small.flush();
+        assertEquals(expected.toString(), bytes.toString());
+    }
+
+    public void testLargeOutputIsDrained() {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            out.appendFixed2(i).newline();
+            expected.append(String.format("%.2f", (float) i)).append(System.lineSeparator());
+        }
+        assertTrue("A full buffer should be written out before flush", bytes.size() > 0);
+        assertEquals(expected.toString(), flushed());
+    }
+
+    public void testDumpMatchesOldFormat() {
+        QuadTree quadTree = new QuadTree();
+        for (int i = 0; i < 40; i++) {
+            quadTree.tryInsert(new Rectangle(-49 + i * 2.4f, 49 - i * 2.3f, i / 3f, 1.005f));
+        }
+        quadTree.dump(out);
+        assertEquals(format(quadTree.getRoot(), 0, quadTree.getBoundary()), flushed());
+    }
+
+    // The dump format as printed with println and String.format before output was buffered
+    private static String format(Node node, int depth, Rectangle boundary) {
+        StringBuilder text = new StringBuilder();
+        String indent = "    ".repeat(depth);
+        if (node instanceof InternalNode) {
+            text.append(indent).append("Internal Node - ").append(boundary).append(System.lineSeparator());
+            Node[] children = ((InternalNode) node).getChildren();
+            for (int q = 0; q < children.length; q++) {
+                Rectangle quadrant = new Rectangle((float) InternalNode.quadrantLeft(q, boundary.point.x, boundary.length),
+                        (float) InternalNode.quadrantBottom(q, boundary.point.y, boundary.width), boundary.length / 2, boundary.width / 2);
+                text.append(format(children[q], depth + 1, quadrant));
+            }
+        } else {
+            AbstractLeafNode leaf = (AbstractLeafNode) node;
+            text.append(indent).append("Leaf Node - ").append(boundary).append(System.lineSeparator());
+            for (int i = 0; i < leaf.size(); i++) text.append(indent).append("    ").append(leaf.get(i)).append(System.lineSeparator());
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package org.sample.mavensample;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PackedLeafNodeTest extends TestCase {
+    private PackedLeafNode leafNode;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        leafNode = new PackedLeafNode(false);
+    }
+
+    public void testInsertStoresColumns() {
+        leafNode.insert(new Rectangle(10, 20, 3, 4));
+        assertEquals("Should contain one rectangle", 1, leafNode.getTotalRectangles());
+        assertEquals(10.0f, leafNode.xs[0]);
+        assertEquals(20.0f, leafNode.ys[0]);
+        assertEquals(3.0f, leafNode.lengths[0]);
+        assertEquals(4.0f, leafNode.widths[0]);
+    }
+
+    public void testInsertOutsideBoundary() {
+        leafNode.insert(new Rectangle(150, 150, 5, 5), 0, 0, 100, 100);
+        assertEquals("Should still contain no rectangles", 0, leafNode.getTotalRectangles());
+    }
+
+    public void testGrowthAndFind() {
+        for (int i = 0; i < 50; i++) {
+            leafNode.insert(new Rectangle(i, i, i + 1, i + 2));
+        }
+        Rectangle found = leafNode.find(42, 42);
+        assertNotNull("Should find the rectangle after the arrays grew", found);
+        assertEquals(43.0f, found.length);
+        assertEquals(44.0f, found.width);
+        assertNull("Should not find a missing rectangle", leafNode.find(42, 43));
+    }
+
+    public void testDeleteKeepsOrder() {
+        leafNode.insert(new Rectangle(1, 1, 1, 1));
+        leafNode.insert(new Rectangle(2, 2, 1, 1));
+        leafNode.insert(new Rectangle(3, 3, 1, 1));
+        leafNode.delete(2, 2);
+
+        assertEquals("Should contain two rectangles", 2, leafNode.getTotalRectangles());
+        assertEquals(1.0f, leafNode.xs[0]);
+        assertEquals(3.0f, leafNode.xs[1]);
+    }
+
+    public void testIndexedDelete() {
+        PackedLeafNode indexed = new PackedLeafNode(true);
+        for (int i = 0; i < 20; i++) {
+            indexed.insert(new Rectangle(i, 2 * i, 1, 1));
+        }
+        indexed.delete(5, 10);
+        assertNull("Deleted rectangle should be gone", indexed.find(5, 10));
+        assertNotNull("Moved rectangle should still be indexed", indexed.find(19, 38));
+        assertEquals("Nineteen rectangles should remain", 19, indexed.getTotalRectangles());
+    }
+
+    public void testQueryRange() {
+        leafNode.insert(new Rectangle(10, 10, 1, 1));
+        leafNode.insert(new Rectangle(60, 60, 1, 1));
+        List<Rectangle> found = new ArrayList<>();
+        leafNode.queryRange(new Rectangle(0, 0, 50, 50), found::add);
+        assertEquals("Only one rectangle lies in the window", 1, found.size());
+        assertEquals(10.0f, found.get(0).point.x);
+    }
+
+    public void testPackedQuadTree() throws Exception {
+        QuadTree quadTree = new QuadTree(new QuadTreeConfig(4, 16, false, LeafStorage.PACKED));
+        for (int i = 0; i < 100; i++) {
+            quadTree.insert(new Rectangle(-50 + i, -50 + i, 1, 1));
+        }
+        quadTree.update(0, 0, 7, 8);
+        quadTree.delete(10, 10);
+
+        assertTrue("Root should have been split", quadTree.getRoot() instanceof InternalNode);
+        assertEquals("Updated rectangle should have its new size", 7.0f, quadTree.find(0, 0).length);
+        assertNull("Deleted rectangle should be gone", quadTree.find(10, 10));
+        assertEquals("99 rectangles should remain", 99, quadTree.getRoot().getTotalRectangles());
+    }
+}
@@ -0,0 +1,45 @@
+package org.sample.mavensample;
+
+import junit.framework.TestCase;
+
+public class PointIndexTest extends TestCase {
+    private PointIndex index;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        index = new PointIndex();
+    }
+
+    public void testPutAndGet() {
+        index.put(PointIndex.key(1, 2), 7);
+        assertEquals("Stored slot should be returned", 7, index.get(PointIndex.key(1, 2)));
+        assertEquals("Swapped coordinates are a different key", -1, index.get(PointIndex.key(2, 1)));
+    }
+
+    public void testNegativeZeroMatchesZero() {
+        index.put(PointIndex.key(0.0f, -0.0f), 3);
+        assertEquals("Negative zero should map to the same key as zero", 3, index.get(PointIndex.key(-0.0f, 0.0f)));
+    }
+
+    public void testRemove() {
+        index.put(PointIndex.key(1, 1), 0);
+        assertEquals("Remove should return the stored slot", 0, index.remove(PointIndex.key(1, 1)));
+        assertEquals("Removed key should be gone", -1, index.get(PointIndex.key(1, 1)));
+        assertEquals("Removing again should report a miss", -1, index.remove(PointIndex.key(1, 1)));
+        assertEquals("Index should be empty", 0, index.size());
+    }
+
+    public void testManyKeysSurviveGrowthAndRemoval() {
+        for (int i = 0; i < 1000; i++) {
+            index.put(PointIndex.key(i, -i), i);
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            index.remove(PointIndex.key(i, -i));
+        }
+        assertEquals("Half of the keys should remain", 500, index.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("Lookup after removals", i % 2 == 0 ? -1 : i, index.get(PointIndex.key(i, -i)));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.sample.mavensample;
+
+import junit.framework.TestCase;
+
+public class QuadTreeConfigTest extends TestCase {
+
+    public void testShouldSplit() {
+        QuadTreeConfig config = new QuadTreeConfig(5, 2);
+        assertFalse("A leaf at capacity should not split", config.shouldSplit(5, 0));
+        assertTrue("A leaf over capacity should split", config.shouldSplit(6, 0));
+        assertFalse("A leaf at the maximum depth should never split", config.shouldSplit(100, 2));
+    }
+
+    public void testMergeThresholdIsBelowCapacity() {
+        assertEquals("Half the capacity", 2, new QuadTreeConfig(5, 2).mergeThreshold());
+        assertEquals("A capacity of one only merges empty subtrees", 0, new QuadTreeConfig(1, 2).mergeThreshold());
+    }
+
+    public void testInvalidCapacity() {
+        try {
+            new QuadTreeConfig(0, 4);
+            fail("A capacity of zero should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Leaf capacity must be at least 1: 0", e.getMessage());
+        }
+    }
+
+    public void testInvalidDepth() {
+        try {
+            new QuadTreeConfig(4, -1);
+            fail("A negative depth should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Max depth must not be negative: -1", e.getMessage());
+        }
+    }
+}
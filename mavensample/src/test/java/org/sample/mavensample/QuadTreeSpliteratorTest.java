@@ -0,0 +1,118 @@
+package org.sample.mavensample;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+public class QuadTreeSpliteratorTest extends TestCase {
+    private QuadTree quadTree;
+    private final Set<Rectangle> seen = new HashSet<>();  // Stored rectangles, compared by identity
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        quadTree = new QuadTree();
+        Random random = new Random(17);
+        for (int i = 0; i < 3000; i++) {
+            quadTree.insert(new Rectangle(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50, 1, 1));
+        }
+    }
+
+    public void testIteratesInDumpOrder() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputBuffer out = new OutputBuffer(new PrintStream(bytes));
+        quadTree.dump(out);
+        out.flush();
+        List<String> dumped = new ArrayList<>();
+        for (String line : bytes.toString().split(System.lineSeparator())) {
+            if (line.trim().startsWith("Rectangle at")) dumped.add(line.trim());
+        }
+
+        List<String> iterated = new ArrayList<>();
+        for (Rectangle r : quadTree) iterated.add(r.toString());
+        assertEquals("The iterator should visit the rectangles in dump order", dumped, iterated);
+    }
+
+    public void testEmptyTree() {
+        Iterator<Rectangle> it = new QuadTree().iterator();
+        assertFalse("An empty tree has nothing to iterate", it.hasNext());
+        try {
+            it.next();
+            fail("next() past the end should throw");
+        } catch (NoSuchElementException e) {
+            // Expected
+        }
+        assertEquals("An empty stream", 0, new QuadTree().stream().count());
+    }
+
+    public void testSizeIsCountedOnlyWhenAsked() {
+        Spliterator<Rectangle> it = quadTree.spliterator();
+        for (int i = 0; i < 10; i++) assertTrue(it.tryAdvance(r -> { }));
+        assertEquals("The estimate should count what is left", 2990, it.estimateSize());
+        Spliterator<Rectangle> prefix = it.trySplit();
+        assertNotNull("A fresh tree of this size should split", prefix);
+        assertEquals("The split should share out the estimate", 2990, prefix.estimateSize() + it.estimateSize());
+    }
+
+    public void testEstimateDropsAsRectanglesAreConsumed() {
+        Spliterator<Rectangle> it = quadTree.spliterator();
+        assertEquals(3000, it.estimateSize());
+        for (int i = 0; i < 25; i++) assertTrue(it.tryAdvance(r -> { }));
+        assertEquals("Each consumed rectangle should come off the estimate", 2975, it.estimateSize());
+        it.forEachRemaining(r -> { });
+        assertEquals("Nothing should be left after forEachRemaining()", 0, it.estimateSize());
+    }
+
+    public void testSplitsCoverEverythingOnce() {
+        List<Spliterator<Rectangle>> parts = new ArrayList<>();
+        parts.add(quadTree.spliterator());
+        // Split repeatedly, including spliterators that have already started
+        for (int round = 0; round < 6; round++) {
+            List<Spliterator<Rectangle>> next = new ArrayList<>();
+            for (Spliterator<Rectangle> part : parts) {
+                part.tryAdvance(r -> seen(r));
+                Spliterator<Rectangle> prefix = part.trySplit();
+                if (prefix != null) next.add(prefix);
+                next.add(part);
+            }
+            parts = next;
+        }
+        assertTrue("The tree should split into many parts", parts.size() > 16);
+        for (Spliterator<Rectangle> part : parts) part.forEachRemaining(r -> seen(r));
+        assertEquals("Every rectangle should be seen exactly once", 3000, seen.size());
+    }
+
+    public void testSplitKeepsEncounterOrder() {
+        List<Rectangle> sequential = new ArrayList<>();
+        quadTree.forEach(sequential::add);
+        Spliterator<Rectangle> rest = quadTree.spliterator();
+        Spliterator<Rectangle> first = rest.trySplit();
+        assertNotNull("A split tree should split", first);
+        List<Rectangle> ordered = new ArrayList<>();
+        first.forEachRemaining(ordered::add);
+        rest.forEachRemaining(ordered::add);
+        assertEquals("The prefix comes first", sequential, ordered);
+    }
+
+    public void testParallelStreamMatchesSequential() {
+        double sequential = quadTree.stream().mapToDouble(r -> r.point.x).sum();
+        double parallel = quadTree.stream().parallel().mapToDouble(r -> r.point.x).sum();
+        assertEquals("Same total", sequential, parallel, 1e-3);
+        assertEquals("Same rectangles in order", quadTree.stream().collect(Collectors.toList()),
+                quadTree.stream().parallel().collect(Collectors.toList()));
+    }
+
+    private void seen(Rectangle r) {
+        assertTrue("A rectangle should not be seen twice", seen.add(r));
+    }
+}
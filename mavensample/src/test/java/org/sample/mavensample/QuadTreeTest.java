@@ -2,6 +2,12 @@ package org.sample.mavensample;
 
 import junit.framework.TestCase;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 public class QuadTreeTest extends TestCase {
     private QuadTree quadTree;
 
@@ -35,14 +41,112 @@ public class QuadTreeTest extends TestCase {
         // Now insert the sixth rectangle to trigger a split
         quadTree.insert(new Rectangle(0, 0, 10, 10));
         
-        // Assert the expected state
-        InternalNode root = (InternalNode) quadTree.getRoot();
-        assertEquals("Top left child should have no rectangles", 0, ((LeafNode) root.topLeft).rectangles.size());
-        // Assert other child nodes as necessary
+        // Identical anchors cannot be separated, so the split recurses down to the maximum depth
+        assertTrue("The root should have split", quadTree.getRoot() instanceof InternalNode);
+        assertEquals("All six rectangles should be stored", 6, quadTree.getRoot().getTotalRectangles());
+        assertEquals("Splitting should stop at the maximum depth", QuadTreeConfig.DEFAULT.maxDepth, maxLeafDepth(quadTree.getRoot(), 0));
+        assertEquals("The deepest leaf should hold all six rectangles", 6, maxLeafSize(quadTree.getRoot()));
+        // Every level holds the six rectangles in a single child, the other three stay empty leaves
+        Node node = quadTree.getRoot();
+        while (node instanceof InternalNode) {
+            Node next = null;
+            for (Node child : ((InternalNode) node).getChildren()) {
+                if (child.getTotalRectangles() == 0) continue;
+                assertNull("Only one quadrant should hold rectangles", next);
+                next = child;
+            }
+            node = next;
+        }
+        assertEquals("The path should end at the full leaf", 6, node.getTotalRectangles());
     }
 
 
 
+    public void testRecursiveSplitKeepsLeavesWithinCapacity() throws Exception {
+        QuadTree quadTree = new QuadTree(4, 16);
+
+        // Cluster every rectangle into the bottom-left corner so that a single split is not enough
+        for (int i = 0; i < 200; i++) {
+            quadTree.insert(new Rectangle(-49 + (i % 20) * 0.1f, -49 + (i / 20) * 0.1f, 1, 1));
+        }
+
+        assertEquals("All rectangles should be stored", 200, quadTree.getRoot().getTotalRectangles());
+        assertTrue("Tree should be deeper than one level", maxLeafDepth(quadTree.getRoot(), 0) > 1);
+        assertTrue("No leaf should exceed the capacity", maxLeafSize(quadTree.getRoot()) <= 4);
+        assertNotNull("Clustered rectangle should still be found", quadTree.find(-49 + 0.5f, -49 + 0.5f));
+    }
+
+    public void testMaxDepthStopsSplitting() throws Exception {
+        QuadTree quadTree = new QuadTree(2, 3);
+
+        // Identical anchors can never be separated, so splitting must stop at the maximum depth
+        for (int i = 0; i < 10; i++) {
+            quadTree.insert(new Rectangle(10, 10, 1, 1));
+        }
+
+        assertEquals("All rectangles should be stored", 10, quadTree.getRoot().getTotalRectangles());
+        assertEquals("Leaves should not go deeper than the maximum depth", 3, maxLeafDepth(quadTree.getRoot(), 0));
+        assertEquals("The deepest leaf should hold every rectangle", 10, maxLeafSize(quadTree.getRoot()));
+    }
+
+    public void testIndexedLeaves() throws Exception {
+        QuadTree quadTree = new QuadTree(new QuadTreeConfig(4, 16, true));
+        for (int i = 0; i < 50; i++) {
+            quadTree.insert(new Rectangle(-45 + i, -45 + i * 0.5f, 1, 1));
+        }
+        quadTree.update(-20, -32.5f, 3, 4);
+        quadTree.delete(0, -22.5f);
+
+        assertEquals("Updated rectangle should be found", 3.0f, quadTree.find(-20, -32.5f).length);
+        assertNull("Deleted rectangle should be gone", quadTree.find(0, -22.5f));
+        assertEquals("One rectangle should have been removed", 49, quadTree.getRoot().getTotalRectangles());
+    }
+
+    private int maxLeafDepth(Node node, int depth) {
+        if (node instanceof LeafNode) return depth;
+        int max = 0;
+        for (Node child : ((InternalNode) node).getChildren()) {
+            max = Math.max(max, maxLeafDepth(child, depth + 1));
+        }
+        return max;
+    }
+
+    private int maxLeafSize(Node node) {
+        if (node instanceof LeafNode) return node.getTotalRectangles();
+        int max = 0;
+        for (Node child : ((InternalNode) node).getChildren()) {
+            max = Math.max(max, maxLeafSize(child));
+        }
+        return max;
+    }
+
+    public void testQueryRange() throws Exception {
+        for (int i = -45; i < 50; i += 10) {
+            for (int j = -45; j < 50; j += 10) {
+                quadTree.insert(new Rectangle(i, j, 1, 1));
+            }
+        }
+
+        List<Rectangle> found = quadTree.queryRange(new Rectangle(-50, -50, 20, 20));
+        assertEquals("Window should contain a 2x2 block of anchors", 4, found.size());
+        for (Rectangle r : found) {
+            assertTrue("Every result should be anchored inside the window", r.point.x <= -30 && r.point.y <= -30);
+        }
+
+        assertEquals("Whole tree window should return everything", 100, quadTree.queryRange(new Rectangle(-50, -50, 100, 100)).size());
+        assertEquals("Window outside the tree should return nothing", 0, quadTree.queryRange(new Rectangle(60, 60, 10, 10)).size());
+    }
+
+    public void testQueryRangeVisitor() throws Exception {
+        quadTree.insert(new Rectangle(1, 1, 1, 1));
+        quadTree.insert(new Rectangle(2, 2, 1, 1));
+        quadTree.insert(new Rectangle(40, 40, 1, 1));
+
+        final int[] count = {0};
+        quadTree.queryRange(new Rectangle(0, 0, 5, 5), r -> count[0]++);
+        assertEquals("Visitor should see both rectangles in the window", 2, count[0]);
+    }
+
     public void testFindExistingRectangle() throws Exception {
         Rectangle rect = new Rectangle(10, 10, 5, 5);
         quadTree.insert(rect);
@@ -95,6 +199,417 @@ public class QuadTreeTest extends TestCase {
         }
     }
 
+    public void testTryOperationsNeverThrow() throws Exception {
+        assertTrue("Insert inside the boundary should succeed", quadTree.tryInsert(new Rectangle(10, 10, 5, 5)));
+        assertFalse("Insert outside the boundary should be rejected", quadTree.tryInsert(new Rectangle(500, 500, 5, 5)));
+
+        assertNotNull("Existing rectangle should be found", quadTree.tryFind(10, 10));
+        assertNull("Missing rectangle should give null", quadTree.tryFind(20, 20));
+        assertNull("Out-of-range point should give null", quadTree.tryFind(500, 500));
+
+        assertTrue("Existing rectangle should be updated", quadTree.tryUpdate(10, 10, 7, 7));
+        assertEquals("Update should change the length", 7.0f, quadTree.tryFind(10, 10).length);
+        assertFalse("Missing rectangle should not be updated", quadTree.tryUpdate(20, 20, 7, 7));
+
+        assertFalse("Missing rectangle should not be deleted", quadTree.tryDelete(20, 20));
+        assertTrue("Existing rectangle should be deleted", quadTree.tryDelete(10, 10));
+        assertNull("Deleted rectangle should be gone", quadTree.tryFind(10, 10));
+    }
+
+    public void testTryOperationsOnSplitTree() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            quadTree.insert(new Rectangle(-45 + i * 4, -45 + i * 4, 1, 1));
+        }
+        assertTrue("Root should have been split", quadTree.getRoot() instanceof InternalNode);
+        assertFalse("Out-of-range insert should be rejected", quadTree.tryInsert(new Rectangle(-60, 0, 1, 1)));
+        assertNull("Out-of-range find should give null", quadTree.tryFind(-60, 0));
+        assertFalse("Out-of-range delete should report a miss", quadTree.tryDelete(-60, 0));
+        assertFalse("Out-of-range point should not be in bounds", quadTree.inBounds(-60, 0));
+        assertTrue("Existing rectangle should be deleted", quadTree.tryDelete(-45, -45));
+    }
+
+    public void testExplicitBounds() throws Exception {
+        QuadTree quadTree = new QuadTree(1000, 2000, 500, 500);
+        assertTrue("Point inside the custom boundary should be accepted", quadTree.tryInsert(new Rectangle(1200, 2400, 1, 1)));
+        assertFalse("Point inside the default boundary should be rejected", quadTree.tryInsert(new Rectangle(0, 0, 1, 1)));
+        assertNotNull("Inserted rectangle should be found", quadTree.tryFind(1200, 2400));
+    }
+
+    public void testInvalidBounds() {
+        try {
+            new QuadTree(0, 0, 0, 10);
+            fail("A boundary without area should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Boundary must have a finite, positive size: 0.0x10.0", e.getMessage());
+        }
+    }
+
+    public void testUnboundedTreeGrows() throws Exception {
+        QuadTree quadTree = QuadTree.unbounded();
+        for (int i = 0; i < 20; i++) {
+            quadTree.insert(new Rectangle(-45 + i * 4, -45 + i * 4, 1, 1));
+        }
+        Node oldRoot = quadTree.getRoot();
+
+        quadTree.insert(new Rectangle(1e6f, -3e5f, 1, 1));
+        quadTree.insert(new Rectangle(-2e7f, 4e7f, 1, 1));
+
+        assertTrue("Far points should now be inside the boundary", quadTree.inBounds(-2e7f, 4e7f) && quadTree.inBounds(1e6f, -3e5f));
+        assertEquals("All rectangles should be stored", 22, quadTree.getRoot().getTotalRectangles());
+        assertTrue("The old root should have been kept, not rebuilt", containsNode(quadTree.getRoot(), oldRoot));
+        for (int i = 0; i < 20; i++) {
+            assertNotNull("Original rectangles should still be found", quadTree.find(-45 + i * 4, -45 + i * 4));
+        }
+        assertNotNull("Far rectangle should be found", quadTree.find(1e6f, -3e5f));
+        assertNotNull("Far rectangle should be found", quadTree.find(-2e7f, 4e7f));
+    }
+
+    public void testUnboundedTreeRejectsNonFinitePoints() {
+        QuadTree quadTree = QuadTree.unbounded();
+        assertFalse("Infinite anchors can never fit", quadTree.tryInsert(new Rectangle(Float.POSITIVE_INFINITY, 0, 1, 1)));
+        assertFalse("NaN anchors can never fit", quadTree.tryInsert(new Rectangle(Float.NaN, 0, 1, 1)));
+    }
+
+    public void testGrowingKeepsEdgeRectanglesReachable() {
+        QuadTree topEdge = QuadTree.unbounded();
+        topEdge.tryInsert(new Rectangle(0, 50, 1, 1));
+        topEdge.tryInsert(new Rectangle(200, 200, 1, 1));  // The old root becomes the bottom-left quadrant
+        assertNotNull("A rectangle on the old top edge should be found", topEdge.tryFind(0, 50));
+        assertTrue(topEdge.tryUpdate(0, 50, 3, 3));
+        assertTrue(topEdge.tryDelete(0, 50));
+        assertEquals(1, topEdge.size());
+
+        QuadTree leftEdge = QuadTree.unbounded();
+        leftEdge.tryInsert(new Rectangle(-50, 0, 1, 1));
+        leftEdge.tryInsert(new Rectangle(-200, -200, 1, 1));  // The old root becomes the top-right quadrant
+        assertNotNull("A rectangle on the old left edge should be found", leftEdge.tryFind(-50, 0));
+        assertTrue(leftEdge.tryUpdate(-50, 0, 3, 3));
+        assertTrue(leftEdge.tryDelete(-50, 0));
+        assertEquals(1, leftEdge.size());
+
+        // Both edges at once, with enough rectangles on them that the old root has been split
+        QuadTree both = QuadTree.unbounded(new QuadTreeConfig(3, 16, true, LeafStorage.PACKED));
+        for (int i = 0; i <= 20; i++) {
+            both.tryInsert(new Rectangle(-50, -50 + i * 5, 1, 1));
+            both.tryInsert(new Rectangle(-50 + i * 5, 50, 1, 1));
+        }
+        both.tryInsert(new Rectangle(-50, 50, 2, 2));  // A duplicate anchor on the corner
+        both.tryInsert(new Rectangle(-1000, 1000, 1, 1));  // The old root becomes the bottom-right quadrant, twice over
+        for (int i = 0; i <= 20; i++) {
+            assertNotNull("Left edge rectangle " + i + " should be found", both.tryFind(-50, -50 + i * 5));
+            assertNotNull("Top edge rectangle " + i + " should be found", both.tryFind(-50 + i * 5, 50));
+        }
+        assertEquals(44, both.size());
+        assertEquals("Every corner rectangle should have moved exactly once", 44, both.queryRange(new Rectangle(-2000, -2000, 4000, 4000)).size());
+        assertTrue(both.tryDelete(-50, 50));
+        assertEquals(41, both.size());
+    }
+
+    public void testAcceptsPredictsInsert() {
+        QuadTree bounded = new QuadTree();
+        QuadTree unbounded = QuadTree.unbounded();
+        float[][] points = {{0, 0}, {50, 50}, {-51, 0}, {1e6f, -3e5f}, {Float.MAX_VALUE, 0}, {Float.NaN, 0}};
+        for (float[] p : points) {
+            for (QuadTree tree : new QuadTree[]{bounded, unbounded}) {
+                Rectangle before = tree.getBoundary();
+                boolean accepted = tree.accepts(p[0], p[1]);
+                assertEquals("accepts() should not change the boundary", before.width, tree.getBoundary().width);
+                assertEquals("accepts() should agree with tryInsert() at " + p[0] + ", " + p[1], accepted, tree.tryInsert(new Rectangle(p[0], p[1], 1, 1)));
+            }
+        }
+    }
+
+    private boolean containsNode(Node node, Node target) {
+        if (node == target) return true;
+        if (!(node instanceof InternalNode)) return false;
+        for (Node child : ((InternalNode) node).getChildren()) {
+            if (containsNode(child, target)) return true;
+        }
+        return false;
+    }
+
+    public void testBulkLoadMatchesSequentialInsert() throws Exception {
+        QuadTreeConfig[] configs = {
+                QuadTreeConfig.DEFAULT,
+                new QuadTreeConfig(3, 4),
+                new QuadTreeConfig(5, 16, true, LeafStorage.PACKED)
+        };
+        Random random = new Random(7);
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            rectangles.add(new Rectangle(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50, 1, 1));
+        }
+        rectangles.add(new Rectangle(0, 0, 1, 1));
+        rectangles.add(new Rectangle(0, 0, 2, 2)); // duplicate anchor
+        rectangles.add(new Rectangle(500, 500, 1, 1)); // outside the boundary
+
+        for (QuadTreeConfig config : configs) {
+            QuadTree sequential = new QuadTree(config);
+            for (Rectangle r : rectangles) sequential.tryInsert(r);
+            QuadTree bulk = new QuadTree(config);
+            assertEquals("Every rectangle inside the boundary should be loaded", 2002, bulk.bulkLoad(rectangles));
+            assertSameTree(sequential, bulk);
+        }
+    }
+
+    public void testDeleteDemotesRootToLeaf() throws Exception {
+        for (int i = 0; i < 20; i++) quadTree.insert(new Rectangle(-45 + i * 4, -45 + i * 4, 1, 1));
+        assertTrue("The tree should have split", quadTree.getRoot() instanceof InternalNode);
+        for (int i = 0; i < 18; i++) quadTree.delete(-45 + i * 4, -45 + i * 4);
+        assertTrue("Two rectangles fit in a leaf again", quadTree.getRoot() instanceof AbstractLeafNode);
+        assertEquals("The root keeps its boundary", -50f, quadTree.getBoundary().point.x);
+        assertNotNull("Remaining rectangles survive the merge", quadTree.find(-45 + 18 * 4, -45 + 18 * 4));
+        assertNotNull("Remaining rectangles survive the merge", quadTree.find(-45 + 19 * 4, -45 + 19 * 4));
+    }
+
+    public void testDeleteCollapsesUnderfullSubtree() throws Exception {
+        // A deep cluster in one quadrant plus enough elsewhere to keep the root internal
+        for (int i = 0; i < 12; i++) quadTree.insert(new Rectangle(10 + i * 0.1f, 10 + i * 0.1f, 1, 1));
+        for (int i = 0; i < 6; i++) quadTree.insert(new Rectangle(-40 + i, -40, 1, 1));
+        InternalNode root = (InternalNode) quadTree.getRoot();
+        assertTrue("The cluster should be split", root.topRight instanceof InternalNode);
+
+        for (int i = 0; i < 10; i++) quadTree.delete(10 + i * 0.1f, 10 + i * 0.1f);
+        root = (InternalNode) quadTree.getRoot();
+        assertTrue("The underfull quadrant should be a single leaf", root.topRight instanceof AbstractLeafNode);
+        assertEquals("It keeps its rectangles", 2, root.topRight.getTotalRectangles());
+    }
+
+    public void testMergeHysteresis() {
+        QuadTree tree = new QuadTree(new QuadTreeConfig(4, 16));
+        float[] xs = {-40, 40, -40, 40, 10};
+        for (float x : xs) tree.tryInsert(new Rectangle(x, x == 10 ? 10 : -x, 1, 1));
+        assertTrue("Five rectangles over a capacity of four split the root", tree.getRoot() instanceof InternalNode);
+        tree.tryDelete(10, 10);
+        assertTrue("Back at capacity is not yet underfull", tree.getRoot() instanceof InternalNode);
+        tree.tryDelete(-40, 40);
+        tree.tryDelete(40, -40);
+        assertTrue("Half the capacity merges", tree.getRoot() instanceof AbstractLeafNode);
+        tree.tryInsert(new Rectangle(1, 1, 1, 1));
+        tree.tryInsert(new Rectangle(2, 2, 1, 1));
+        assertTrue("A merged leaf does not split again until it is over capacity", tree.getRoot() instanceof AbstractLeafNode);
+    }
+
+    public void testUnboundedRootCollapseKeepsBoundary() {
+        QuadTree tree = QuadTree.unbounded();
+        for (int i = 0; i < 8; i++) tree.tryInsert(new Rectangle(i * 100, i * 100, 1, 1));
+        Rectangle grown = tree.getBoundary();
+        for (int i = 0; i < 8; i++) tree.tryDelete(i * 100, i * 100);
+        assertTrue("An empty tree is a single leaf", tree.getRoot() instanceof AbstractLeafNode);
+        assertEquals("The grown boundary is kept", grown.length, tree.getBoundary().length);
+        assertTrue("And can be filled again", tree.tryInsert(new Rectangle(700, 700, 1, 1)));
+    }
+
+    public void testUpdateResizesInPlace() {
+        QuadTreeConfig[] configs = {QuadTreeConfig.DEFAULT, new QuadTreeConfig(5, 16, true), new QuadTreeConfig(5, 16, true, LeafStorage.PACKED)};
+        for (QuadTreeConfig config : configs) {
+            QuadTree tree = new QuadTree(config);
+            for (int i = 0; i < 40; i++) tree.tryInsert(new Rectangle(-45 + i * 2, -45 + i * 2, 1, 1));
+            Node rootBefore = tree.getRoot();
+            AbstractLeafNode leaf = leafAt(rootBefore, tree.getBoundary(), -45 + 10 * 2, -45 + 10 * 2);
+            int position = leaf.indexOf(-25, -25);
+
+            assertTrue("An existing rectangle should be updated", tree.tryUpdate(-25, -25, 7, 8));
+            assertSame("The tree should not be restructured", rootBefore, tree.getRoot());
+            assertEquals("The rectangle should keep its place in the leaf", position, leaf.indexOf(-25, -25));
+            assertEquals("New length", 7f, leaf.length(position));
+            assertEquals("New width", 8f, leaf.width(position));
+            assertEquals("Nothing should be added or removed", 40, tree.getRoot().getTotalRectangles());
+            assertFalse("A missing rectangle should not be updated", tree.tryUpdate(-24, -25, 7, 8));
+        }
+    }
+
+    public void testUpdateCollapsesDuplicateAnchors() {
+        QuadTreeConfig[] configs = {QuadTreeConfig.DEFAULT, new QuadTreeConfig(5, 16, true), new QuadTreeConfig(5, 16, true, LeafStorage.PACKED)};
+        for (QuadTreeConfig config : configs) {
+            QuadTree tree = new QuadTree(config);
+            tree.tryInsert(new Rectangle(1, 1, 1, 1));
+            tree.tryInsert(new Rectangle(2, 2, 1, 1));
+            tree.tryInsert(new Rectangle(1, 1, 2, 2));
+            tree.tryInsert(new Rectangle(1, 1, 3, 3));
+            assertTrue("The rectangle should be updated", tree.tryUpdate(1, 1, 5, 6));
+            assertEquals("Only one rectangle should remain at the anchor, as with delete and insert", 2, tree.getRoot().getTotalRectangles());
+            assertEquals("The remaining rectangle has the new size", 5f, tree.tryFind(1, 1).length);
+            assertTrue("It can still be deleted", tree.tryDelete(1, 1));
+            assertNull("And is then gone", tree.tryFind(1, 1));
+            assertNotNull("Other rectangles are untouched", tree.tryFind(2, 2));
+        }
+    }
+
+    private static AbstractLeafNode leafAt(Node node, Rectangle boundary, float x, float y) {
+        double left = boundary.point.x, bottom = boundary.point.y, width = boundary.length, height = boundary.width;
+        while (node instanceof InternalNode) {
+            int q = InternalNode.quadrantOf(x, y, left, bottom, width, height);
+            node = ((InternalNode) node).child(q);
+            left = InternalNode.quadrantLeft(q, left, width);
+            bottom = InternalNode.quadrantBottom(q, bottom, height);
+            width /= 2;
+            height /= 2;
+        }
+        return (AbstractLeafNode) node;
+    }
+
+    public void testParallelBulkLoadMatchesSequentialInsert() {
+        Random random = new Random(13);
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (int i = 0; i < 40000; i++) {
+            rectangles.add(new Rectangle(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50, 1, 1));
+        }
+        QuadTree sequential = new QuadTree();
+        for (Rectangle r : rectangles) sequential.tryInsert(r);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            QuadTree parallel = new QuadTree();
+            assertEquals("Every rectangle should be loaded", 40000, parallel.bulkLoad(rectangles, pool));
+            assertSameTree(sequential, parallel);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public void testBulkLoadIntoNonEmptyTree() throws Exception {
+        for (int i = 0; i < 8; i++) {
+            quadTree.insert(new Rectangle(-45 + i * 10, -45 + i * 10, 1, 1));
+        }
+        Rectangle[] more = new Rectangle[30];
+        for (int i = 0; i < more.length; i++) {
+            more[i] = new Rectangle(-40 + i * 3, 40 - i * 3, 1, 1);
+        }
+
+        QuadTree sequential = new QuadTree();
+        for (int i = 0; i < 8; i++) sequential.insert(new Rectangle(-45 + i * 10, -45 + i * 10, 1, 1));
+        for (Rectangle r : more) sequential.insert(r);
+
+        assertEquals("Only the new rectangles should be counted", 30, quadTree.bulkLoad(more));
+        assertEquals("Existing rectangles should be kept", 38, quadTree.getRoot().getTotalRectangles());
+        assertEquals("Same content as sequential insertion", sequential.queryRange(sequential.getBoundary()).size(),
+                quadTree.queryRange(quadTree.getBoundary()).size());
+        for (int i = 0; i < 8; i++) {
+            assertNotNull("Existing rectangle should still be found", quadTree.find(-45 + i * 10, -45 + i * 10));
+        }
+    }
+
+    public void testBulkLoadGrowsUnboundedTree() throws Exception {
+        QuadTree sequential = QuadTree.unbounded();
+        QuadTree bulk = QuadTree.unbounded();
+        Rectangle[] rectangles = {
+                new Rectangle(0, 0, 1, 1), new Rectangle(1e6f, -3e5f, 1, 1), new Rectangle(-2e7f, 4e7f, 1, 1),
+                new Rectangle(3, 3, 1, 1), new Rectangle(4, 4, 1, 1), new Rectangle(5, 5, 1, 1), new Rectangle(6, 6, 1, 1),
+                new Rectangle(Float.NaN, 0, 1, 1)
+        };
+        for (Rectangle r : rectangles) sequential.tryInsert(r);
+
+        assertEquals("Every finite rectangle should be loaded", 7, bulk.bulkLoad(Arrays.stream(rectangles)));
+        assertEquals("The tree should grow to the same boundary", sequential.getBoundary().length, bulk.getBoundary().length);
+        assertEquals("The tree should grow to the same boundary", sequential.getBoundary().point.x, bulk.getBoundary().point.x);
+        assertEquals("The tree should grow to the same boundary", sequential.getBoundary().point.y, bulk.getBoundary().point.y);
+        assertEquals("Same content as sequential insertion", 7, bulk.queryRange(bulk.getBoundary()).size());
+        assertNotNull("Far rectangle should be found", bulk.find(-2e7f, 4e7f));
+    }
+
+    public void testQueryIntersectingMatchesBruteForce() {
+        QuadTreeConfig[] configs = {QuadTreeConfig.DEFAULT, new QuadTreeConfig(5, 16, true, LeafStorage.PACKED)};
+        Random random = new Random(3);
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            float size = i % 100 == 0 ? 60 : random.nextFloat() * 4; // A few large rectangles reach across many quadrants
+            rectangles.add(new Rectangle(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50, size, size / 2));
+        }
+
+        for (QuadTreeConfig config : configs) {
+            QuadTree tree = new QuadTree(config);
+            for (Rectangle r : rectangles) tree.tryInsert(r);
+            for (int q = 0; q < 100; q++) {
+                Rectangle window = new Rectangle(random.nextFloat() * 120 - 60, random.nextFloat() * 120 - 60,
+                        random.nextFloat() * 10, random.nextFloat() * 10);
+                int expected = 0;
+                for (Rectangle r : rectangles) if (r.intersects(window)) expected++;
+                assertEquals("Every overlapping rectangle should be found", expected, tree.queryIntersecting(window).size());
+            }
+        }
+    }
+
+    public void testQueryIntersectingFindsRectangleAnchoredElsewhere() throws Exception {
+        quadTree.insert(new Rectangle(-40, -40, 80, 80)); // Anchored bottom-left, covers most of the tree
+        for (int i = 0; i < 20; i++) quadTree.insert(new Rectangle(-45 + i * 4, 30, 1, 1)); // Forces splits
+        Rectangle window = new Rectangle(35, -20, 2, 2);
+        assertTrue("The range query only looks at anchors", quadTree.queryRange(window).isEmpty());
+        assertEquals("The large rectangle overlaps the window", -40f, quadTree.queryIntersecting(window).get(0).point.x);
+    }
+
+    public void testQueryIntersectingAfterDeleteAndUpdate() throws Exception {
+        for (int i = 0; i < 20; i++) quadTree.insert(new Rectangle(-45 + i * 4, -45 + i * 4, 1, 1));
+        quadTree.insert(new Rectangle(-10, -10, 50, 50));
+        Rectangle window = new Rectangle(35, 35, 1, 1);
+        assertEquals("The large rectangle should be found", 1, quadTree.queryIntersecting(window).size());
+
+        quadTree.update(-10, -10, 1, 1);
+        assertTrue("The shrunken rectangle no longer overlaps", quadTree.queryIntersecting(window).isEmpty());
+        assertEquals("Extents should shrink back along the path", 1f, quadTree.getRoot().maxLength);
+
+        quadTree.update(-10, -10, 50, 50);
+        quadTree.delete(-10, -10);
+        assertTrue("A deleted rectangle is not found", quadTree.queryIntersecting(window).isEmpty());
+    }
+
+    public void testQueryIntersectingOnGrownAndLoadedTrees() {
+        QuadTree unbounded = QuadTree.unbounded();
+        unbounded.tryInsert(new Rectangle(0, 0, 500, 500));
+        unbounded.tryInsert(new Rectangle(1000, 1000, 1, 1)); // Grows the root around the first rectangle
+        assertEquals("The old root's extent should carry over", 1, unbounded.queryIntersecting(new Rectangle(400, 400, 1, 1)).size());
+
+        QuadTree bulk = new QuadTree();
+        bulk.bulkLoad(new Rectangle[]{new Rectangle(-40, -40, 70, 70), new Rectangle(10, 10, 1, 1)});
+        assertEquals("Bulk loaded nodes should track extents", 1, bulk.queryIntersecting(new Rectangle(20, 20, 1, 1)).size());
+    }
+
+    // Shared with SnapshotTest
+    static void assertSameTree(QuadTree expected, QuadTree actual) {
+        Rectangle e = expected.getBoundary(), a = actual.getBoundary();
+        assertEquals("Root boundaries should match", e.point.x, a.point.x);
+        assertEquals("Root boundaries should match", e.point.y, a.point.y);
+        assertEquals("Root boundaries should match", e.length, a.length);
+        assertEquals("Root boundaries should match", e.width, a.width);
+        assertSameTree(expected.getRoot(), actual.getRoot());
+    }
+
+    // Children cover the quadrants their parent computes, so matching shapes also means matching boundaries
+    private static void assertSameTree(Node expected, Node actual) {
+        assertEquals("Node kinds should match", expected.getClass(), actual.getClass());
+        if (expected instanceof InternalNode) {
+            Node[] e = ((InternalNode) expected).getChildren();
+            Node[] a = ((InternalNode) actual).getChildren();
+            for (int i = 0; i < e.length; i++) assertSameTree(e[i], a[i]);
+        } else {
+            AbstractLeafNode e = (AbstractLeafNode) expected, a = (AbstractLeafNode) actual;
+            assertEquals("Leaf sizes should match", e.size(), a.size());
+            for (int i = 0; i < e.size(); i++) {
+                assertEquals("Leaf contents should match in order", e.x(i), a.x(i));
+                assertEquals("Leaf contents should match in order", e.y(i), a.y(i));
+                assertEquals("Leaf contents should match in order", e.length(i), a.length(i));
+                assertEquals("Leaf contents should match in order", e.width(i), a.width(i));
+            }
+        }
+    }
+
+    public void testDeepSubdivisionOfOddBoundary() {
+        // Quadrants 20+ levels down an area that is not a power of two; they must still tile it exactly
+        QuadTree tree = new QuadTree(0.1f, 0.3f, 0.7f, 0.9f, new QuadTreeConfig(1, 30));
+        int n = 200;
+        for (int i = 0; i < n; i++) {
+            assertTrue("Rectangle should be stored", tree.tryInsert(new Rectangle(0.45f + i * 1e-6f, 0.75f - i * 1e-6f, 1, 1)));
+        }
+        assertEquals("Every rectangle should be in range of the root", n, tree.queryRange(tree.getBoundary()).size());
+        for (int i = 0; i < n; i++) {
+            float x = 0.45f + i * 1e-6f, y = 0.75f - i * 1e-6f;
+            assertNotNull("Rectangle should be found where it was stored", tree.tryFind(x, y));
+            assertEquals("A window around the anchor should find it", 1, tree.queryRange(new Rectangle(x, y, 0, 0)).size());
+            assertTrue("Rectangle should be deleted", tree.tryDelete(x, y));
+        }
+        assertEquals("Nothing should be left", 0, tree.size());
+    }
+
     public void testDumpTree() {
         // Redirecting output for testing dump functionality is more complex
         // Usually done by asserting printed output or capturing it in a mock
@@ -26,6 +26,14 @@ public class RectangleTest extends TestCase {
         assertFalse("Point (-1, -1) should be outside the rectangle", rectangle.contains(-1, -1));
     }
 
+    public void testIntersects() {
+        assertTrue("Overlapping rectangle should intersect", rectangle.intersects(new Rectangle(5, 2, 10, 10)));
+        assertTrue("Rectangle touching the edge should intersect", rectangle.intersects(new Rectangle(10, 5, 3, 3)));
+        assertTrue("Enclosing rectangle should intersect", rectangle.intersects(new Rectangle(-5, -5, 20, 20)));
+        assertFalse("Rectangle to the right should not intersect", rectangle.intersects(new Rectangle(11, 0, 3, 3)));
+        assertFalse("Rectangle above should not intersect", rectangle.intersects(new Rectangle(0, 6, 3, 3)));
+    }
+
     public void testToString() {
         String expected = "Rectangle at (0.00, 0.00): 10.00x5.00";
         assertEquals("toString should return the correct format", expected, rectangle.toString());
@@ -0,0 +1,140 @@
+package org.sample.mavensample;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class SnapshotTest extends TestCase {
+    private Path file;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        file = Files.createTempFile("quadtree", ".snapshot");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+        super.tearDown();
+    }
+
+    private static QuadTree filled(QuadTree quadTree, int count) {
+        Random random = new Random(3);
+        for (int i = 0; i < count; i++) {
+            quadTree.tryInsert(new Rectangle(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50, random.nextFloat(), random.nextFloat()));
+        }
+        quadTree.tryInsert(new Rectangle(0, 0, 1, 1));
+        quadTree.tryInsert(new Rectangle(0, 0, 2, 2)); // duplicate anchor
+        return quadTree;
+    }
+
+    public void testRoundTrip() throws Exception {
+        QuadTree[] trees = {
+                filled(new QuadTree(), 3000),
+                filled(new QuadTree(new QuadTreeConfig(3, 6, true, LeafStorage.PACKED)), 3000),
+                filled(new QuadTree(-1000, 20, 3000, 7.5f), 500),
+                new QuadTree()
+        };
+        for (QuadTree original : trees) {
+            original.save(file);
+            QuadTree loaded = QuadTree.load(file);
+            QuadTreeTest.assertSameTree(original, loaded);
+        }
+    }
+
+    public void testLoadedTreeKeepsConfiguration() throws Exception {
+        filled(new QuadTree(new QuadTreeConfig(3, 6, true, LeafStorage.PACKED)), 100).save(file);
+        QuadTree loaded = QuadTree.load(file);
+
+        assertTrue("Leaves should use the saved storage", findLeaf(loaded.getRoot()) instanceof PackedLeafNode);
+        for (int i = 0; i < 20; i++) loaded.tryInsert(new Rectangle(10 + i * 0.01f, 10, 1, 1));
+        assertTrue("Leaves should be split at the saved capacity", maxLeafSize(loaded.getRoot()) <= 3 || maxDepth(loaded.getRoot()) == 6);
+        assertTrue(loaded.tryDelete(0, 0));
+        assertNull("Both rectangles at the duplicate anchor should be deleted", loaded.tryFind(0, 0));
+    }
+
+    public void testUnboundedTreeKeepsGrowing() throws Exception {
+        QuadTree original = QuadTree.unbounded();
+        for (int i = 0; i < 50; i++) original.tryInsert(new Rectangle(i * 3 - 40, i * 2 - 45, 1, 1));
+        original.tryInsert(new Rectangle(1e6f, -3e5f, 1, 1));
+        original.save(file);
+
+        QuadTree loaded = QuadTree.load(file);
+        QuadTreeTest.assertSameTree(original, loaded);
+        assertTrue("The loaded tree should still grow", loaded.tryInsert(new Rectangle(-2e7f, 4e7f, 1, 1)));
+        assertNotNull(loaded.tryFind(1e6f, -3e5f));
+    }
+
+    public void testSaveReplacesEarlierSnapshot() throws Exception {
+        filled(new QuadTree(), 1000).save(file);
+        QuadTree small = new QuadTree();
+        small.insert(new Rectangle(1, 2, 3, 4));
+        small.save(file);
+
+        QuadTree loaded = QuadTree.load(file);
+        assertEquals(1, loaded.getRoot().getTotalRectangles());
+        assertFalse("The temporary file should be gone", Files.exists(file.resolveSibling(file.getFileName() + ".tmp")));
+    }
+
+    public void testRejectsBadFiles() throws Exception {
+        Files.write(file, "insert 1 2 3 4;\n".getBytes("US-ASCII"));
+        assertLoadFails("Not a quadtree snapshot: " + file);
+
+        filled(new QuadTree(), 100).save(file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 5));
+        assertLoadFails("Snapshot is truncated: " + file);
+
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length + 1));
+        assertLoadFails("Corrupt snapshot: " + file);
+    }
+
+    public void testRejectsRunawayDepth() throws Exception {
+        new QuadTree().save(file);
+        byte[] header = java.util.Arrays.copyOf(Files.readAllBytes(file), 64);
+        byte[] bytes = java.util.Arrays.copyOf(header, 64 + 2 * 1024 * 1024);
+        java.util.Arrays.fill(bytes, 64, bytes.length, (byte) 1);  // Nothing but internal nodes, each the first child of the last
+        Files.write(file, bytes);
+        assertLoadFails("Corrupt snapshot: " + file);
+    }
+
+    public void testGrownTreeDeeperThanMaxDepthLoads() throws Exception {
+        QuadTree original = QuadTree.unbounded(new QuadTreeConfig(1, 2));
+        for (int i = 0; i < 8; i++) original.tryInsert(new Rectangle(i, i, 1, 1));
+        original.tryInsert(new Rectangle(1e9f, 1e9f, 1, 1));  // Pushes the split nodes many levels below maxDepth
+        assertTrue(maxDepth(original.getRoot()) > 2);
+        original.save(file);
+        QuadTreeTest.assertSameTree(original, QuadTree.load(file));
+    }
+
+    private void assertLoadFails(String message) {
+        try {
+            QuadTree.load(file);
+            fail("Loading should fail with: " + message);
+        } catch (IOException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    private static Node findLeaf(Node node) {
+        return node instanceof InternalNode ? findLeaf(((InternalNode) node).getChildren()[0]) : node;
+    }
+
+    private static int maxLeafSize(Node node) {
+        if (!(node instanceof InternalNode)) return node.getTotalRectangles();
+        int max = 0;
+        for (Node child : ((InternalNode) node).getChildren()) max = Math.max(max, maxLeafSize(child));
+        return max;
+    }
+
+    private static int maxDepth(Node node) {
+        if (!(node instanceof InternalNode)) return 0;
+        int max = 0;
+        for (Node child : ((InternalNode) node).getChildren()) max = Math.max(max, maxDepth(child) + 1);
+        return max;
+    }
+}